@@ -0,0 +1,213 @@
+package dev.artha.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.artha.annotations.After;
+import dev.artha.annotations.Before;
+import dev.artha.annotations.Body;
+import dev.artha.annotations.PathParam;
+import dev.artha.annotations.Query;
+import dev.artha.annotations.Status;
+import dev.artha.annotations.Step;
+import dev.artha.annotations.Valid;
+import dev.artha.core.Runtime;
+import dev.artha.http.HttpException;
+import dev.artha.http.Middleware;
+import dev.artha.http.Request;
+import dev.artha.http.Response;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import java.io.File;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Allocation budget suite for the dispatch path.
+ *
+ * Drives representative routes through Runtime.dispatch() on an in-process
+ * Context and measures the bytes the calling thread allocates per request
+ * with ThreadMXBean. Exits with status 1 when a route goes over its budget
+ * (or answers with the wrong status), so it can gate CI.
+ *
+ * Budgets (bytes per request) come from allocation-budget.json on the
+ * classpath, or from the file given as the first argument:
+ *
+ * java -cp target/benchmarks.jar dev.artha.bench.AllocationBudget [budget.json]
+ */
+public class AllocationBudget {
+
+    /**
+     * Routes covering each stage of dispatch
+     */
+    @Step(path = "/budget")
+    public static class Routes {
+
+        @Step(path = "/posts/{id}", method = "GET")
+        public Map<String, Object> pathParam(@PathParam("id") long id) {
+            return Map.of("id", id, "title", "Hello");
+        }
+
+        @Step(path = "/posts", method = "GET")
+        public Map<String, Object> queryParam(@Query(value = "page", defaultValue = "1") int page,
+                @Query(value = "limit", defaultValue = "20") int limit) {
+            return Map.of("page", page, "limit", limit);
+        }
+
+        @Step(path = "/posts", method = "POST")
+        @Status(201)
+        public NewPost body(@Body @Valid NewPost post) {
+            return post;
+        }
+
+        @Step(path = "/me", method = "GET")
+        @Before({ RequireToken.class, TenantHeader.class })
+        @After(ServedBy.class)
+        public Map<String, Object> middleware(Request req) {
+            return Map.of("tenant", req.header("X-Tenant"));
+        }
+
+        @Step(path = "/posts/{id}/missing", method = "GET")
+        public Object exception(@PathParam("id") long id) {
+            throw new HttpException(404, "Post " + id + " not found");
+        }
+    }
+
+    public static class NewPost {
+        @Min(1)
+        public long userId;
+
+        @NotBlank
+        @Size(max = 280)
+        public String content;
+    }
+
+    public static class RequireToken implements Middleware {
+        @Override
+        public void apply(Request req, Response res) {
+            String auth = req.header("Authorization");
+            if (auth == null || !auth.startsWith("Bearer ")) {
+                res.status(401).json(Map.of("error", "Unauthorized")).halt();
+            }
+        }
+    }
+
+    public static class TenantHeader implements Middleware {
+        @Override
+        public void apply(Request req, Response res) {
+            if (req.header("X-Tenant") == null) {
+                res.status(400).json(Map.of("error", "X-Tenant required")).halt();
+            }
+        }
+    }
+
+    public static class ServedBy implements Middleware {
+        @Override
+        public void apply(Request req, Response res) {
+            res.header("X-Served-By", "artha");
+        }
+    }
+
+    /**
+     * One route and the request that exercises it
+     */
+    private static final class Case {
+        final String name;
+        final Method method;
+        final BenchContext ctx;
+        final int expectedStatus;
+
+        Case(String name, BenchContext ctx, int expectedStatus) throws NoSuchMethodException {
+            this.name = name;
+            this.method = findRoute(name);
+            this.ctx = ctx;
+            this.expectedStatus = expectedStatus;
+        }
+
+        void run() {
+            Runtime.dispatch(ctx.reset(), Routes.class, method);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        JsonNode config = loadBudgets(args.length > 0 ? args[0] : null);
+        int warmup = config.path("warmup").asInt(20000);
+        int requests = config.path("requests").asInt(20000);
+        JsonNode budgets = config.path("budgets");
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            System.err.println("❌ This JVM can't measure per-thread allocation");
+            System.exit(2);
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long thread = Thread.currentThread().getId();
+
+        Case[] cases = {
+                new Case("pathParam", BenchContext.get("/budget/posts/42").pathParam("id", "42"), 200),
+                new Case("queryParam", BenchContext.get("/budget/posts").query("page", "3").query("limit", "50"),
+                        200),
+                new Case("body", BenchContext.post("/budget/posts",
+                        "{\"userId\":7,\"content\":\"Measuring allocations on the dispatch path\"}"), 201),
+                new Case("middleware", BenchContext.get("/budget/me").requestHeader("X-Tenant", "acme"), 200),
+                new Case("exception", BenchContext.get("/budget/posts/42/missing").pathParam("id", "42"), 404),
+        };
+
+        Map<String, Long> measured = new LinkedHashMap<>();
+        for (Case c : cases) {
+            c.run();
+            if (c.ctx.responseStatus() != c.expectedStatus) {
+                System.err.println("❌ " + c.name + " answered " + c.ctx.responseStatus() + ", expected "
+                        + c.expectedStatus);
+                System.exit(1);
+            }
+            for (int i = 0; i < warmup; i++) {
+                c.run();
+            }
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < requests; i++) {
+                c.run();
+            }
+            measured.put(c.name, (threads.getThreadAllocatedBytes(thread) - before) / requests);
+        }
+
+        boolean failed = false;
+        System.out.println();
+        System.out.printf("%-12s %12s %10s%n", "Route", "Bytes/req", "Budget");
+        for (Map.Entry<String, Long> entry : measured.entrySet()) {
+            long budget = budgets.path(entry.getKey()).asLong(Long.MAX_VALUE);
+            boolean over = entry.getValue() > budget;
+            failed |= over;
+            System.out.printf("%-12s %12d %10s  %s%n", entry.getKey(), entry.getValue(),
+                    budget == Long.MAX_VALUE ? "-" : String.valueOf(budget), over ? "❌ over budget" : "✓");
+        }
+        System.out.println();
+        System.exit(failed ? 1 : 0);
+    }
+
+    static Method findRoute(String name) throws NoSuchMethodException {
+        for (Method method : Routes.class.getMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new NoSuchMethodException(name);
+    }
+
+    private static JsonNode loadBudgets(String path) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        if (path != null) {
+            return mapper.readTree(new File(path));
+        }
+        try (InputStream in = AllocationBudget.class.getResourceAsStream("/allocation-budget.json")) {
+            if (in == null) {
+                throw new IllegalStateException("allocation-budget.json not found on the classpath");
+            }
+            return mapper.readTree(in);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package dev.artha.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files (from `mvn -Pbench verify` or
+ * `-rf json`), matching benchmarks by name and parameters. Prints the
+ * change per benchmark and exits with status 1 when any got slower by more
+ * than the threshold (default 10%), so a release can be checked against
+ * the previous one's results:
+ *
+ * java -cp target/benchmarks.jar dev.artha.bench.CompareResults old.json new.json [thresholdPercent]
+ */
+public class CompareResults {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: CompareResults <baseline.json> <current.json> [thresholdPercent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, JsonNode> baseline = load(args[0]);
+        Map<String, JsonNode> current = load(args[1]);
+
+        int regressions = 0;
+        System.out.printf("%-60s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode now = entry.getValue();
+            JsonNode before = baseline.get(entry.getKey());
+            String unit = now.path("primaryMetric").path("scoreUnit").asText();
+            double score = now.path("primaryMetric").path("score").asDouble();
+            if (before == null) {
+                System.out.printf("%-60s %14s %14s %9s%n", entry.getKey(), "-", format(score, unit), "new");
+                continue;
+            }
+            double previous = before.path("primaryMetric").path("score").asDouble();
+            double change = previous == 0 ? 0 : (score - previous) / previous * 100.0;
+            // Throughput: higher is better; time and allocation per op: lower is better
+            boolean higherIsBetter = "thrpt".equals(now.path("mode").asText());
+            double slowdown = higherIsBetter ? -change : change;
+            boolean regressed = slowdown > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-60s %14s %14s %+8.1f%%%s%n", entry.getKey(), format(previous, unit),
+                    format(score, unit), change, regressed ? "  REGRESSION" : "");
+        }
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                System.out.printf("%-60s %14s %14s %9s%n", name, "", "-", "missing");
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.println("\n❌ " + regressions + " benchmark(s) regressed by more than " + threshold + "%");
+            System.exit(1);
+        }
+        System.out.println("\n✅ No regressions over " + threshold + "%");
+    }
+
+    // Key: benchmark method plus its @Param values, e.g. QueryBuilderBenchmark.selectMaps(rows=20)
+    private static Map<String, JsonNode> load(String path) throws Exception {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(new File(path))) {
+            String benchmark = result.path("benchmark").asText();
+            StringBuilder key = new StringBuilder(benchmark.substring(benchmark.lastIndexOf('.',
+                    benchmark.lastIndexOf('.') - 1) + 1));
+            JsonNode params = result.path("params");
+            if (params.size() > 0) {
+                key.append('(');
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> param = fields.next();
+                    key.append(param.getKey()).append('=').append(param.getValue().asText());
+                    if (fields.hasNext()) {
+                        key.append(',');
+                    }
+                }
+                key.append(')');
+            }
+            int threads = result.path("threads").asInt(1);
+            if (threads > 1) {
+                key.append(" x").append(threads);
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    private static String format(double score, String unit) {
+        return String.format(score >= 100 ? "%.0f %s" : "%.3f %s", score, unit);
+    }
+}
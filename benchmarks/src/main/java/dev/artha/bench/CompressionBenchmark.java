@@ -0,0 +1,112 @@
+package dev.artha.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * CPU cost vs bytes saved for gzip of a typical JSON feed at each level,
+ * and the cost of serving a precompressed cache entry instead.
+ *
+ * The "savedPercent" and "outputBytes" secondary results show what each
+ * level buys; the primary score is time per response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompressionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Payload {
+        @Param({ "20", "200" })
+        public int sizeKb;
+
+        byte[] json;
+        byte[] precompressed;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            List<Map<String, Object>> posts = new ArrayList<>();
+            ByteArrayOutputStream probe = new ByteArrayOutputStream();
+            ObjectMapper mapper = new ObjectMapper();
+            for (int i = 0; probe.size() < sizeKb * 1024; i++) {
+                Map<String, Object> post = new LinkedHashMap<>();
+                post.put("id", i);
+                post.put("user_id", i % 97);
+                post.put("username", "user" + (i % 97));
+                post.put("content", "Post number " + i + " about framework performance and caching");
+                post.put("likes_count", i * 7 % 300);
+                post.put("created_at", "2024-05-" + (10 + i % 20) + "T10:15:30Z");
+                posts.add(post);
+                if (i % 50 == 0) {
+                    probe.reset();
+                    mapper.writeValue(probe, posts);
+                }
+            }
+            json = mapper.writeValueAsBytes(Map.of("posts", posts));
+            precompressed = gzip(json, 6);
+        }
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Bytes {
+        public long outputBytes;
+        public double savedPercent;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Gzip {
+        @Param({ "1", "4", "6", "9" })
+        public int level;
+    }
+
+    @Benchmark
+    public byte[] compress(Payload payload, Gzip settings, Bytes bytes) throws IOException {
+        byte[] compressed = gzip(payload.json, settings.level);
+        bytes.outputBytes = compressed.length;
+        bytes.savedPercent = 100.0 * (1 - compressed.length / (double) payload.json.length);
+        return compressed;
+    }
+
+    /**
+     * Cache hit: the stored gzip bytes are copied out, nothing is compressed
+     */
+    @Benchmark
+    public byte[] servePrecompressed(Payload payload) {
+        return payload.precompressed.clone();
+    }
+
+    static byte[] gzip(byte[] body, int level) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gzip.write(body);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,106 @@
+package dev.artha.bench;
+
+import dev.artha.core.Runtime;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time per request through Runtime.dispatch() for the AllocationBudget
+ * routes: path, query and validated body binding, a @Before/@After
+ * middleware chain (passing and halted at the first middleware), and a
+ * handler throwing HttpException through the error path.
+ *
+ * Excludes Jetty and Javalin routing; use `artha bench` for end-to-end
+ * numbers.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DispatchBenchmark {
+
+    @State(Scope.Thread)
+    public static class Requests {
+        final BenchContext pathParam = BenchContext.get("/budget/posts/42").pathParam("id", "42");
+        final BenchContext queryParam = BenchContext.get("/budget/posts").query("page", "3").query("limit", "50");
+        final BenchContext body = BenchContext.post("/budget/posts",
+                "{\"userId\":7,\"content\":\"Measuring dispatch on the request path\"}");
+        final BenchContext middleware = BenchContext.get("/budget/me").requestHeader("X-Tenant", "acme");
+        final BenchContext halted = BenchContext.get("/budget/me").requestHeader("Authorization", "");
+        final BenchContext exception = BenchContext.get("/budget/posts/42/missing").pathParam("id", "42");
+
+        Method pathParamRoute;
+        Method queryParamRoute;
+        Method bodyRoute;
+        Method middlewareRoute;
+        Method exceptionRoute;
+
+        @Setup(Level.Trial)
+        public void setUp() throws NoSuchMethodException {
+            pathParamRoute = AllocationBudget.findRoute("pathParam");
+            queryParamRoute = AllocationBudget.findRoute("queryParam");
+            bodyRoute = AllocationBudget.findRoute("body");
+            middlewareRoute = AllocationBudget.findRoute("middleware");
+            exceptionRoute = AllocationBudget.findRoute("exception");
+        }
+
+        int dispatch(BenchContext ctx, Method route) {
+            Runtime.dispatch(ctx.reset(), AllocationBudget.Routes.class, route);
+            return ctx.responseStatus();
+        }
+    }
+
+    @Benchmark
+    public int pathParam(Requests requests) {
+        return requests.dispatch(requests.pathParam, requests.pathParamRoute);
+    }
+
+    @Benchmark
+    public int queryParam(Requests requests) {
+        return requests.dispatch(requests.queryParam, requests.queryParamRoute);
+    }
+
+    /**
+     * JSON body parsed into a POJO and validated with @Valid
+     */
+    @Benchmark
+    public int body(Requests requests) {
+        return requests.dispatch(requests.body, requests.bodyRoute);
+    }
+
+    /**
+     * Two @Before and one @After middleware around the handler
+     */
+    @Benchmark
+    public int middleware(Requests requests) {
+        return requests.dispatch(requests.middleware, requests.middlewareRoute);
+    }
+
+    /**
+     * First middleware rejects the request with 401
+     */
+    @Benchmark
+    public int middlewareHalted(Requests requests) {
+        return requests.dispatch(requests.halted, requests.middlewareRoute);
+    }
+
+    /**
+     * Handler throws HttpException(404), answered by the error path
+     */
+    @Benchmark
+    public int exception(Requests requests) {
+        return requests.dispatch(requests.exception, requests.exceptionRoute);
+    }
+}
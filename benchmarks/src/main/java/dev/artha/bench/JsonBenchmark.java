@@ -0,0 +1,112 @@
+package dev.artha.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.javalin.json.JavalinJackson;
+import io.javalin.json.JsonMapper;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JSON for typical responses: a single post and a 20-post feed page, as
+ * POJOs (what handlers return) and as row maps (what QueryBuilder.get()
+ * returns), serialized with the JavalinJackson mapper behind ctx.json();
+ * plus parsing a request body into a POJO as @Body does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+
+    public static class Author {
+        public long id;
+        public String username;
+        public String avatarUrl;
+    }
+
+    public static class Post {
+        public long id;
+        public String content;
+        public int likesCount;
+        public boolean likedByMe;
+        public String createdAt;
+        public Author author;
+        public List<String> tags;
+    }
+
+    @State(Scope.Benchmark)
+    public static class Payloads {
+        final JsonMapper javalin = new JavalinJackson();
+        final ObjectMapper mapper = new ObjectMapper();
+        final Post post = post(1);
+        final Map<String, Object> feed = new LinkedHashMap<>();
+        final List<Map<String, Object>> rows = new ArrayList<>();
+        final String body = "{\"id\":0,\"content\":\"Benchmarking the request body path\",\"likesCount\":0,"
+                + "\"likedByMe\":false,\"createdAt\":null,\"author\":null,\"tags\":[\"perf\",\"java\"]}";
+
+        public Payloads() {
+            List<Post> posts = new ArrayList<>();
+            for (int i = 1; i <= 20; i++) {
+                posts.add(post(i));
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("id", (long) i);
+                row.put("user_id", 7L);
+                row.put("content", "Post number " + i + " about building fast Java backends");
+                row.put("likes_count", i * 3);
+                row.put("created_at", "2024-05-01T12:00:00Z");
+                rows.add(row);
+            }
+            feed.put("posts", posts);
+            feed.put("page", 1);
+            feed.put("hasMore", true);
+        }
+
+        private static Post post(int i) {
+            Post post = new Post();
+            post.id = i;
+            post.content = "Post number " + i + " about building fast Java backends";
+            post.likesCount = i * 3;
+            post.likedByMe = i % 2 == 0;
+            post.createdAt = "2024-05-01T12:00:00Z";
+            post.author = new Author();
+            post.author.id = 7;
+            post.author.username = "ada";
+            post.author.avatarUrl = "https://cdn.example.com/avatars/7.png";
+            post.tags = List.of("java", "performance");
+            return post;
+        }
+    }
+
+    @Benchmark
+    public String singlePost(Payloads payloads) {
+        return payloads.javalin.toJsonString(payloads.post, Post.class);
+    }
+
+    @Benchmark
+    public String feedPage(Payloads payloads) {
+        return payloads.javalin.toJsonString(payloads.feed, Map.class);
+    }
+
+    @Benchmark
+    public String rowMaps(Payloads payloads) {
+        return payloads.javalin.toJsonString(payloads.rows, List.class);
+    }
+
+    @Benchmark
+    public Post parseBody(Payloads payloads) throws Exception {
+        return payloads.mapper.readValue(payloads.body, Post.class);
+    }
+}
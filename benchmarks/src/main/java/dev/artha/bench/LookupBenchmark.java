@@ -0,0 +1,91 @@
+package dev.artha.bench;
+
+import dev.artha.core.ConfigManager;
+import dev.artha.core.DIContainer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookups every request makes: DIContainer.get for a controller and a
+ * runtime singleton (single-threaded and with 8 threads on the same map),
+ * and ConfigManager.get for shallow, nested, missing and typed keys as
+ * read by features that check their config per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LookupBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Container {
+        final DIContainer container = DIContainer.getInstance();
+        final ConfigManager config = ConfigManager.getInstance();
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            config.loadConfig(Map.of(
+                    "port", 8080,
+                    "database", Map.of(
+                            "url", "jdbc:h2:mem:bench",
+                            "async", Map.of("threads", 8, "queueSize", 400)),
+                    "metrics", Map.of("path", "/metrics"),
+                    "cache", Map.of("enabled", true)));
+            // First get() creates and caches; measure the cached path
+            container.get(AllocationBudget.Routes.class);
+            container.get(ConfigManager.class);
+        }
+    }
+
+    @Benchmark
+    public Object controller(Container state) {
+        return state.container.get(AllocationBudget.Routes.class);
+    }
+
+    /**
+     * dev.artha singletons resolved through getInstance() on first use
+     */
+    @Benchmark
+    public Object runtimeSingleton(Container state) {
+        return state.container.get(ConfigManager.class);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object controllerContended(Container state) {
+        return state.container.get(AllocationBudget.Routes.class);
+    }
+
+    @Benchmark
+    public Object configShallow(Container state) {
+        return state.config.get("port");
+    }
+
+    @Benchmark
+    public Object configNested(Container state) {
+        return state.config.get("database.async.threads");
+    }
+
+    @Benchmark
+    public Object configMissing(Container state) {
+        return state.config.get("tracing.sampleRate");
+    }
+
+    @Benchmark
+    public Boolean configBoolean(Container state) {
+        return state.config.getBoolean("cache.enabled");
+    }
+}
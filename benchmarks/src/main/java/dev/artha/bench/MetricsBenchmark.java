@@ -0,0 +1,65 @@
+package dev.artha.bench;
+
+import dev.artha.http.LatencyHistogram;
+import dev.artha.http.Metrics;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-request cost of route metrics: what the Runtime wrapper adds to each
+ * request (a nanoTime pair plus RouteMetrics.record) and the histogram
+ * record on its own, single-threaded and with 4 threads recording into the
+ * same route. Should stay in the tens of nanoseconds, well under 1us.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Route {
+        final Metrics.RouteMetrics metrics = Metrics.getInstance().route("GET", "/api/posts/{id}");
+        final LatencyHistogram histogram = new LatencyHistogram();
+    }
+
+    /**
+     * Baseline: the two clock reads alone
+     */
+    @Benchmark
+    public long nanoTimePair() {
+        long start = System.nanoTime();
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * The Runtime wrapper around a handler that does nothing
+     */
+    @Benchmark
+    public void timedRequest(Route route) {
+        long start = System.nanoTime();
+        route.metrics.record(200, System.nanoTime() - start);
+    }
+
+    @Benchmark
+    public void record(Route route) {
+        route.histogram.record(ThreadLocalRandom.current().nextLong(20_000, 5_000_000));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordContended(Route route) {
+        route.histogram.record(ThreadLocalRandom.current().nextLong(20_000, 5_000_000));
+    }
+}
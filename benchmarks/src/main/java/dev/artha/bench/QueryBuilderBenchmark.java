@@ -0,0 +1,115 @@
+package dev.artha.bench;
+
+import dev.artha.db.ColumnarResult;
+import dev.artha.db.QueryBuilder;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * QueryBuilder against an in-memory H2 database: building the SQL alone,
+ * then a page of `rows` posts read as maps, as POJOs and in columnar form,
+ * and a primary-key lookup. The builder runs on one open connection, so
+ * the numbers are SQL building, JDBC and row mapping without pool
+ * overhead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryBuilderBenchmark {
+
+    public static class Post {
+        public long id;
+        public long user_id;
+        public String content;
+        public int likes_count;
+        public java.sql.Timestamp created_at;
+    }
+
+    @State(Scope.Thread)
+    public static class Db {
+        @Param({ "20", "500" })
+        public int rows;
+
+        Connection connection;
+
+        @Setup(Level.Trial)
+        public void setUp() throws SQLException {
+            connection = DriverManager.getConnection("jdbc:h2:mem:bench" + System.nanoTime() + ";DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE");
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("CREATE TABLE posts (id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id BIGINT NOT NULL, "
+                        + "content VARCHAR(280) NOT NULL, likes_count INT NOT NULL, "
+                        + "created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+                stmt.execute("CREATE INDEX posts_user ON posts (user_id, id)");
+            }
+            try (PreparedStatement insert = connection.prepareStatement(
+                    "INSERT INTO posts (user_id, content, likes_count) VALUES (?, ?, ?)")) {
+                for (int i = 0; i < 10_000; i++) {
+                    insert.setLong(1, i % 10);
+                    insert.setString(2, "Post number " + i + " about building fast Java backends");
+                    insert.setInt(3, i % 97);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            connection.close();
+        }
+
+        QueryBuilder page() {
+            return new QueryBuilder(connection, "posts")
+                    .where("user_id", 7)
+                    .where("likes_count", ">=", 0)
+                    .orderBy("id", "DESC")
+                    .limit(rows);
+        }
+    }
+
+    @Benchmark
+    public String buildSql(Db db) {
+        return db.page().toSql();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> selectMaps(Db db) throws SQLException {
+        return db.page().get();
+    }
+
+    @Benchmark
+    public List<Post> selectPojos(Db db) throws SQLException {
+        return db.page().get(Post.class);
+    }
+
+    @Benchmark
+    public ColumnarResult selectColumnar(Db db) throws SQLException {
+        return db.page().getColumnar();
+    }
+
+    @Benchmark
+    public Post findById(Db db) throws SQLException {
+        return new QueryBuilder(db.connection, "posts").find(4242L, Post.class);
+    }
+}
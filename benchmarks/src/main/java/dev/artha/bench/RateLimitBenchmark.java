@@ -0,0 +1,113 @@
+package dev.artha.bench;
+
+import dev.artha.annotations.RateLimit;
+import dev.artha.http.RateLimiter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rate limit checks under contention: RateLimiter (CAS buckets in a
+ * ConcurrentHashMap) vs the synchronized-map token bucket middleware used
+ * to hand-roll.
+ *
+ * hotKey has every thread hitting one client's bucket; manyKeys spreads
+ * requests over `clients` clients. The rate is high enough that most
+ * requests are allowed, so both paths (allow and reject) are exercised.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+public class RateLimitBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Limiters {
+        @Param({ "striped", "synchronized" })
+        public String impl;
+
+        @Param({ "10000" })
+        public int clients;
+
+        RateLimiter striped;
+        SynchronizedLimiter locked;
+        String[] keys;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            if ("striped".equals(impl)) {
+                striped = new RateLimiter(1_000_000, 1000, RateLimit.Key.IP, null, clients * 2);
+            } else {
+                locked = new SynchronizedLimiter(1_000_000, 1000);
+            }
+            keys = new String[clients];
+            for (int i = 0; i < clients; i++) {
+                keys[i] = "ip:10.0." + (i >> 8) + "." + (i & 0xFF);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            if (striped != null) {
+                striped.close();
+            }
+        }
+
+        long acquire(String key) {
+            return striped != null ? striped.tryAcquire(key) : locked.tryAcquire(key);
+        }
+    }
+
+    @Benchmark
+    public long hotKey(Limiters limiters) {
+        return limiters.acquire(limiters.keys[0]);
+    }
+
+    @Benchmark
+    public long manyKeys(Limiters limiters) {
+        return limiters.acquire(limiters.keys[ThreadLocalRandom.current().nextInt(limiters.keys.length)]);
+    }
+
+    /**
+     * The usual hand-rolled version: refill-on-read buckets behind one lock
+     */
+    static final class SynchronizedLimiter {
+        private final double perNano;
+        private final double burst;
+        private final Map<String, double[]> buckets = new HashMap<>();
+
+        SynchronizedLimiter(double perSecond, int burst) {
+            this.perNano = perSecond / 1_000_000_000.0;
+            this.burst = burst;
+        }
+
+        synchronized long tryAcquire(String key) {
+            long now = System.nanoTime();
+            double[] bucket = buckets.computeIfAbsent(key, k -> new double[] { burst, now });
+            bucket[0] = Math.min(burst, bucket[0] + (now - bucket[1]) * perNano);
+            bucket[1] = now;
+            if (bucket[0] >= 1) {
+                bucket[0] -= 1;
+                return 0;
+            }
+            return (long) ((1 - bucket[0]) / perNano);
+        }
+    }
+}
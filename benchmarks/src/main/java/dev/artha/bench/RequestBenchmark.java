@@ -0,0 +1,103 @@
+package dev.artha.bench;
+
+import dev.artha.http.Request;
+import dev.artha.http.RequestImpl;
+import dev.artha.http.Response;
+import dev.artha.http.ResponseImpl;
+import io.javalin.http.Context;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Allocation per request for what a typical handler reads: two int query
+ * params, a string query param, the Authorization header and an id path
+ * param. "views" uses the current Request (read-only views, typed
+ * accessors, one wrapper per exchange); "copying" is the previous
+ * implementation that copied the query and header maps on every call and
+ * built a second wrapper pair for error handling.
+ *
+ * Run with the GC profiler and compare gc.alloc.rate.norm (bytes/op):
+ *
+ * java -jar target/benchmarks.jar RequestBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestBenchmark {
+
+    @State(Scope.Thread)
+    public static class Exchange {
+        final BenchContext ctx = BenchContext.get("/api/posts/12345")
+                .query("page", "3")
+                .query("limit", "50")
+                .query("sort", "created_at")
+                .query("q", "performance")
+                .pathParam("id", "12345");
+    }
+
+    @Benchmark
+    public long views(Exchange exchange) {
+        BenchContext ctx = exchange.ctx.reset();
+        Request req = RequestImpl.of(ctx);
+        Response res = ResponseImpl.of(ctx);
+        long sum = req.queryInt("page", 1) + req.queryInt("limit", 20) + req.pathLong("id");
+        String sort = req.queryMap().get("sort");
+        String auth = req.headers().get("Authorization");
+        // The error path asks for the same wrappers again
+        Request again = RequestImpl.of(ctx);
+        return sum + sort.length() + auth.length() + (again == req ? 1 : 0) + res.hashCode();
+    }
+
+    @Benchmark
+    public long copying(Exchange exchange) {
+        BenchContext ctx = exchange.ctx.reset();
+        CopyingRequest req = new CopyingRequest(ctx);
+        ResponseImpl res = new ResponseImpl(ctx);
+        long sum = Integer.parseInt(req.queryMap().get("page")) + Integer.parseInt(req.queryMap().get("limit"))
+                + Long.parseLong(ctx.pathParam("id"));
+        String sort = req.queryMap().get("sort");
+        String auth = req.headers().get("Authorization");
+        CopyingRequest again = new CopyingRequest(ctx);
+        ResponseImpl errorRes = new ResponseImpl(ctx);
+        return sum + sort.length() + auth.length() + again.hashCode() + res.hashCode() + errorRes.hashCode();
+    }
+
+    /**
+     * The map accessors as they were before the views
+     */
+    static final class CopyingRequest {
+        private final Context ctx;
+
+        CopyingRequest(Context ctx) {
+            this.ctx = ctx;
+        }
+
+        Map<String, String> queryMap() {
+            Map<String, String> result = new HashMap<>();
+            ctx.queryParamMap().forEach((key, values) -> {
+                if (values != null && !values.isEmpty()) {
+                    result.put(key, values.get(0));
+                }
+            });
+            return result;
+        }
+
+        Map<String, String> headers() {
+            Map<String, String> result = new HashMap<>();
+            ctx.headerMap().forEach(result::put);
+            return result;
+        }
+    }
+}
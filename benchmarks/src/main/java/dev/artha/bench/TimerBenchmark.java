@@ -0,0 +1,142 @@
+package dev.artha.bench;
+
+import dev.artha.core.HashedWheelTimer;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Timeout churn with a large backlog: HashedWheelTimer vs the
+ * ScheduledThreadPoolExecutor used by TaskScheduler (remove-on-cancel, as
+ * configured there).
+ *
+ * scheduleAndCancel models a per-request timeout that is cancelled when the
+ * request completes, with `pending` long timers already queued. fill
+ * measures queueing the backlog itself.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = { "-Xms2g", "-Xmx2g" })
+public class TimerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Timers {
+        @Param({ "wheel", "executor" })
+        public String impl;
+
+        @Param({ "1000000" })
+        public int pending;
+
+        HashedWheelTimer wheel;
+        ScheduledThreadPoolExecutor executor;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            if ("wheel".equals(impl)) {
+                wheel = new HashedWheelTimer("bench-wheel", 10, TimeUnit.MILLISECONDS, 512, null);
+            } else {
+                executor = new ScheduledThreadPoolExecutor(1);
+                executor.setRemoveOnCancelPolicy(true);
+            }
+            // Backlog that never fires during the run
+            for (int i = 0; i < pending; i++) {
+                schedule(TimeUnit.HOURS.toMillis(1) + i % 60_000);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            if (wheel != null) {
+                wheel.stop();
+            } else {
+                executor.shutdownNow();
+            }
+        }
+
+        Object schedule(long delayMillis) {
+            if (wheel != null) {
+                return wheel.newTimeout(Timers::noop, delayMillis, TimeUnit.MILLISECONDS);
+            }
+            return executor.schedule(Timers::noop, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        void cancel(Object timeout) {
+            if (timeout instanceof HashedWheelTimer.Timeout) {
+                ((HashedWheelTimer.Timeout) timeout).cancel();
+            } else {
+                ((ScheduledFuture<?>) timeout).cancel(false);
+            }
+        }
+
+        private static void noop() {
+        }
+    }
+
+    @Benchmark
+    public Object scheduleAndCancel(Timers timers) {
+        Object timeout = timers.schedule(30_000);
+        timers.cancel(timeout);
+        return timeout;
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object scheduleAndCancelContended(Timers timers) {
+        Object timeout = timers.schedule(30_000);
+        timers.cancel(timeout);
+        return timeout;
+    }
+
+    @State(Scope.Thread)
+    public static class Empty {
+        @Param({ "wheel", "executor" })
+        public String impl;
+
+        Timers timers;
+
+        @Setup(Level.Invocation)
+        public void setUp() {
+            timers = new Timers();
+            timers.impl = impl;
+            timers.pending = 0;
+            timers.setUp();
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            timers.tearDown();
+        }
+    }
+
+    /**
+     * Time to queue 1M timers into an empty timer
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public Object fill(Empty empty) {
+        Object last = null;
+        for (int i = 0; i < 1_000_000; i++) {
+            last = empty.timers.schedule(TimeUnit.HOURS.toMillis(1) + i % 60_000);
+        }
+        return last;
+    }
+}
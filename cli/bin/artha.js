@@ -34,6 +34,39 @@ program
         require('../src/commands/build')();
     });
 
+program
+    .command('profile')
+    .description('Record a running server with Java Flight Recorder and summarize routes and queries')
+    .option('-d, --duration <seconds>', 'Recording length in seconds', '30')
+    .option('--pid <pid>', 'Server process id (default: the running ARTHA server)')
+    .option('-o, --output <file>', 'Where to keep the .jfr recording')
+    .option('-n, --top <count>', 'Rows per table', '10')
+    .option('--settings <name>', 'JFR settings: profile or default', 'profile')
+    .action((options) => {
+        require('../src/commands/profile')(options);
+    });
+
+program
+    .command('bench [scenario-file]')
+    .description('Load-test the app at a constant request rate and report per-route latency')
+    .option('-u, --url <url>', 'Target a running server instead of starting the app')
+    .option('-p, --port <port>', 'Port to start the app on (overrides artha.json)')
+    .option('--route <route>', 'Route to load instead of bench.json, e.g. "GET /api/posts" (repeatable)',
+        (value, routes) => routes.concat(value), [])
+    .option('-r, --rate <rps>', 'Requests per second (default: 100)')
+    .option('-d, --duration <seconds>', 'Measured seconds (default: 30)')
+    .option('-w, --warmup <seconds>', 'Unmeasured warmup seconds (default: 5)')
+    .option('-c, --connections <count>', 'Maximum open connections (default: 64)')
+    .option('--timeout <ms>', 'Per-request timeout (default: 10000)')
+    .option('--jvm-args <args>', 'Extra JVM flags when starting the app')
+    .option('--metrics <path>', 'Server metrics path (default: metrics.path in artha.json or /metrics)')
+    .option('--no-metrics', 'Skip server-side metrics')
+    .option('-o, --output <file>', 'Write results as JSON')
+    .option('--fail-on-errors', 'Exit with status 1 if any request failed')
+    .action((scenarioFile, options) => {
+        require('../src/commands/bench')(scenarioFile, options);
+    });
+
 program
     .command('add <package>')
     .description('Add a dependency to your project')
@@ -0,0 +1,571 @@
+const { spawn } = require('child_process');
+const http = require('http');
+const https = require('https');
+const net = require('net');
+const path = require('path');
+const fs = require('fs-extra');
+const chalk = require('chalk');
+const ora = require('ora');
+const DependencyManager = require('../utils/dependency-manager');
+const { compile, findJavaFiles, findRuntimeJar } = require('./dev');
+
+const isWindows = process.platform === 'win32';
+const NANOS_PER_MS = 1e6;
+
+/**
+ * Open-loop load generator.
+ *
+ * Requests are sent on a fixed schedule (rate per second) whether or not
+ * earlier ones have answered, and latency is measured from the time each
+ * request was due, not from when it actually went out. A stalled server
+ * therefore shows up as queueing delay in every request it held up
+ * (coordinated-omission correction); the uncorrected service time is
+ * reported alongside for comparison.
+ *
+ * Scenarios come from bench.json, or from --route for quick runs:
+ * {
+ *   "rate": 200, "duration": 30, "warmup": 5, "connections": 64,
+ *   "headers": { "Authorization": "Bearer ..." },
+ *   "scenarios": [
+ *     { "name": "feed", "method": "GET", "path": "/api/posts?page=1", "weight": 3 },
+ *     { "name": "create", "method": "POST", "path": "/api/posts", "body": { "content": "hi" } }
+ *   ]
+ * }
+ */
+async function benchCommand(file, options) {
+    console.log(chalk.cyan('\n⏱️  ARTHA Bench\n'));
+
+    let plan;
+    try {
+        plan = await loadPlan(file, options);
+    } catch (error) {
+        console.log(chalk.red('❌ ' + error.message));
+        return process.exit(1);
+    }
+
+    let server = null;
+    let target = options.url;
+    if (!target) {
+        try {
+            server = await startApp(options);
+        } catch (error) {
+            console.log(chalk.red('❌ ' + error.message));
+            return process.exit(1);
+        }
+        target = `http://localhost:${server.port}`;
+    }
+    const base = new URL(target);
+    const metrics = metricsEndpoint(base, options);
+
+    const stop = async (code) => {
+        if (server) {
+            await server.stop();
+        }
+        process.exit(code);
+    };
+    process.on('SIGINT', () => stop(130));
+
+    console.log(chalk.gray(`Target ${base.origin}, ${plan.rate} req/s for ${plan.duration}s `
+        + `after ${plan.warmup}s warmup, ${plan.connections} connections, `
+        + `${plan.scenarios.length} scenario${plan.scenarios.length === 1 ? '' : 's'}\n`));
+
+    // The server started above is stopped however the run ends
+    let code = 1;
+    try {
+        if (plan.warmup > 0) {
+            const spinner = ora(`Warming up for ${plan.warmup}s...`).start();
+            await drive(base, plan, plan.warmup, false);
+            spinner.succeed('Warmup done');
+        }
+
+        const before = await scrape(metrics);
+        const spinner = ora(`Measuring for ${plan.duration}s...`).start();
+        const result = await drive(base, plan, plan.duration, true);
+        spinner.succeed(`Sent ${result.sent} requests`);
+        const after = await scrape(metrics);
+
+        const report = buildReport(plan, result, before && after ? serverDelta(before, after) : null);
+        printReport(report, metrics, before && after);
+
+        if (options.output) {
+            await fs.outputJson(options.output, report, { spaces: 2 });
+            console.log(chalk.gray(`\nResults written to ${options.output}`));
+        }
+        console.log();
+        if (report.totals.dropped > 0) {
+            // Unsent requests have no latency, so the percentiles above leave out the worst of the backlog
+            console.log(chalk.red(`❌ ${report.totals.dropped} requests were never sent: the client hit its limit of `
+                + `${result.maxInFlight} requests in flight, so the latency figures are not valid. `
+                + 'Lower --rate or raise --connections.\n'));
+            code = 1;
+        } else {
+            code = report.totals.errors > 0 && options.failOnErrors ? 1 : 0;
+        }
+    } catch (error) {
+        console.log(chalk.red('\n❌ ' + error.message));
+    } finally {
+        await stop(code);
+    }
+}
+
+async function loadPlan(file, options) {
+    let plan = {};
+    const planFile = file || (fs.existsSync('bench.json') ? 'bench.json' : null);
+    if (planFile) {
+        plan = await fs.readJson(planFile);
+    }
+
+    const routes = options.route && options.route.length > 0
+        ? options.route.map(parseRoute)
+        : (plan.scenarios || []);
+    if (routes.length === 0) {
+        throw new Error('No scenarios. Create bench.json or pass --route "GET /api/posts".');
+    }
+
+    const scenarios = routes.map((scenario) => {
+        const method = (scenario.method || 'GET').toUpperCase();
+        const headers = { ...(plan.headers || {}), ...(scenario.headers || {}) };
+        let body = scenario.body;
+        if (body !== undefined && typeof body !== 'string') {
+            body = JSON.stringify(body);
+            headers['Content-Type'] = headers['Content-Type'] || 'application/json';
+        }
+        if (body !== undefined) {
+            headers['Content-Length'] = Buffer.byteLength(body);
+        }
+        return {
+            name: scenario.name || `${method} ${scenario.path}`,
+            method,
+            path: scenario.path,
+            headers,
+            body,
+            weight: Math.max(0, Number(scenario.weight === undefined ? 1 : scenario.weight))
+        };
+    });
+
+    const number = (option, key, fallback) => Number(option !== undefined ? option : (plan[key] !== undefined ? plan[key] : fallback));
+    return {
+        rate: number(options.rate, 'rate', 100),
+        duration: number(options.duration, 'duration', 30),
+        warmup: number(options.warmup, 'warmup', 5),
+        connections: number(options.connections, 'connections', 64),
+        timeoutMs: number(options.timeout, 'timeoutMs', 10000),
+        scenarios
+    };
+}
+
+// "POST /api/posts" or "/api/posts"
+function parseRoute(spec) {
+    const parts = spec.trim().split(/\s+/);
+    return parts.length > 1 ? { method: parts[0], path: parts[1] } : { method: 'GET', path: parts[0] };
+}
+
+/**
+ * Send requests at plan.rate for the given seconds. Resolves once every
+ * request sent has answered or timed out.
+ */
+function drive(base, plan, seconds, record) {
+    const client = base.protocol === 'https:' ? https : http;
+    const agent = new client.Agent({ keepAlive: true, maxSockets: plan.connections });
+    const intervalNs = 1e9 / plan.rate;
+    const totalWeight = plan.scenarios.reduce((sum, s) => sum + s.weight, 0);
+    const stats = new Map(plan.scenarios.map(s => [s.name, newStats()]));
+    // Beyond this many outstanding requests the client itself is the bottleneck
+    const maxInFlight = Math.max(plan.connections * 64, 1000);
+
+    let inFlight = 0;
+    let sent = 0;
+    let dropped = 0;
+
+    const pick = () => {
+        let r = Math.random() * totalWeight;
+        for (const scenario of plan.scenarios) {
+            r -= scenario.weight;
+            if (r < 0) {
+                return scenario;
+            }
+        }
+        return plan.scenarios[plan.scenarios.length - 1];
+    };
+
+    return new Promise((resolve) => {
+        const start = process.hrtime.bigint();
+        const end = start + BigInt(Math.round(seconds * 1e9));
+        let due = 0; // ns after start when the next request is due
+        let scheduling = true;
+
+        const finish = () => {
+            if (!scheduling && inFlight === 0) {
+                agent.destroy();
+                resolve({ stats, sent, dropped, seconds, maxInFlight });
+            }
+        };
+
+        const send = (dueAt) => {
+            const scenario = pick();
+            const entry = stats.get(scenario.name);
+            if (inFlight >= maxInFlight) {
+                dropped++;
+                if (record) {
+                    entry.dropped++;
+                }
+                return;
+            }
+            inFlight++;
+            sent++;
+            const sentAt = process.hrtime.bigint();
+            let settled = false;
+            const done = (status) => {
+                if (settled) {
+                    return;
+                }
+                settled = true;
+                inFlight--;
+                if (record) {
+                    const now = process.hrtime.bigint();
+                    entry.corrected.push(Number(now - dueAt) / NANOS_PER_MS);
+                    entry.service.push(Number(now - sentAt) / NANOS_PER_MS);
+                    entry.statuses[status] = (entry.statuses[status] || 0) + 1;
+                    if (typeof status !== 'number' || status >= 400) {
+                        entry.errors++;
+                    }
+                }
+                finish();
+            };
+
+            const request = client.request({
+                agent,
+                protocol: base.protocol,
+                hostname: base.hostname,
+                port: base.port,
+                method: scenario.method,
+                path: scenario.path,
+                headers: scenario.headers,
+                timeout: plan.timeoutMs
+            }, (response) => {
+                response.on('data', () => { });
+                response.on('end', () => done(response.statusCode));
+                response.on('error', () => done('error'));
+            });
+            request.on('timeout', () => {
+                request.destroy();
+                done('timeout');
+            });
+            request.on('error', (error) => done(error.code || 'error'));
+            if (scenario.body !== undefined) {
+                request.write(scenario.body);
+            }
+            request.end();
+        };
+
+        const tick = () => {
+            const now = process.hrtime.bigint();
+            // Catch up on everything that fell due since the last tick
+            while (start + BigInt(Math.round(due)) <= now && start + BigInt(Math.round(due)) < end) {
+                send(start + BigInt(Math.round(due)));
+                due += intervalNs;
+            }
+            if (start + BigInt(Math.round(due)) >= end) {
+                scheduling = false;
+                finish();
+                return;
+            }
+            setTimeout(tick, 1);
+        };
+        tick();
+    });
+}
+
+function newStats() {
+    return { corrected: [], service: [], statuses: {}, errors: 0, dropped: 0 };
+}
+
+function buildReport(plan, result, server) {
+    const routes = [];
+    const all = newStats();
+    for (const [name, entry] of result.stats) {
+        routes.push(summarize(name, entry, result.seconds));
+        // concat, not push(...): spreading 100k+ samples overflows the call stack
+        all.corrected = all.corrected.concat(entry.corrected);
+        all.service = all.service.concat(entry.service);
+        all.errors += entry.errors;
+        all.dropped += entry.dropped;
+        for (const [status, count] of Object.entries(entry.statuses)) {
+            all.statuses[status] = (all.statuses[status] || 0) + count;
+        }
+    }
+    return {
+        time: new Date().toISOString(),
+        plan: { rate: plan.rate, duration: plan.duration, warmup: plan.warmup, connections: plan.connections },
+        totals: summarize('all', all, result.seconds),
+        routes,
+        server
+    };
+}
+
+function summarize(name, entry, seconds) {
+    const corrected = Float64Array.from(entry.corrected).sort();
+    const service = Float64Array.from(entry.service).sort();
+    return {
+        name,
+        requests: corrected.length,
+        throughput: round(corrected.length / seconds),
+        errors: entry.errors,
+        dropped: entry.dropped,
+        statuses: entry.statuses,
+        latencyMs: {
+            p50: percentile(corrected, 50),
+            p90: percentile(corrected, 90),
+            p99: percentile(corrected, 99),
+            p999: percentile(corrected, 99.9),
+            max: corrected.length ? round(corrected[corrected.length - 1]) : 0
+        },
+        serviceMs: {
+            p50: percentile(service, 50),
+            p99: percentile(service, 99)
+        }
+    };
+}
+
+function percentile(sorted, p) {
+    if (sorted.length === 0) {
+        return 0;
+    }
+    const index = Math.min(sorted.length - 1, Math.max(0, Math.ceil(sorted.length * p / 100) - 1));
+    return round(sorted[index]);
+}
+
+function round(value) {
+    return Math.round(value * 1000) / 1000;
+}
+
+function printReport(report, metrics, scraped) {
+    const rows = [...report.routes, report.totals].map(r => [
+        r.name, r.requests, r.throughput, r.errors + r.dropped,
+        r.latencyMs.p50, r.latencyMs.p90, r.latencyMs.p99, r.latencyMs.p999, r.latencyMs.max, r.serviceMs.p99
+    ]);
+    printTable('📊 Client latency (ms, from scheduled send time)',
+        ['Route', 'Requests', 'Req/s', 'Errors', 'p50', 'p90', 'p99', 'p99.9', 'Max', 'Service p99'], rows);
+
+    const offered = report.plan.rate;
+    if (report.totals.throughput < offered * 0.95) {
+        console.log(chalk.yellow(`\n⚠️  Achieved ${report.totals.throughput} req/s of ${offered} offered: `
+            + 'the server (or this client) could not keep up; latency includes the backlog.'));
+    }
+    const failures = Object.entries(report.totals.statuses).filter(([status]) => !(Number(status) < 400));
+    if (failures.length > 0) {
+        console.log(chalk.yellow('\n⚠️  Failed responses: ' + failures.map(([s, c]) => `${s} x${c}`).join(', ')));
+    }
+
+    if (!scraped) {
+        if (metrics) {
+            console.log(chalk.gray(`\nNo server metrics at ${metrics.url}; add "metrics": {} to artha.json `
+                + 'for server-side latency.'));
+        }
+        return;
+    }
+    const server = report.server;
+    printTable('🖥️  Server side (handler time from /metrics; percentiles are histogram bucket bounds)',
+        ['Route', 'Status', 'Requests', 'Mean ms', 'p50 ≤ ms', 'p99 ≤ ms'],
+        server.routes.map(r => [`${r.method} ${r.route}`, r.status, r.requests, r.meanMs, r.p50Ms, r.p99Ms]));
+    console.log(chalk.gray(`\nGC during run: ${server.gcCollections} collections`
+        + (server.gcPauseMs !== null ? `, ${server.gcPauseMs} ms paused` : '')
+        + (server.heapUsedMb !== null ? `; heap used ${server.heapUsedMb} MB` : '')));
+}
+
+function printTable(title, headers, rows) {
+    console.log(chalk.cyan(`\n${title}\n`));
+    const cells = [headers, ...rows].map(row => row.map(String));
+    const widths = headers.map((_, i) => Math.max(...cells.map(row => row[i].length)));
+    const format = row => row.map((cell, i) => i === 0 ? cell.padEnd(widths[i]) : cell.padStart(widths[i])).join('  ');
+    console.log(chalk.bold(format(cells[0])));
+    for (const row of cells.slice(1)) {
+        console.log(format(row));
+    }
+}
+
+// Server-side metrics (see "metrics" in artha.json)
+function metricsEndpoint(base, options) {
+    if (options.metrics === false) {
+        return null;
+    }
+    let config = {};
+    try {
+        config = fs.readJsonSync('artha.json').metrics || {};
+    } catch (error) {
+        // Targeting a server from outside its project
+    }
+    const metricsPath = typeof options.metrics === 'string' ? options.metrics : (config.path || '/metrics');
+    return { url: new URL(metricsPath, base).toString(), token: config.token };
+}
+
+function scrape(metrics) {
+    if (!metrics) {
+        return Promise.resolve(null);
+    }
+    const url = new URL(metrics.url);
+    const client = url.protocol === 'https:' ? https : http;
+    const headers = metrics.token ? { Authorization: `Bearer ${metrics.token}` } : {};
+    return new Promise((resolve) => {
+        const request = client.get(url, { headers, timeout: 5000 }, (response) => {
+            let text = '';
+            response.setEncoding('utf8');
+            response.on('data', chunk => { text += chunk; });
+            response.on('end', () => resolve(response.statusCode === 200 ? parseMetrics(text) : null));
+        });
+        request.on('timeout', () => request.destroy());
+        request.on('error', () => resolve(null));
+    });
+}
+
+// Prometheus text format: name{label="value",...} number
+function parseMetrics(text) {
+    const samples = [];
+    for (const line of text.split('\n')) {
+        const match = /^([a-zA-Z_:][\w:]*)(?:\{(.*)\})?\s+(\S+)$/.exec(line.trim());
+        if (!match) {
+            continue;
+        }
+        const labels = {};
+        const labelPattern = /(\w+)="((?:[^"\\]|\\.)*)"/g;
+        let label;
+        while ((label = labelPattern.exec(match[2] || '')) !== null) {
+            labels[label[1]] = label[2];
+        }
+        samples.push({ name: match[1], labels, value: Number(match[3]) });
+    }
+    return samples;
+}
+
+// What the server recorded between the two scrapes
+function serverDelta(before, after) {
+    const key = s => `${s.name}|${Object.entries(s.labels).filter(([k]) => k !== 'le').map(([k, v]) => `${k}=${v}`).join(',')}|${s.labels.le || ''}`;
+    const previous = new Map(before.map(s => [key(s), s.value]));
+    const delta = s => s.value - (previous.get(key(s)) || 0);
+
+    const routes = new Map();
+    for (const sample of after) {
+        if (!sample.name.startsWith('artha_http_request_duration_seconds')) {
+            continue;
+        }
+        const { method, route, status } = sample.labels;
+        const id = `${method} ${route} ${status}`;
+        if (!routes.has(id)) {
+            routes.set(id, { method, route, status, buckets: [], count: 0, sum: 0 });
+        }
+        const entry = routes.get(id);
+        if (sample.name.endsWith('_bucket')) {
+            entry.buckets.push({ le: sample.labels.le === '+Inf' ? Infinity : Number(sample.labels.le), count: delta(sample) });
+        } else if (sample.name.endsWith('_count')) {
+            entry.count = delta(sample);
+        } else if (sample.name.endsWith('_sum')) {
+            entry.sum = delta(sample);
+        }
+    }
+
+    const bound = (buckets, count, p) => {
+        const target = count * p / 100;
+        const hit = buckets.sort((a, b) => a.le - b.le).find(b => b.count >= target);
+        return !hit ? null : hit.le === Infinity ? '>' + buckets[buckets.length - 2].le * 1000 : round(hit.le * 1000);
+    };
+
+    const gcCollections = after.filter(s => s.name === 'artha_jvm_gc_collections_total').reduce((sum, s) => sum + delta(s), 0);
+    const pauseSamples = after.filter(s => s.name === 'artha_jvm_gc_pause_seconds_sum');
+    const heap = after.find(s => s.name === 'artha_jvm_heap_bytes' && s.labels.area === 'used');
+
+    return {
+        routes: [...routes.values()]
+            .filter(r => r.count > 0)
+            .sort((a, b) => b.count - a.count)
+            .map(r => ({
+                method: r.method,
+                route: r.route,
+                status: r.status,
+                requests: r.count,
+                meanMs: round(r.sum / r.count * 1000),
+                p50Ms: bound(r.buckets, r.count, 50),
+                p99Ms: bound(r.buckets, r.count, 99)
+            })),
+        gcCollections,
+        gcPauseMs: pauseSamples.length ? round(pauseSamples.reduce((sum, s) => sum + delta(s), 0) * 1000) : null,
+        heapUsedMb: heap ? round(heap.value / 1024 / 1024) : null
+    };
+}
+
+// Compile and start the project in the current directory, as `artha dev` does
+async function startApp(options) {
+    if (!fs.existsSync('artha.json')) {
+        throw new Error('No artha.json found. Run inside a project or pass --url for a running server.');
+    }
+    const config = await fs.readJson('artha.json');
+    const port = parseInt(options.port, 10) || config.server?.port || 8080;
+    if (await isListening(port)) {
+        throw new Error(`Port ${port} is already in use. Stop that server or pass --url http://localhost:${port}.`);
+    }
+
+    const runtimeJar = findRuntimeJar();
+    if (!runtimeJar) {
+        throw new Error('ARTHA runtime not found!');
+    }
+    const dependencyJars = await new DependencyManager(process.cwd()).install();
+    const srcDir = config.srcDir || 'src';
+
+    const spinner = ora('Compiling...').start();
+    try {
+        await fs.ensureDir('build');
+        await compile(await findJavaFiles(srcDir), runtimeJar, dependencyJars);
+        spinner.succeed('Compiled');
+    } catch (error) {
+        spinner.fail('Compilation failed');
+        throw new Error(error.message);
+    }
+
+    const logFile = path.join('build', 'bench-server.log');
+    const log = fs.openSync(logFile, 'w');
+    const classpath = [runtimeJar, 'build', ...dependencyJars].join(isWindows ? ';' : ':');
+    const javaArgs = [
+        `-Dartha.port=${port}`,
+        ...(options.jvmArgs ? options.jvmArgs.split(/\s+/) : []),
+        '--add-opens=java.base/java.lang=ALL-UNNAMED',
+        '--add-opens=java.base/java.util=ALL-UNNAMED',
+        '-cp', classpath,
+        'dev.artha.core.Runtime'
+    ];
+    const child = spawn('java', javaArgs, { stdio: ['ignore', log, log] });
+    let exited = false;
+    child.on('exit', () => { exited = true; });
+
+    const starting = ora(`Starting server on port ${port} (log: ${logFile})...`).start();
+    const deadline = Date.now() + 60000;
+    while (!(await isListening(port))) {
+        if (exited || Date.now() > deadline) {
+            starting.fail('Server did not start');
+            child.kill('SIGKILL');
+            throw new Error(`See ${logFile}`);
+        }
+        await new Promise(resolve => setTimeout(resolve, 250));
+    }
+    starting.succeed(`Server started on port ${port}`);
+
+    return {
+        port,
+        stop: () => new Promise((resolve) => {
+            if (exited) {
+                return resolve();
+            }
+            child.on('exit', resolve);
+            child.kill('SIGTERM');
+            setTimeout(() => { child.kill('SIGKILL'); resolve(); }, 3000);
+        })
+    };
+}
+
+function isListening(port) {
+    return new Promise((resolve) => {
+        const socket = net.connect(port, '127.0.0.1');
+        socket.once('connect', () => { socket.destroy(); resolve(true); });
+        socket.once('error', () => resolve(false));
+    });
+}
+
+module.exports = benchCommand;
@@ -252,3 +252,7 @@ async function findJavaFiles(dir) {
 }
 
 module.exports = devCommand;
+// Shared with `artha bench`, which compiles and starts the app the same way
+module.exports.compile = compile;
+module.exports.findJavaFiles = findJavaFiles;
+module.exports.findRuntimeJar = findRuntimeJar;
@@ -0,0 +1,259 @@
+const { execFile } = require('child_process');
+const path = require('path');
+const fs = require('fs-extra');
+const chalk = require('chalk');
+const ora = require('ora');
+
+const isWindows = process.platform === 'win32';
+const RECORDING = 'artha-profile';
+const EVENTS = [
+    'dev.artha.Dispatch',
+    'dev.artha.Bind',
+    'dev.artha.Sql',
+    'dev.artha.ConnectionAcquire',
+    'dev.artha.TaskRun'
+];
+
+/**
+ * Record a running ARTHA server with Java Flight Recorder and summarize
+ * the runtime's custom events: slowest routes, queries, pool waits and
+ * scheduled tasks. The .jfr file is kept for JDK Mission Control.
+ */
+async function profileCommand(options) {
+    console.log(chalk.cyan('\n🔬 ARTHA Profiler\n'));
+
+    const seconds = parseInt(options.duration, 10) || 30;
+    const top = parseInt(options.top, 10) || 10;
+
+    let pid = options.pid;
+    try {
+        pid = pid || await findServerPid();
+    } catch (error) {
+        console.log(chalk.red('❌ ' + error.message));
+        return process.exit(1);
+    }
+
+    const output = path.resolve(options.output || path.join('build', `profile-${timestamp()}.jfr`));
+    await fs.ensureDir(path.dirname(output));
+
+    try {
+        await run(tool('jcmd'), [pid, 'JFR.start', `name=${RECORDING}`, `settings=${options.settings || 'profile'}`]);
+    } catch (error) {
+        console.log(chalk.red(`❌ Could not start recording on process ${pid}: ${error.message}`));
+        return process.exit(1);
+    }
+
+    const spinner = ora(`Recording process ${pid} for ${seconds}s (Ctrl+C to stop early)...`).start();
+    await waitOrInterrupt(seconds * 1000);
+
+    try {
+        await run(tool('jcmd'), [pid, 'JFR.stop', `name=${RECORDING}`, `filename=${output}`]);
+        spinner.succeed(chalk.green(`Recording saved: ${path.relative(process.cwd(), output)}`));
+    } catch (error) {
+        spinner.fail(chalk.red('Could not stop recording: ' + error.message));
+        return process.exit(1);
+    }
+
+    let events;
+    try {
+        events = await readEvents(output);
+    } catch (error) {
+        console.log(chalk.red('❌ Could not read recording: ' + error.message));
+        return process.exit(1);
+    }
+
+    if (events.length === 0) {
+        console.log(chalk.yellow('\n⚠️  No ARTHA events recorded. Was the server handling requests?\n'));
+        return;
+    }
+
+    printSummary(events, top, seconds);
+    console.log(chalk.gray(`\nOpen ${output} in JDK Mission Control for CPU, allocation and lock profiles.\n`));
+}
+
+// Locate the dev server JVM through jcmd's process list
+async function findServerPid() {
+    let listing;
+    try {
+        listing = await run(tool('jcmd'), ['-l']);
+    } catch (error) {
+        throw new Error('jcmd not found. Install a JDK or set JAVA_HOME.');
+    }
+    const servers = listing.split('\n')
+        .map(line => line.trim())
+        .filter(line => line.includes('dev.artha.core.Runtime'))
+        .map(line => line.split(/\s+/)[0]);
+
+    if (servers.length === 0) {
+        throw new Error('No running ARTHA server found. Start one with `artha dev` or pass --pid.');
+    }
+    if (servers.length > 1) {
+        throw new Error(`Several ARTHA servers are running (${servers.join(', ')}); choose one with --pid.`);
+    }
+    return servers[0];
+}
+
+async function readEvents(file) {
+    const json = await run(tool('jfr'), ['print', '--json', '--events', EVENTS.join(','), file]);
+    const recording = JSON.parse(json).recording;
+    return (recording && recording.events) || [];
+}
+
+function printSummary(events, top, seconds) {
+    const byType = {};
+    for (const event of events) {
+        (byType[event.type] = byType[event.type] || []).push(event);
+    }
+
+    const dispatches = byType['dev.artha.Dispatch'] || [];
+    if (dispatches.length > 0) {
+        const routes = group(dispatches, e => `${e.values.method} ${e.values.route}`, e => e.values.status >= 500);
+        printTable(`🛣️  Top routes (${dispatches.length} requests, ${(dispatches.length / seconds).toFixed(1)} req/s)`,
+            ['Route', 'Count', 'Total ms', 'Avg ms', 'p95 ms', 'Max ms', '5xx'],
+            routes.slice(0, top).map(r => [r.key, r.count, ms(r.total), ms(r.avg), ms(r.p95), ms(r.max), r.flagged]));
+    }
+
+    const binds = byType['dev.artha.Bind'] || [];
+    if (binds.length > 0) {
+        const handlers = group(binds, e => e.values.handler);
+        printTable('🧩 Parameter binding',
+            ['Handler', 'Count', 'Total ms', 'Avg ms', 'p95 ms'],
+            handlers.slice(0, top).map(h => [h.key, h.count, ms(h.total), ms(h.avg), ms(h.p95)]));
+    }
+
+    const statements = byType['dev.artha.Sql'] || [];
+    if (statements.length > 0) {
+        const queries = group(statements, e => e.values.statement, e => e.values.failed);
+        const rows = {};
+        for (const e of statements) {
+            if (e.values.rows >= 0) {
+                rows[e.values.statement] = (rows[e.values.statement] || 0) + e.values.rows;
+            }
+        }
+        printTable(`🗄️  Top queries (${statements.length} statements)`,
+            ['Statement', 'Count', 'Total ms', 'Avg ms', 'p95 ms', 'Avg rows', 'Failed'],
+            queries.slice(0, top).map(q => [truncate(q.key, 70), q.count, ms(q.total), ms(q.avg), ms(q.p95),
+                rows[q.key] !== undefined ? (rows[q.key] / q.count).toFixed(1) : '-', q.flagged]));
+    }
+
+    const acquires = byType['dev.artha.ConnectionAcquire'] || [];
+    if (acquires.length > 0) {
+        const [pool] = group(acquires, () => 'pool');
+        const maxWaiting = Math.max(...acquires.map(e => e.values.waiting));
+        printTable('🔌 Connection pool waits',
+            ['Acquires', 'Total ms', 'Avg ms', 'p95 ms', 'Max ms', 'Max waiting'],
+            [[pool.count, ms(pool.total), ms(pool.avg), ms(pool.p95), ms(pool.max), maxWaiting]]);
+    }
+
+    const runs = byType['dev.artha.TaskRun'] || [];
+    if (runs.length > 0) {
+        const tasks = group(runs, e => e.values.task, e => e.values.failed);
+        printTable('⏰ Scheduled tasks',
+            ['Task', 'Runs', 'Total ms', 'Avg ms', 'Max ms', 'Failed'],
+            tasks.slice(0, top).map(t => [t.key, t.count, ms(t.total), ms(t.avg), ms(t.max), t.flagged]));
+    }
+}
+
+// Aggregate events by key, slowest total first
+function group(events, keyOf, isFlagged = () => false) {
+    const groups = new Map();
+    for (const event of events) {
+        const key = keyOf(event);
+        if (!groups.has(key)) {
+            groups.set(key, { key, durations: [], flagged: 0 });
+        }
+        const entry = groups.get(key);
+        entry.durations.push(durationNanos(event.values.duration));
+        if (isFlagged(event)) {
+            entry.flagged++;
+        }
+    }
+    return [...groups.values()].map(entry => {
+        const sorted = entry.durations.sort((a, b) => a - b);
+        const total = sorted.reduce((sum, d) => sum + d, 0);
+        return {
+            key: entry.key,
+            count: sorted.length,
+            total,
+            avg: total / sorted.length,
+            p95: sorted[Math.min(sorted.length - 1, Math.ceil(sorted.length * 0.95) - 1)],
+            max: sorted[sorted.length - 1],
+            flagged: entry.flagged
+        };
+    }).sort((a, b) => b.total - a.total);
+}
+
+// jfr prints durations as ISO-8601, e.g. PT0.001234S or PT1M2.5S
+function durationNanos(value) {
+    if (typeof value === 'number') {
+        return value;
+    }
+    const match = /^PT(?:(\d+)H)?(?:(\d+)M)?(?:([\d.]+)S)?$/.exec(value || '');
+    if (!match) {
+        return 0;
+    }
+    const [, hours = 0, minutes = 0, secs = 0] = match;
+    return ((Number(hours) * 60 + Number(minutes)) * 60 + Number(secs)) * 1e9;
+}
+
+function printTable(title, headers, rows) {
+    console.log(chalk.cyan(`\n${title}\n`));
+    const cells = [headers, ...rows].map(row => row.map(String));
+    const widths = headers.map((_, i) => Math.max(...cells.map(row => row[i].length)));
+    const format = row => row.map((cell, i) => i === 0 ? cell.padEnd(widths[i]) : cell.padStart(widths[i])).join('  ');
+    console.log(chalk.bold(format(cells[0])));
+    for (const row of cells.slice(1)) {
+        console.log(format(row));
+    }
+}
+
+function ms(nanos) {
+    return (nanos / 1e6).toFixed(2);
+}
+
+function truncate(text, length) {
+    const flat = String(text).replace(/\s+/g, ' ');
+    return flat.length > length ? flat.slice(0, length - 1) + '…' : flat;
+}
+
+function timestamp() {
+    return new Date().toISOString().replace(/[:.]/g, '-').slice(0, 19);
+}
+
+// JDK tools from JAVA_HOME when set, otherwise from PATH
+function tool(name) {
+    const executable = isWindows ? name + '.exe' : name;
+    if (process.env.JAVA_HOME) {
+        const candidate = path.join(process.env.JAVA_HOME, 'bin', executable);
+        if (fs.existsSync(candidate)) {
+            return candidate;
+        }
+    }
+    return executable;
+}
+
+function run(command, args) {
+    return new Promise((resolve, reject) => {
+        execFile(command, args, { maxBuffer: 512 * 1024 * 1024 }, (error, stdout, stderr) => {
+            if (error) {
+                reject(new Error((stderr || stdout || error.message).trim()));
+            } else {
+                resolve(stdout);
+            }
+        });
+    });
+}
+
+function waitOrInterrupt(millis) {
+    return new Promise((resolve) => {
+        const done = () => {
+            clearTimeout(timer);
+            process.removeListener('SIGINT', done);
+            resolve();
+        };
+        const timer = setTimeout(done, millis);
+        process.once('SIGINT', done);
+    });
+}
+
+module.exports = profileCommand;
@@ -11,10 +11,21 @@ public class AuthMiddleware implements Middleware {
             throw new Exception("Unauthorized");
         }
 
-        String token = auth.substring(7);
-        if (!token.contains("user_") || !token.endsWith("_token")) {
+        if (!isValidToken(auth)) {
             res.status(401);
             throw new Exception("Invalid token");
         }
+        req.user(auth.substring(7));
+    }
+
+    /**
+     * Also used by push endpoints, which don't run @Before middleware
+     */
+    public static boolean isValidToken(String auth) {
+        if (auth == null || !auth.startsWith("Bearer ")) {
+            return false;
+        }
+        String token = auth.substring(7);
+        return token.contains("user_") && token.endsWith("_token");
     }
 }
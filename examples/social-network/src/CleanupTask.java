@@ -1,21 +1,34 @@
 import dev.artha.annotations.*;
+import dev.artha.db.ChunkedOperation;
 import dev.artha.db.Database;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 
 public class CleanupTask {
 
     @ConfigValue("app.name")
     private String appName;
 
-    @Scheduled(fixedRate = 3600000) // Every hour
+    @Scheduled(cron = "0 * * * *", jitter = 30000, exclusive = true) // Hourly, on one node only
     public void cleanup() {
         System.out.println("[" + appName + "] Running cleanup...");
 
-        // Use Database.getInstance() directly
-        Database.getInstance().execute(
-                "DELETE FROM posts WHERE " +
-                        "created_at < DATE_SUB(NOW(), INTERVAL 180 DAY) AND likes_count = 0");
-
-        System.out.println("[" + appName + "] Cleanup done!");
+        // Delete in small batches so the posts table stays writable meanwhile
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(180, ChronoUnit.DAYS));
+        try {
+            ChunkedOperation.Progress progress = Database.getInstance().table("posts")
+                    .where("created_at", "<", cutoff)
+                    .where("likes_count", 0)
+                    .chunked(1000)
+                    .pause(200)
+                    .resumable("cleanup-old-posts")
+                    .delete();
+            System.out.println("[" + appName + "] Cleanup done! Deleted " + progress.getRows() + " posts");
+        } catch (SQLException e) {
+            System.err.println("[" + appName + "] Cleanup failed: " + e.getMessage());
+        }
     }
 
     @Scheduled(fixedRate = 300000) // Every 5 minutes
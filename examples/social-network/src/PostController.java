@@ -1,5 +1,6 @@
 import dev.artha.annotations.*;
 import dev.artha.http.*;
+import dev.artha.db.CounterService;
 import dev.artha.db.Database;
 import java.util.*;
 
@@ -10,6 +11,9 @@ public class PostController {
     @Inject
     private Database db;
 
+    @Inject
+    private CounterService counters;
+
     @ConfigValue("app.maxPostLength")
     private int maxPostLength;
 
@@ -34,6 +38,18 @@ public class PostController {
                     "user_id", userId,
                     "content", content));
 
+            // Followers' cached feeds are stale now
+            ResponseCache.getInstance().evict("/api/posts/feed");
+
+            // Push to the author and their followers only, as in getFeed
+            Map<String, Object> post = Map.of("postId", postId, "userId", userId, "content", content);
+            Broadcaster broadcaster = Broadcaster.getInstance();
+            broadcaster.publish(feedTopic(userId), "post", post);
+            for (Map<String, Object> follow : db.execute(
+                    "SELECT follower_id FROM follows WHERE following_id = ?", userId)) {
+                broadcaster.publish(feedTopic(((Number) follow.get("follower_id")).intValue()), "post", post);
+            }
+
             res.status(201);
             return Map.of("postId", postId, "message", "Post created");
 
@@ -43,8 +59,26 @@ public class PostController {
         }
     }
 
+    // Pushes new posts instead of clients polling /feed. @Before doesn't
+    // run for push endpoints, so the token is checked here.
+    @Sse(path = "/feed/stream")
+    public void streamFeed(PushConnection conn) {
+        String auth = conn.header("Authorization");
+        if (!AuthMiddleware.isValidToken(auth)) {
+            conn.close();
+            return;
+        }
+        conn.subscribe(feedTopic(userIdFromToken(auth)));
+    }
+
+    private static String feedTopic(int userId) {
+        return "feed:" + userId;
+    }
+
     @Step(path = "/feed", method = "GET")
-    public Object getFeed(Request req) {
+    @Cacheable(ttl = 10000, varyBy = "Authorization") // Feed differs per user
+    @Coalesce(varyBy = "Authorization") // One query per user when the cache entry expires
+    public Object getFeed(Request req, Response res) {
         try {
             int userId = getCurrentUserId(req);
 
@@ -61,6 +95,7 @@ public class PostController {
             return Map.of("posts", posts);
 
         } catch (Exception e) {
+            res.status(500); // Errors are not cached
             return Map.of("error", e.getMessage());
         }
     }
@@ -81,7 +116,8 @@ public class PostController {
             }
 
             db.table("likes").insert(Map.of("user_id", userId, "post_id", postId));
-            db.execute("UPDATE posts SET likes_count = likes_count + 1 WHERE id = ?", postId);
+            // Batched into one UPDATE per post per flush interval
+            counters.increment("posts", "likes_count", postId);
 
             return Map.of("message", "Post liked");
 
@@ -92,7 +128,10 @@ public class PostController {
     }
 
     private int getCurrentUserId(Request req) {
-        String token = req.header("Authorization");
+        return userIdFromToken(req.header("Authorization"));
+    }
+
+    private static int userIdFromToken(String token) {
         if (token != null && token.startsWith("Bearer ")) {
             token = token.substring(7);
         }
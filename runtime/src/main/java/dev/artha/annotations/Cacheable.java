@@ -0,0 +1,39 @@
+package dev.artha.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Cache the serialized response of a GET handler.
+ * Responses are keyed by path, query string and the varyBy request headers,
+ * and carry a strong ETag; a matching If-None-Match is answered with 304
+ * without invoking the handler. @Before middleware still runs on every
+ * request.
+ *
+ * Example:
+ *
+ * <pre>
+ * &#64;Step(path = "/feed", method = "GET")
+ * &#64;Cacheable(ttl = 60000, varyBy = "Accept-Language")
+ * public List&lt;Post&gt; feed() { ... }
+ * </pre>
+ *
+ * Evict from code with ResponseCache.getInstance().evict("/feed").
+ * Responses that differ per user must list the identifying header (e.g.
+ * "Authorization") in varyBy.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Cacheable {
+    /**
+     * Time to live in milliseconds
+     */
+    long ttl() default 60000;
+
+    /**
+     * Request headers that select different cached variants
+     */
+    String[] varyBy() default {};
+}
@@ -0,0 +1,38 @@
+package dev.artha.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Share one handler execution between identical concurrent GET requests.
+ * While a request is running, identical requests (same path, query string
+ * and varyBy headers) wait for it and get the same status and body instead
+ * of running the handler again. Nothing is kept once it finishes; combine
+ * with @Cacheable to also reuse the result afterwards.
+ *
+ * Example:
+ *
+ * <pre>
+ * &#64;Step(path = "/:id", method = "GET")
+ * &#64;Coalesce(timeout = 2000)
+ * public Post get(&#64;PathParam("id") Long id) { ... }
+ * </pre>
+ *
+ * If the first request fails (exception or 5xx) or takes longer than
+ * timeout, the waiting requests run the handler themselves.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Coalesce {
+    /**
+     * Longest time in milliseconds to wait for the running request
+     */
+    long timeout() default 5000;
+
+    /**
+     * Request headers that make requests different
+     */
+    String[] varyBy() default {};
+}
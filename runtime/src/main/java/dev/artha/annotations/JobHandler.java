@@ -0,0 +1,37 @@
+package dev.artha.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Handle background jobs of a type enqueued via JobQueue.
+ * Method takes no parameters or one payload parameter, which is converted
+ * from the stored JSON (Map, POJO, String, ...). Throwing marks the attempt
+ * as failed and the job is retried with exponential backoff.
+ *
+ * Example:
+ * JobQueue.getInstance().enqueue("email.welcome", user);
+ *
+ * @JobHandler("email.welcome")
+ * public void sendWelcome(User user) { ... }
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface JobHandler {
+    /**
+     * Job type handled by this method
+     */
+    String value();
+
+    /**
+     * Attempts before the job is marked as failed
+     */
+    int maxAttempts() default 5;
+
+    /**
+     * Delay in milliseconds before the first retry; doubles on every retry
+     */
+    long backoff() default 1000;
+}
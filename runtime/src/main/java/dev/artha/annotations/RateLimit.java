@@ -0,0 +1,53 @@
+package dev.artha.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limit how often a client may call a route (token bucket).
+ * Each client gets burst requests at once, refilled at perSecond. Requests
+ * over the limit get 429 with a Retry-After header; the handler and @Before
+ * middleware are not run. Key.USER limits run after @Before instead, once
+ * auth middleware has set the verified principal (Request.user(...)).
+ *
+ * Example: @RateLimit(perSecond = 5, burst = 20) // per client IP
+ * Example: @RateLimit(perSecond = 100, key = RateLimit.Key.HEADER, header = "X-API-Key")
+ *
+ * On a class, applies to every route of the class; each route is limited
+ * separately. For one shared limit use @Before(RateLimiter.class), which
+ * takes its settings from the "rateLimit" config section.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface RateLimit {
+    /**
+     * Sustained requests per second per client
+     */
+    double perSecond();
+
+    /**
+     * Requests a client may make at once. Defaults to perSecond (minimum 1).
+     */
+    int burst() default 0;
+
+    /**
+     * What identifies a client
+     */
+    Key key() default Key.IP;
+
+    /**
+     * Header for Key.HEADER
+     */
+    String header() default "";
+
+    enum Key {
+        /** Remote address */
+        IP,
+        /** Value of the header() request header, IP if absent */
+        HEADER,
+        /** Principal set by auth middleware (Request.user), IP for anonymous requests */
+        USER
+    }
+}
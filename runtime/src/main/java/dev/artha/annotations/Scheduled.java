@@ -6,16 +6,60 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
- * Schedule a method to run at fixed intervals.
+ * Schedule a method to run periodically.
  * Method must be void with no parameters.
- * 
+ * Exactly one of fixedRate, fixedDelay or cron must be set.
+ *
  * Example: @Scheduled(fixedRate = 5000) // Every 5 seconds
+ * Example: @Scheduled(fixedDelay = 60000, initialDelay = 10000) // 1 min after each run ends
+ * Example: @Scheduled(cron = "0 3 * * *") // Every day at 03:00
+ * Example: @Scheduled(cron = "0 * * * *", exclusive = true) // One node per cluster
  */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.METHOD)
 public @interface Scheduled {
     /**
-     * Fixed rate in milliseconds between executions
+     * Fixed rate in milliseconds between execution starts
      */
-    long fixedRate();
+    long fixedRate() default -1;
+
+    /**
+     * Fixed delay in milliseconds between the end of one execution and the
+     * start of the next
+     */
+    long fixedDelay() default -1;
+
+    /**
+     * Cron expression (5 fields, or 6 with leading seconds)
+     */
+    String cron() default "";
+
+    /**
+     * Time zone for cron, e.g. "Asia/Kolkata". Defaults to the system zone.
+     */
+    String zone() default "";
+
+    /**
+     * Delay in milliseconds before the first execution (fixedRate/fixedDelay)
+     */
+    long initialDelay() default 0;
+
+    /**
+     * Random extra delay of up to this many milliseconds added to every
+     * execution, to spread load across tasks and instances
+     */
+    long jitter() default 0;
+
+    /**
+     * Skip an execution if the previous one is still running. When false,
+     * slow fixedRate/cron tasks may run concurrently with themselves.
+     */
+    boolean skipIfRunning() default true;
+
+    /**
+     * Run on only one node when several instances share the database. Each
+     * run takes a lease row in artha_leases (duration "scheduler.leaseMs",
+     * renewed while running); nodes that can't get it skip the run.
+     */
+    boolean exclusive() default false;
 }
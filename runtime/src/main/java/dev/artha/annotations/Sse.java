@@ -0,0 +1,30 @@
+package dev.artha.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Server-Sent Events endpoint.
+ * The method runs once when a client connects and usually subscribes the
+ * connection to topics; messages published to those topics with
+ * Broadcaster are then pushed to the client. The path is combined with a
+ * class-level @Step path, like @Step methods.
+ *
+ * Example:
+ *
+ * <pre>
+ * &#64;Sse(path = "/feed/stream")
+ * public void feed(PushConnection conn) {
+ *     conn.subscribe("posts");
+ * }
+ *
+ * Broadcaster.getInstance().publish("posts", "post", post);
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Sse {
+    String path();
+}
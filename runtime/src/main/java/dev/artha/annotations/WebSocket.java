@@ -0,0 +1,30 @@
+package dev.artha.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * WebSocket endpoint.
+ * The method runs once when a client connects; it can subscribe the
+ * connection to Broadcaster topics and register conn.onMessage(...) for
+ * incoming text messages. Published messages are sent as
+ * {"event": ..., "data": ...} text frames.
+ *
+ * Example:
+ *
+ * <pre>
+ * &#64;WebSocket(path = "/chat/{room}")
+ * public void chat(PushConnection conn) {
+ *     String topic = "chat:" + conn.pathParam("room");
+ *     conn.subscribe(topic);
+ *     conn.onMessage(text -&gt; Broadcaster.getInstance().publish(topic, "message", text));
+ * }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface WebSocket {
+    String path();
+}
@@ -0,0 +1,197 @@
+package dev.artha.core;
+
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.Locale;
+
+/**
+ * Cron expression used by @Scheduled(cron = ...).
+ *
+ * Accepts 5 fields (minute hour day-of-month month day-of-week) or 6 fields
+ * with leading seconds. Each field supports *, ?, lists (1,15), ranges (1-5),
+ * steps (*&#47;10, 0-30/5) and names (JAN-DEC, SUN-SAT). Day-of-week 0 and 7
+ * are Sunday; month and day-of-week ranges may wrap (FRI-MON, NOV-FEB). When
+ * both day fields are restricted (neither starts with * or ?) a day matches
+ * either, as in classic cron. Macros: @yearly, @monthly, @weekly, @daily,
+ * @hourly.
+ *
+ * Example: "0 3 * * MON-FRI" -> 03:00 on weekdays
+ */
+public class CronExpression {
+    private static final String[] MONTHS = { "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT",
+            "NOV", "DEC" };
+    private static final String[] DAYS = { "SUN", "MON", "TUE", "WED", "THU", "FRI", "SAT" };
+
+    private final String expression;
+    private final BitSet seconds;
+    private final BitSet minutes;
+    private final BitSet hours;
+    private final BitSet daysOfMonth;
+    private final BitSet months;
+    private final BitSet daysOfWeek;
+    private final boolean dayOfMonthRestricted;
+    private final boolean dayOfWeekRestricted;
+
+    public CronExpression(String expression) {
+        this.expression = expression;
+        String[] fields = expandMacro(expression.trim()).split("\\s+");
+        if (fields.length == 5) {
+            fields = new String[] { "0", fields[0], fields[1], fields[2], fields[3], fields[4] };
+        } else if (fields.length != 6) {
+            throw new IllegalArgumentException(
+                    "Cron expression must have 5 or 6 fields: '" + expression + "'");
+        }
+
+        seconds = parseField(fields[0], 0, 59, null);
+        minutes = parseField(fields[1], 0, 59, null);
+        hours = parseField(fields[2], 0, 23, null);
+        daysOfMonth = parseField(fields[3], 1, 31, null);
+        months = parseField(fields[4], 1, 12, MONTHS);
+        daysOfWeek = parseField(fields[5], 0, 7, DAYS);
+        if (daysOfWeek.get(7)) {
+            daysOfWeek.set(0); // 7 is Sunday too
+        }
+        // As in classic cron, "*/2" still leaves the field unrestricted
+        dayOfMonthRestricted = !startsWithWildcard(fields[3]);
+        dayOfWeekRestricted = !startsWithWildcard(fields[5]);
+    }
+
+    /**
+     * Next matching time strictly after the given time, or null if the
+     * expression never matches (e.g. 30 February)
+     */
+    public ZonedDateTime next(ZonedDateTime after) {
+        ZonedDateTime t = after.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1);
+        int lastYear = after.getYear() + 5;
+
+        while (t.getYear() <= lastYear) {
+            if (!months.get(t.getMonthValue())) {
+                t = t.withDayOfMonth(1).truncatedTo(ChronoUnit.DAYS).plusMonths(1);
+            } else if (!dayMatches(t)) {
+                t = t.truncatedTo(ChronoUnit.DAYS).plusDays(1);
+            } else if (!hours.get(t.getHour())) {
+                t = t.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            } else if (!minutes.get(t.getMinute())) {
+                t = t.truncatedTo(ChronoUnit.MINUTES).plusMinutes(1);
+            } else if (!seconds.get(t.getSecond())) {
+                t = t.plusSeconds(1);
+            } else {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+
+    private boolean dayMatches(ZonedDateTime t) {
+        boolean dom = daysOfMonth.get(t.getDayOfMonth());
+        boolean dow = daysOfWeek.get(t.getDayOfWeek().getValue() % 7);
+        if (dayOfMonthRestricted && dayOfWeekRestricted) {
+            return dom || dow;
+        }
+        return dom && dow;
+    }
+
+    private static boolean isWildcard(String field) {
+        return field.equals("*") || field.equals("?");
+    }
+
+    private static boolean startsWithWildcard(String field) {
+        return field.startsWith("*") || field.startsWith("?");
+    }
+
+    private static String expandMacro(String expression) {
+        switch (expression.toLowerCase(Locale.ROOT)) {
+            case "@yearly":
+            case "@annually":
+                return "0 0 0 1 1 *";
+            case "@monthly":
+                return "0 0 0 1 * *";
+            case "@weekly":
+                return "0 0 0 * * 0";
+            case "@daily":
+            case "@midnight":
+                return "0 0 0 * * *";
+            case "@hourly":
+                return "0 0 * * * *";
+            default:
+                return expression;
+        }
+    }
+
+    private BitSet parseField(String field, int min, int max, String[] names) {
+        BitSet bits = new BitSet(max + 1);
+        for (String part : field.split(",")) {
+            int step = 1;
+            int slash = part.indexOf('/');
+            if (slash >= 0) {
+                step = Integer.parseInt(part.substring(slash + 1));
+                part = part.substring(0, slash);
+                if (step <= 0) {
+                    throw invalid(field);
+                }
+            }
+
+            int from;
+            int to;
+            if (isWildcard(part)) {
+                from = min;
+                to = max;
+            } else {
+                int dash = part.indexOf('-');
+                if (dash > 0) {
+                    from = value(part.substring(0, dash), names, min, field);
+                    to = value(part.substring(dash + 1), names, min, field);
+                } else {
+                    from = value(part, names, min, field);
+                    // "5/15" means 5, 20, 35, 50
+                    to = slash >= 0 ? max : from;
+                }
+            }
+
+            if (from < min || to > max || from > max || to < min) {
+                throw invalid(field);
+            }
+            if (from <= to) {
+                for (int i = from; i <= to; i += step) {
+                    bits.set(i);
+                }
+            } else if (names != null) {
+                // Wrapping range of months or days: FRI-MON is 5, 6, 0, 1
+                int cycle = names.length;
+                int length = Math.floorMod(to - from, cycle);
+                for (int i = 0; i <= length; i += step) {
+                    bits.set(min + Math.floorMod(from - min + i, cycle));
+                }
+            } else {
+                throw invalid(field);
+            }
+        }
+        return bits;
+    }
+
+    private int value(String token, String[] names, int min, String field) {
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equalsIgnoreCase(token)) {
+                    // Months are 1-based, days 0-based (SUN = 0)
+                    return min == 1 ? i + 1 : i;
+                }
+            }
+        }
+        try {
+            return Integer.parseInt(token);
+        } catch (NumberFormatException e) {
+            throw invalid(field);
+        }
+    }
+
+    private IllegalArgumentException invalid(String field) {
+        return new IllegalArgumentException("Invalid cron field '" + field + "' in '" + expression + "'");
+    }
+}
@@ -3,6 +3,7 @@ package dev.artha.core;
 import dev.artha.annotations.Inject;
 import java.lang.reflect.Field;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -12,6 +13,12 @@ public class DIContainer {
     private static final DIContainer instance = new DIContainer();
     private final Map<Class<?>, Object> instances = new ConcurrentHashMap<>();
 
+    // Runtime services injected through their static getInstance(); every
+    // other class gets the container's own instance
+    private static final Set<String> RUNTIME_SINGLETONS = Set.of(
+            "dev.artha.db.Database",
+            "dev.artha.db.CounterService");
+
     private DIContainer() {
     }
 
@@ -33,27 +40,30 @@ public class DIContainer {
      */
     @SuppressWarnings("unchecked")
     public <T> T get(Class<T> type) {
-        // Special handling for Database singleton to ensure we always get the
-        // initialized instance
-        if (type.getName().equals("dev.artha.db.Database")) {
+        // Every request resolves its controller and middleware here, so the
+        // common case is a single map lookup
+        Object existing = instances.get(type);
+        if (existing != null) {
+            return (T) existing;
+        }
+
+        // Special handling for runtime singletons (Database, CounterService)
+        // to ensure we always get the initialized instance
+        if (RUNTIME_SINGLETONS.contains(type.getName())) {
             try {
                 // Use reflection to verify it has getInstance method (avoid compile-time
                 // dependency cycle if checked strictly)
                 java.lang.reflect.Method getInstance = type.getMethod("getInstance");
-                return (T) getInstance.invoke(null);
+                T singleton = (T) getInstance.invoke(null);
+                instances.put(type, singleton);
+                return singleton;
             } catch (Exception e) {
-                System.err.println("⚠️  Failed to get Database instance via singleton: " + e.getMessage());
+                System.err.println("⚠️  Failed to get " + type.getSimpleName() + " instance via singleton: "
+                        + e.getMessage());
                 // Fallthrough to normal creation if fails (though it shouldn't)
             }
         }
 
-        // Check if instance already exists (singleton)
-        Object existing = instances.get(type);
-        if (existing != null) {
-            System.out.println("DIContainer: Returning existing instance for " + type.getName());
-            return (T) existing;
-        }
-
         System.out.println("DIContainer: Creating NEW instance for " + type.getName());
 
         // Create new instance
@@ -0,0 +1,417 @@
+package dev.artha.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hashed timing wheel for large numbers of short timeouts (request
+ * deadlines, delayed retries) that are usually cancelled before they fire.
+ *
+ * Scheduling and cancelling are O(1): new timeouts are appended to a
+ * lock-free queue, and a single worker thread moves them into a bucket of a
+ * circular wheel once per tick. Each tick expires one bucket. Precision is
+ * one tick, so this is not a replacement for TaskScheduler's exact timers.
+ *
+ * Example:
+ *
+ * <pre>
+ * HashedWheelTimer.Timeout timeout = HashedWheelTimer.getInstance()
+ *         .newTimeout(() -> future.cancel(true), 2, TimeUnit.SECONDS);
+ * ...
+ * timeout.cancel(); // finished in time
+ * </pre>
+ *
+ * Tasks run on the timer thread unless an executor is given, so they must
+ * be short. The shared instance is configured via artha.json:
+ * "timer": { "tickMs": 10, "wheelSize": 512 }
+ */
+public class HashedWheelTimer {
+    private static HashedWheelTimer instance;
+
+    private static final int STATE_INIT = 0;
+    private static final int STATE_STARTED = 1;
+    private static final int STATE_STOPPED = 2;
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final String name;
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Executor executor;
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger state = new AtomicInteger(STATE_INIT);
+    private final CountDownLatch startedLatch = new CountDownLatch(1);
+    private volatile long startTime;
+    private Thread worker;
+    private long tick; // worker thread only
+
+    // Metrics
+    private final AtomicLong pending = new AtomicLong();
+    private final LongAdder scheduledCount = new LongAdder();
+    private final LongAdder expiredCount = new LongAdder();
+    private final LongAdder cancelledCount = new LongAdder();
+    private final AtomicLong maxLagNanos = new AtomicLong();
+
+    /**
+     * A scheduled task; cancel it when the guarded work finishes in time
+     */
+    public static final class Timeout {
+        private static final int INIT = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE = AtomicIntegerFieldUpdater
+                .newUpdater(Timeout.class, "state");
+
+        private final HashedWheelTimer timer;
+        private final Runnable task;
+        private final long deadline; // nanos since timer start
+        private volatile int state = INIT;
+
+        // Owned by the worker thread
+        private long remainingRounds;
+        private Timeout next;
+        private Timeout prev;
+        private Bucket bucket;
+
+        private Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+            this.timer = timer;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancel the task if it hasn't run yet
+         *
+         * @return true if this call cancelled it
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, INIT, CANCELLED)) {
+                return false;
+            }
+            timer.pending.decrementAndGet();
+            timer.cancelledCount.increment();
+            // Unlinked from its bucket by the worker on the next tick
+            timer.cancelled.add(this);
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        private void expire(long now) {
+            if (!STATE.compareAndSet(this, INIT, EXPIRED)) {
+                return;
+            }
+            timer.pending.decrementAndGet();
+            timer.expiredCount.increment();
+            long lag = now - deadline;
+            timer.maxLagNanos.accumulateAndGet(lag, Math::max);
+            if (timer.executor != null) {
+                timer.executor.execute(this::runTask);
+            } else {
+                runTask();
+            }
+        }
+
+        private void runTask() {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                System.err.println("⚠️  Timer task failed on " + timer.name + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of timeouts, touched by the worker thread only
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+
+        Timeout remove(Timeout timeout) {
+            Timeout next = timeout.next;
+            if (timeout.prev != null) {
+                timeout.prev.next = next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            if (timeout == head) {
+                head = next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+            return next;
+        }
+
+        /**
+         * Expire every timeout due by deadline; others wait another round
+         */
+        void expire(long deadline, long now) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                if (timeout.remainingRounds <= 0 && timeout.deadline <= deadline) {
+                    Timeout next = remove(timeout);
+                    timeout.expire(now);
+                    timeout = next;
+                } else if (timeout.isCancelled()) {
+                    timeout = remove(timeout);
+                } else {
+                    if (timeout.remainingRounds > 0) {
+                        timeout.remainingRounds--;
+                    }
+                    timeout = timeout.next;
+                }
+            }
+        }
+
+        void drain(Queue<Timeout> unprocessed) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = remove(timeout);
+                unprocessed.add(timeout);
+                timeout = next;
+            }
+        }
+    }
+
+    /**
+     * @param name       Thread name
+     * @param tick       Tick duration (timer precision)
+     * @param unit       Unit of tick
+     * @param wheelSize  Buckets per wheel, rounded up to a power of two
+     * @param executor   Executor for tasks, or null to run them on the timer thread
+     */
+    public HashedWheelTimer(String name, long tick, TimeUnit unit, int wheelSize, Executor executor) {
+        if (tick <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tick);
+        }
+        if (wheelSize <= 0 || wheelSize > (1 << 30)) {
+            throw new IllegalArgumentException("Wheel size must be between 1 and 2^30: " + wheelSize);
+        }
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.name = name;
+        this.tickNanos = Math.max(unit.toNanos(tick), TimeUnit.MILLISECONDS.toNanos(1));
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.executor = executor;
+    }
+
+    /**
+     * Shared timer configured from artha.json "timer" section
+     */
+    public static synchronized HashedWheelTimer getInstance() {
+        if (instance == null) {
+            ConfigManager config = ConfigManager.getInstance();
+            Integer tickMs = config.getInt("timer.tickMs");
+            Integer wheelSize = config.getInt("timer.wheelSize");
+            instance = new HashedWheelTimer("artha-timer", tickMs != null && tickMs > 0 ? tickMs : 10,
+                    TimeUnit.MILLISECONDS, wheelSize != null && wheelSize > 0 ? wheelSize : 512, null);
+        }
+        return instance;
+    }
+
+    /**
+     * Run task once after the delay (rounded up to the next tick)
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task must not be null");
+        }
+        start();
+        long deadline = System.nanoTime() + unit.toNanos(Math.max(0, delay)) - startTime;
+        if (deadline < 0) {
+            deadline = Long.MAX_VALUE; // overflow: practically never
+        }
+        Timeout timeout = new Timeout(this, task, deadline);
+        pending.incrementAndGet();
+        scheduledCount.increment();
+        added.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Timeouts scheduled but neither expired nor cancelled
+     */
+    public long pending() {
+        return pending.get();
+    }
+
+    /**
+     * Snapshot of timer metrics
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tickMs", tickNanos / 1_000_000.0);
+        stats.put("wheelSize", wheel.length);
+        stats.put("pending", pending.get());
+        stats.put("scheduled", scheduledCount.sum());
+        stats.put("expired", expiredCount.sum());
+        stats.put("cancelled", cancelledCount.sum());
+        stats.put("maxLagMs", maxLagNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    /**
+     * Stop the worker; timeouts that haven't fired are cancelled
+     *
+     * @return Number of timeouts cancelled
+     */
+    public int stop() {
+        if (state.getAndSet(STATE_STOPPED) != STATE_STARTED) {
+            return 0;
+        }
+        worker.interrupt();
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Queue<Timeout> unprocessed = new ConcurrentLinkedQueue<>(added);
+        added.clear();
+        for (Bucket bucket : wheel) {
+            bucket.drain(unprocessed);
+        }
+        int count = 0;
+        for (Timeout timeout : unprocessed) {
+            if (timeout.cancel()) {
+                count++;
+            }
+        }
+        cancelled.clear();
+        return count;
+    }
+
+    private void start() {
+        switch (state.get()) {
+            case STATE_STARTED:
+                break;
+            case STATE_INIT:
+                synchronized (this) {
+                    if (state.get() == STATE_INIT) {
+                        worker = new Thread(this::run, name);
+                        worker.setDaemon(true);
+                        worker.start();
+                        state.set(STATE_STARTED);
+                    }
+                }
+                break;
+            default:
+                throw new IllegalStateException("Timer " + name + " has been stopped");
+        }
+        // Deadlines are relative to startTime, set by the worker
+        while (startTime == 0) {
+            try {
+                startedLatch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while starting timer " + name, e);
+            }
+        }
+    }
+
+    private void run() {
+        long now = System.nanoTime();
+        startTime = now == 0 ? 1 : now;
+        startedLatch.countDown();
+
+        while (state.get() == STATE_STARTED) {
+            long deadline = waitForNextTick();
+            if (deadline < 0) {
+                break;
+            }
+            removeCancelled();
+            transferAdded();
+            long current = System.nanoTime() - startTime;
+            wheel[(int) (tick & mask)].expire(deadline, current);
+            tick++;
+        }
+    }
+
+    /**
+     * Sleep until the end of the current tick
+     *
+     * @return Elapsed nanos since start, or -1 when stopped
+     */
+    private long waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long current = System.nanoTime() - startTime;
+            long sleepMillis = (deadline - current + 999_999) / 1_000_000;
+            if (sleepMillis <= 0) {
+                return current;
+            }
+            try {
+                Thread.sleep(sleepMillis);
+            } catch (InterruptedException e) {
+                if (state.get() == STATE_STOPPED) {
+                    return -1;
+                }
+            }
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferAdded() {
+        // Bounded so a flood of new timeouts can't stall expiry
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = added.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long calculated = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculated - tick) / wheel.length;
+            // Already overdue: expire on this tick
+            long ticks = Math.max(calculated, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package dev.artha.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder events for the runtime, shown under "Artha" in JDK
+ * Mission Control and readable with `jfr print --categories Artha`.
+ *
+ * Each factory returns a begun event, or null when no recording has the
+ * event enabled, so instrumented code checks for null and allocates nothing
+ * while JFR is off:
+ *
+ * JfrEvents.Dispatch event = JfrEvents.dispatch();
+ * ...
+ * if (event != null) event.record(method, route, status);
+ *
+ * `artha profile` starts a recording on a running server and summarizes
+ * these events.
+ */
+public final class JfrEvents {
+    private static final EventType DISPATCH = EventType.getEventType(Dispatch.class);
+    private static final EventType BIND = EventType.getEventType(Bind.class);
+    private static final EventType SQL = EventType.getEventType(Sql.class);
+    private static final EventType CONNECTION_ACQUIRE = EventType.getEventType(ConnectionAcquire.class);
+    private static final EventType TASK_RUN = EventType.getEventType(TaskRun.class);
+
+    private JfrEvents() {
+    }
+
+    public static Dispatch dispatch() {
+        return DISPATCH.isEnabled() ? begin(new Dispatch()) : null;
+    }
+
+    public static Bind bind() {
+        return BIND.isEnabled() ? begin(new Bind()) : null;
+    }
+
+    public static Sql sql() {
+        return SQL.isEnabled() ? begin(new Sql()) : null;
+    }
+
+    public static ConnectionAcquire connectionAcquire() {
+        return CONNECTION_ACQUIRE.isEnabled() ? begin(new ConnectionAcquire()) : null;
+    }
+
+    public static TaskRun taskRun() {
+        return TASK_RUN.isEnabled() ? begin(new TaskRun()) : null;
+    }
+
+    private static <E extends Event> E begin(E event) {
+        event.begin();
+        return event;
+    }
+
+    @Name("dev.artha.Dispatch")
+    @Label("Route Dispatch")
+    @Description("A request through rate limiting, middleware and the handler")
+    @Category({ "Artha", "HTTP" })
+    @StackTrace(false)
+    public static final class Dispatch extends Event {
+        @Label("Method")
+        String method;
+
+        @Label("Route")
+        @Description("Route template, e.g. /api/posts/{id}")
+        String route;
+
+        @Label("Status")
+        int status;
+
+        public void record(String method, String route, int status) {
+            end();
+            if (shouldCommit()) {
+                this.method = method;
+                this.route = route;
+                this.status = status;
+                commit();
+            }
+        }
+    }
+
+    @Name("dev.artha.Bind")
+    @Label("Parameter Binding")
+    @Description("Resolving handler arguments: body parsing, validation, path and query conversion")
+    @Category({ "Artha", "HTTP" })
+    @StackTrace(false)
+    public static final class Bind extends Event {
+        @Label("Handler")
+        String handler;
+
+        @Label("Parameters")
+        int parameters;
+
+        public void record(String handler, int parameters) {
+            end();
+            if (shouldCommit()) {
+                this.handler = handler;
+                this.parameters = parameters;
+                commit();
+            }
+        }
+    }
+
+    @Name("dev.artha.Sql")
+    @Label("SQL Statement")
+    @Description("One statement, including the wait for a pooled connection")
+    @Category({ "Artha", "Database" })
+    @StackTrace(false)
+    public static final class Sql extends Event {
+        @Label("Operation")
+        String operation;
+
+        @Label("Statement")
+        @Description("SQL with ? placeholders; values are never recorded")
+        String statement;
+
+        @Label("Rows")
+        @Description("Rows returned or affected, -1 when unknown")
+        long rows;
+
+        @Label("Failed")
+        boolean failed;
+
+        public void record(String operation, String statement, long rows, boolean failed) {
+            end();
+            if (shouldCommit()) {
+                this.operation = operation;
+                this.statement = statement;
+                this.rows = rows;
+                this.failed = failed;
+                commit();
+            }
+        }
+    }
+
+    @Name("dev.artha.ConnectionAcquire")
+    @Label("Connection Acquire")
+    @Description("Waiting for a connection from the database pool")
+    @Category({ "Artha", "Database" })
+    @StackTrace(false)
+    public static final class ConnectionAcquire extends Event {
+        @Label("Active Connections")
+        int active;
+
+        @Label("Threads Waiting")
+        int waiting;
+
+        public void record(int active, int waiting) {
+            end();
+            if (shouldCommit()) {
+                this.active = active;
+                this.waiting = waiting;
+                commit();
+            }
+        }
+    }
+
+    @Name("dev.artha.TaskRun")
+    @Label("Scheduled Task Run")
+    @Category({ "Artha", "Scheduler" })
+    @StackTrace(false)
+    public static final class TaskRun extends Event {
+        @Label("Task")
+        String task;
+
+        @Label("Start Lag")
+        @Description("How late the run started relative to its planned time")
+        @Timespan(Timespan.MILLISECONDS)
+        long lag;
+
+        @Label("Failed")
+        boolean failed;
+
+        public void record(String task, long lagMillis, boolean failed) {
+            end();
+            if (shouldCommit()) {
+                this.task = task;
+                this.lag = lagMillis;
+                this.failed = failed;
+                commit();
+            }
+        }
+    }
+}
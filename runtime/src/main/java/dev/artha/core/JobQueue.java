@@ -0,0 +1,745 @@
+package dev.artha.core;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.artha.annotations.JobHandler;
+import dev.artha.db.Database;
+import dev.artha.db.QueryBuilder;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Durable background job queue stored in the artha_jobs table.
+ *
+ * Jobs are enqueued from anywhere (typically request handlers) and executed
+ * by @JobHandler methods on a worker pool, on this or any other instance
+ * sharing the database. Jobs survive restarts; a job whose worker died is
+ * picked up again once its lock expires.
+ *
+ * Example:
+ *
+ * <pre>
+ * JobQueue.getInstance().enqueue("email.welcome", Map.of("userId", 42));
+ * JobQueue.getInstance().enqueue("report.build", request, 60_000); // in 1 minute
+ *
+ * &#64;JobHandler(value = "email.welcome", maxAttempts = 3)
+ * public void sendWelcome(Map&lt;String, Object&gt; payload) { ... }
+ * </pre>
+ *
+ * Workers claim up to batchSize due jobs per query. On PostgreSQL and MySQL
+ * claims use SELECT ... FOR UPDATE SKIP LOCKED, so concurrent workers never
+ * block on or double-claim a job; on SQLite and the memory driver each
+ * candidate is claimed with a conditional UPDATE instead. Failed attempts
+ * are retried with exponential backoff until maxAttempts, then kept with
+ * status "failed" for inspection; a run whose lock expires counts as an
+ * attempt too. Completed jobs are deleted.
+ *
+ * Configured via artha.json:
+ * "jobs": { "workers": 4, "batchSize": 10, "pollIntervalMs": 1000, "lockTimeoutMs": 300000 }
+ */
+public class JobQueue {
+    private static JobQueue instance;
+
+    static final String TABLE = "artha_jobs";
+    private static final String PENDING = "pending";
+    private static final String RUNNING = "running";
+    private static final String FAILED = "failed";
+    private static final long MAX_BACKOFF_MS = 3_600_000;
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final int workerCount;
+    private final int batchSize;
+    private final long pollIntervalMillis;
+    private final long lockTimeoutMillis;
+    private final String workerId;
+
+    private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+    private final Map<String, TypeStats> typeStats = new ConcurrentHashMap<>();
+    private final Semaphore freeWorkers;
+    private final Object signal = new Object();
+    private volatile boolean signalled;
+    private volatile boolean tableReady;
+    private volatile boolean running;
+    private ExecutorService workers;
+    private Thread poller;
+    private long lastRecoveryAt;
+    private long startedAt;
+
+    // Metrics
+    private final LongAdder claimQueries = new LongAdder();
+    private final LongAdder claimed = new LongAdder();
+    private final AtomicInteger active = new AtomicInteger();
+
+    /**
+     * Job body; exceptions fail the attempt
+     */
+    @FunctionalInterface
+    public interface JobBody {
+        void run(String payloadJson) throws Exception;
+    }
+
+    private static final class Handler {
+        final String type;
+        final JobBody body;
+        final int maxAttempts;
+        final long backoff;
+
+        Handler(String type, JobBody body, int maxAttempts, long backoff) {
+            this.type = type;
+            this.body = body;
+            this.maxAttempts = Math.max(1, maxAttempts);
+            this.backoff = Math.max(0, backoff);
+        }
+    }
+
+    private static final class ClaimedJob {
+        final long id;
+        final String type;
+        final String payload;
+        final int attempt;
+        final long runAt;
+
+        ClaimedJob(long id, String type, String payload, int attempt, long runAt) {
+            this.id = id;
+            this.type = type;
+            this.payload = payload;
+            this.attempt = attempt;
+            this.runAt = runAt;
+        }
+    }
+
+    private static final class TypeStats {
+        final LongAdder enqueued = new LongAdder();
+        final LongAdder completed = new LongAdder();
+        final LongAdder retried = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder totalWaitMillis = new LongAdder();
+        final AtomicLong maxWaitMillis = new AtomicLong();
+        final LongAdder totalRunNanos = new LongAdder();
+        final AtomicLong maxRunNanos = new AtomicLong();
+        volatile String lastError;
+
+        Map<String, Object> toMap() {
+            long runs = completed.sum() + retried.sum() + failed.sum();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("enqueued", enqueued.sum());
+            stats.put("completed", completed.sum());
+            stats.put("retried", retried.sum());
+            stats.put("failed", failed.sum());
+            stats.put("avgWaitMs", runs == 0 ? 0.0 : totalWaitMillis.sum() / (double) runs);
+            stats.put("maxWaitMs", maxWaitMillis.get());
+            stats.put("avgRunMs", runs == 0 ? 0.0 : totalRunNanos.sum() / (double) runs / 1_000_000.0);
+            stats.put("maxRunMs", maxRunNanos.get() / 1_000_000.0);
+            stats.put("lastError", lastError);
+            return stats;
+        }
+    }
+
+    private JobQueue() {
+        ConfigManager config = ConfigManager.getInstance();
+        this.workerCount = positive(config.getInt("jobs.workers"), 4);
+        this.batchSize = positive(config.getInt("jobs.batchSize"), 10);
+        this.pollIntervalMillis = positive(config.getInt("jobs.pollIntervalMs"), 1000);
+        this.lockTimeoutMillis = positive(config.getInt("jobs.lockTimeoutMs"), 300_000);
+        this.workerId = ManagementFactory.getRuntimeMXBean().getName() + "-" + Long.toHexString(System.nanoTime());
+        this.freeWorkers = new Semaphore(workerCount);
+    }
+
+    public static synchronized JobQueue getInstance() {
+        if (instance == null) {
+            instance = new JobQueue();
+        }
+        return instance;
+    }
+
+    /**
+     * Enqueue a job to run as soon as a worker is free
+     *
+     * @return Job id
+     */
+    public long enqueue(String type, Object payload) {
+        return enqueue(type, payload, 0);
+    }
+
+    /**
+     * Enqueue a job to run after the given delay
+     *
+     * @param payload Any JSON-serializable value (or null)
+     * @return Job id
+     */
+    public long enqueue(String type, Object payload, long delayMillis) {
+        if (type == null || type.isEmpty()) {
+            throw new IllegalArgumentException("Job type must not be empty");
+        }
+        long now = System.currentTimeMillis();
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("type", type);
+        row.put("payload", toJson(payload));
+        row.put("status", PENDING);
+        row.put("attempts", 0);
+        row.put("run_at", now + Math.max(0, delayMillis));
+        row.put("created_at", now);
+        long id;
+        try {
+            id = jobs().insert(row);
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to enqueue job " + type + ": " + e.getMessage(), e);
+        }
+        stats(type).enqueued.increment();
+        if (delayMillis <= 0 && handlers.containsKey(type)) {
+            wakeUp();
+        }
+        return id;
+    }
+
+    /**
+     * Register a @JobHandler method
+     */
+    public void register(Object instance, Method method, JobHandler config) {
+        if (method.getParameterCount() > 1) {
+            throw new IllegalArgumentException("@JobHandler method takes at most one (payload) parameter: "
+                    + method.getDeclaringClass().getName() + "." + method.getName());
+        }
+        register(config.value(), invoker(instance, method), config.maxAttempts(), config.backoff());
+        System.out.println("  📨 Job handler: " + config.value() + " -> "
+                + method.getDeclaringClass().getSimpleName() + "." + method.getName() + "()");
+    }
+
+    /**
+     * Register a handler for a job type
+     */
+    public void register(String type, JobBody body, int maxAttempts, long backoffMillis) {
+        if (handlers.putIfAbsent(type, new Handler(type, body, maxAttempts, backoffMillis)) != null) {
+            throw new IllegalStateException("Duplicate job handler for type: " + type);
+        }
+    }
+
+    /**
+     * Start the poller and worker pool (once handlers are registered)
+     */
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        if (!Database.getInstance().isInitialized()) {
+            throw new IllegalStateException("Job queue needs a database; add database config to artha.json");
+        }
+        running = true;
+        startedAt = System.currentTimeMillis();
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r, "artha-jobs-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        poller = new Thread(this::poll, "artha-jobs-poller");
+        poller.setDaemon(true);
+        poller.start();
+        java.lang.Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "artha-jobs-shutdown"));
+        System.out.println("📨 Job queue started: " + workerCount + " worker(s), " + handlers.size() + " type(s)");
+    }
+
+    private void poll() {
+        while (running) {
+            try {
+                int free = freeWorkers.availablePermits();
+                int requested = Math.min(free, batchSize);
+                List<ClaimedJob> jobs = Collections.emptyList();
+                if (requested > 0) {
+                    recoverExpired();
+                    jobs = claim(requested);
+                }
+                for (int i = 0; i < jobs.size(); i++) {
+                    ClaimedJob job = jobs.get(i);
+                    freeWorkers.acquire();
+                    try {
+                        workers.execute(() -> process(job));
+                    } catch (RejectedExecutionException e) {
+                        // Shutting down: don't leave the rest running until their locks expire
+                        freeWorkers.release();
+                        release(jobs.subList(i, jobs.size()));
+                        break;
+                    }
+                }
+                // Full batch: more may be due right away
+                if (requested == 0 || jobs.size() < requested) {
+                    await(pollIntervalMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("⚠️  Job poll failed: " + e.getMessage());
+                await(pollIntervalMillis);
+            }
+        }
+    }
+
+    private List<ClaimedJob> claim(int limit) throws SQLException {
+        if (handlers.isEmpty()) {
+            return Collections.emptyList();
+        }
+        claimQueries.increment();
+        List<ClaimedJob> jobs = "memory".equals(Database.getInstance().getDriver())
+                ? claimConditional(candidatesPerType(limit))
+                : claimSql(limit);
+        claimed.add(jobs.size());
+        return jobs;
+    }
+
+    /**
+     * PostgreSQL/MySQL: lock due rows, skipping rows other workers hold, and
+     * mark them running in one transaction. SQLite: conditional claims.
+     */
+    private List<ClaimedJob> claimSql(int limit) throws SQLException {
+        List<String> types = new ArrayList<>(handlers.keySet());
+        String driver = Database.getInstance().getDriver();
+        boolean skipLocked = "postgresql".equals(driver) || "mysql".equals(driver);
+        StringBuilder sql = new StringBuilder("SELECT id, type, payload, attempts, run_at FROM " + TABLE
+                + " WHERE status = ? AND run_at <= ? AND type IN (");
+        for (int i = 0; i < types.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(") ORDER BY run_at LIMIT ?");
+        if (skipLocked) {
+            sql.append(" FOR UPDATE SKIP LOCKED");
+        }
+
+        if (!skipLocked) {
+            // Read, then return the connection before the conditional claims borrow their own
+            List<Map<String, Object>> candidates;
+            try (Connection conn = Database.getInstance().getConnection()) {
+                candidates = selectDue(conn, sql.toString(), types, limit);
+            }
+            return claimConditional(candidates);
+        }
+
+        try (Connection conn = Database.getInstance().getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                List<Map<String, Object>> candidates = selectDue(conn, sql.toString(), types, limit);
+                if (candidates.isEmpty()) {
+                    conn.commit();
+                    return Collections.emptyList();
+                }
+
+                StringBuilder update = new StringBuilder("UPDATE " + TABLE
+                        + " SET status = ?, locked_by = ?, locked_until = ?, attempts = attempts + 1 WHERE id IN (");
+                for (int i = 0; i < candidates.size(); i++) {
+                    update.append(i == 0 ? "?" : ", ?");
+                }
+                update.append(")");
+                try (PreparedStatement stmt = conn.prepareStatement(update.toString())) {
+                    int index = 1;
+                    stmt.setString(index++, RUNNING);
+                    stmt.setString(index++, workerId);
+                    stmt.setLong(index++, System.currentTimeMillis() + lockTimeoutMillis);
+                    for (Map<String, Object> row : candidates) {
+                        stmt.setLong(index++, (Long) row.get("id"));
+                    }
+                    stmt.executeUpdate();
+                }
+                conn.commit();
+
+                List<ClaimedJob> jobs = new ArrayList<>(candidates.size());
+                for (Map<String, Object> row : candidates) {
+                    jobs.add(toJob(row));
+                }
+                return jobs;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private List<Map<String, Object>> selectDue(Connection conn, String sql, List<String> types, int limit)
+            throws SQLException {
+        List<Map<String, Object>> candidates = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            stmt.setString(index++, PENDING);
+            stmt.setLong(index++, System.currentTimeMillis());
+            for (String type : types) {
+                stmt.setString(index++, type);
+            }
+            stmt.setInt(index, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Map<String, Object> row = new HashMap<>();
+                    row.put("id", rs.getLong("id"));
+                    row.put("type", rs.getString("type"));
+                    row.put("payload", rs.getString("payload"));
+                    row.put("attempts", rs.getInt("attempts"));
+                    row.put("run_at", rs.getLong("run_at"));
+                    candidates.add(row);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Due candidates on the memory driver, which has no IN operator
+     */
+    private List<Map<String, Object>> candidatesPerType(int limit) throws SQLException {
+        List<Map<String, Object>> candidates = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (String type : handlers.keySet()) {
+            if (candidates.size() >= limit) {
+                break;
+            }
+            candidates.addAll(jobs().where("status", PENDING).where("type", type).where("run_at", "<=", now)
+                    .orderBy("run_at", "ASC").limit(limit - candidates.size()).get());
+        }
+        return candidates;
+    }
+
+    /**
+     * Claim each candidate with an UPDATE that only succeeds while the job
+     * is still pending at the attempt count read, so two workers can never
+     * both win it and every claim gets its own attempt number
+     */
+    private List<ClaimedJob> claimConditional(List<Map<String, Object>> candidates) throws SQLException {
+        List<ClaimedJob> jobs = new ArrayList<>(candidates.size());
+        for (Map<String, Object> row : candidates) {
+            Map<String, Object> lock = new LinkedHashMap<>();
+            lock.put("status", RUNNING);
+            lock.put("locked_by", workerId);
+            lock.put("locked_until", System.currentTimeMillis() + lockTimeoutMillis);
+            int attempts = ((Number) row.get("attempts")).intValue();
+            lock.put("attempts", attempts + 1);
+            long id = ((Number) row.get("id")).longValue();
+            if (jobs().where("id", id).where("status", PENDING).where("attempts", attempts).update(lock) == 1) {
+                jobs.add(toJob(row));
+            }
+        }
+        return jobs;
+    }
+
+    private static ClaimedJob toJob(Map<String, Object> row) {
+        return new ClaimedJob(((Number) row.get("id")).longValue(), (String) row.get("type"),
+                (String) row.get("payload"), ((Number) row.get("attempts")).intValue() + 1,
+                ((Number) row.get("run_at")).longValue());
+    }
+
+    private void process(ClaimedJob job) {
+        active.incrementAndGet();
+        TypeStats stats = stats(job.type);
+        long start = System.nanoTime();
+        long wait = Math.max(0, System.currentTimeMillis() - job.runAt);
+        stats.totalWaitMillis.add(wait);
+        stats.maxWaitMillis.accumulateAndGet(wait, Math::max);
+        try {
+            Handler handler = handlers.get(job.type);
+            Exception error = null;
+            try {
+                handler.body.run(job.payload);
+            } catch (Exception e) {
+                error = e;
+            }
+            long elapsed = System.nanoTime() - start;
+            stats.totalRunNanos.add(elapsed);
+            stats.maxRunNanos.accumulateAndGet(elapsed, Math::max);
+
+            if (error == null) {
+                // Only delete if the lock wasn't taken over after expiring
+                claimedBy(job).delete();
+                stats.completed.increment();
+            } else {
+                fail(job, handler, error, stats);
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️  Failed to record result of job " + job.id + ": " + e.getMessage());
+        } finally {
+            active.decrementAndGet();
+            freeWorkers.release();
+            wakeUp();
+        }
+    }
+
+    private void fail(ClaimedJob job, Handler handler, Exception error, TypeStats stats) throws SQLException {
+        String message = error.getClass().getSimpleName() + ": " + error.getMessage();
+        stats.lastError = message;
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("locked_by", null);
+        row.put("locked_until", null);
+        row.put("last_error", message.length() > 1000 ? message.substring(0, 1000) : message);
+        if (job.attempt >= handler.maxAttempts) {
+            row.put("status", FAILED);
+            stats.failed.increment();
+            System.err.println("❌ Job " + job.type + "#" + job.id + " failed after " + job.attempt
+                    + " attempt(s): " + message);
+        } else {
+            row.put("status", PENDING);
+            row.put("run_at", System.currentTimeMillis() + backoff(handler, job.attempt));
+            stats.retried.increment();
+        }
+        claimedBy(job).update(row);
+    }
+
+    /**
+     * The job's row while it still holds this claim. Each claim increments
+     * attempts, so a run whose lock expired and whose job was re-claimed
+     * (even by this worker) no longer matches and can't touch the new run.
+     */
+    private QueryBuilder claimedBy(ClaimedJob job) throws SQLException {
+        return jobs().where("id", job.id).where("locked_by", workerId).where("attempts", job.attempt);
+    }
+
+    /**
+     * Hand claimed jobs that never started back to the queue, e.g. when the
+     * worker pool was shut down between claim and dispatch
+     */
+    private void release(List<ClaimedJob> jobs) {
+        for (ClaimedJob job : jobs) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("status", PENDING);
+            row.put("locked_by", null);
+            row.put("locked_until", null);
+            row.put("attempts", job.attempt - 1);
+            try {
+                claimedBy(job).update(row);
+            } catch (SQLException e) {
+                System.err.println("⚠️  Failed to release job " + job.id + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Exponential backoff with up to 20% jitter, so failed jobs of a burst
+     * don't all retry in the same instant
+     */
+    private static long backoff(Handler handler, int attempt) {
+        long delay = Math.min(MAX_BACKOFF_MS, handler.backoff << Math.min(attempt - 1, 20));
+        return delay + ThreadLocalRandom.current().nextLong(delay / 5 + 1);
+    }
+
+    /**
+     * Return jobs whose worker died (lock expired) to the queue. Jobs that
+     * already used up their attempts are marked failed instead, so a job that
+     * kills or hangs its worker can't be claimed forever.
+     */
+    private void recoverExpired() throws SQLException {
+        long now = System.currentTimeMillis();
+        if (now - lastRecoveryAt < Math.max(1000, lockTimeoutMillis / 4)) {
+            return;
+        }
+        lastRecoveryAt = now;
+        for (Handler handler : handlers.values()) {
+            Map<String, Object> dead = new LinkedHashMap<>();
+            dead.put("status", FAILED);
+            dead.put("locked_by", null);
+            dead.put("locked_until", null);
+            dead.put("last_error", "Lock expired on the last of " + handler.maxAttempts + " attempt(s)");
+            int failed = jobs().where("status", RUNNING).where("type", handler.type).where("locked_until", "<", now)
+                    .where("attempts", ">=", handler.maxAttempts).update(dead);
+            if (failed > 0) {
+                stats(handler.type).failed.add(failed);
+                System.err.println("❌ " + failed + " " + handler.type + " job(s) failed: lock expired after "
+                        + handler.maxAttempts + " attempt(s)");
+            }
+        }
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("status", PENDING);
+        row.put("locked_by", null);
+        row.put("locked_until", null);
+        int recovered = jobs().where("status", RUNNING).where("locked_until", "<", now).update(row);
+        if (recovered > 0) {
+            System.out.println("♻️  Re-queued " + recovered + " job(s) with expired locks");
+        }
+    }
+
+    private void await(long millis) {
+        synchronized (signal) {
+            if (!signalled && running) {
+                try {
+                    signal.wait(millis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            signalled = false;
+        }
+    }
+
+    private void wakeUp() {
+        synchronized (signal) {
+            signalled = true;
+            signal.notifyAll();
+        }
+    }
+
+    /**
+     * Jobs waiting to run (due or delayed), per type
+     */
+    public Map<String, Long> pending() {
+        Map<String, Long> pending = new LinkedHashMap<>();
+        try {
+            Database db = Database.getInstance();
+            if ("memory".equals(db.getDriver())) {
+                for (Map<String, Object> row : jobs().select("type").where("status", PENDING).get()) {
+                    pending.merge((String) row.get("type"), 1L, Long::sum);
+                }
+                return pending;
+            }
+            if (!tableReady) {
+                createTable(db);
+            }
+            for (Map<String, Object> row : db.execute("SELECT type, COUNT(*) AS pending FROM " + TABLE
+                    + " WHERE status = ? GROUP BY type ORDER BY type", PENDING)) {
+                pending.put((String) row.get("type"), ((Number) row.get("pending")).longValue());
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to count pending jobs: " + e.getMessage(), e);
+        }
+        return pending;
+    }
+
+    /**
+     * Snapshot of queue metrics: throughput, claim batching, and per-type
+     * wait (queue latency) and run times
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long completed = 0;
+        Map<String, Object> types = new LinkedHashMap<>();
+        for (Map.Entry<String, TypeStats> entry : typeStats.entrySet()) {
+            completed += entry.getValue().completed.sum();
+            types.put(entry.getKey(), entry.getValue().toMap());
+        }
+        long uptime = running ? System.currentTimeMillis() - startedAt : 0;
+        long queries = claimQueries.sum();
+        stats.put("workers", workerCount);
+        stats.put("active", active.get());
+        stats.put("claimQueries", queries);
+        stats.put("claimed", claimed.sum());
+        stats.put("avgClaimBatch", queries == 0 ? 0.0 : claimed.sum() / (double) queries);
+        stats.put("completedPerSecond", uptime > 0 ? completed * 1000.0 / uptime : 0.0);
+        stats.put("types", types);
+        return stats;
+    }
+
+    /**
+     * Stop claiming jobs and wait briefly for running ones; claimed jobs that
+     * never started are released right away, unfinished ones are re-queued
+     * by another worker once their lock expires
+     */
+    public synchronized void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        wakeUp();
+        workers.shutdown();
+        try {
+            workers.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("🛑 Job queue shutdown");
+    }
+
+    private QueryBuilder jobs() throws SQLException {
+        Database db = Database.getInstance();
+        if (!tableReady) {
+            createTable(db);
+        }
+        return db.table(TABLE);
+    }
+
+    private synchronized void createTable(Database db) {
+        if (tableReady) {
+            return;
+        }
+        String driver = db.getDriver();
+        if (!"memory".equals(driver)) {
+            String id;
+            if ("postgresql".equals(driver)) {
+                id = "id BIGSERIAL PRIMARY KEY";
+            } else if ("mysql".equals(driver)) {
+                id = "id BIGINT AUTO_INCREMENT PRIMARY KEY";
+            } else {
+                id = "id INTEGER PRIMARY KEY AUTOINCREMENT";
+            }
+            String columns = id + ", type VARCHAR(191) NOT NULL, payload TEXT, status VARCHAR(16) NOT NULL,"
+                    + " attempts INT NOT NULL DEFAULT 0, run_at BIGINT NOT NULL, locked_by VARCHAR(191),"
+                    + " locked_until BIGINT, last_error TEXT, created_at BIGINT NOT NULL";
+            if ("mysql".equals(driver)) {
+                // MySQL has no CREATE INDEX IF NOT EXISTS
+                db.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (" + columns
+                        + ", INDEX idx_artha_jobs_due (status, run_at))");
+            } else {
+                db.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (" + columns + ")");
+                db.execute("CREATE INDEX IF NOT EXISTS idx_artha_jobs_due ON " + TABLE + " (status, run_at)");
+            }
+        } else {
+            db.getMemoryDatabase().createIndex(TABLE, "status");
+        }
+        tableReady = true;
+    }
+
+    private TypeStats stats(String type) {
+        return typeStats.computeIfAbsent(type, t -> new TypeStats());
+    }
+
+    private static String toJson(Object payload) {
+        try {
+            return payload == null ? null : mapper.writeValueAsString(payload);
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Job payload is not JSON-serializable: " + e.getMessage(), e);
+        }
+    }
+
+    // Resolve reflection and the payload type once at registration
+    private static JobBody invoker(Object instance, Method method) {
+        method.setAccessible(true);
+        JavaType payloadType = method.getParameterCount() == 1
+                ? mapper.getTypeFactory().constructType(method.getGenericParameterTypes()[0])
+                : null;
+        return payloadJson -> {
+            try {
+                if (payloadType == null) {
+                    method.invoke(instance);
+                } else {
+                    Object payload = payloadJson == null ? null : mapper.readValue(payloadJson, payloadType);
+                    method.invoke(instance, payload);
+                }
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw e;
+            }
+        };
+    }
+
+    private static int positive(Integer value, int defaultValue) {
+        return value != null && value > 0 ? value : defaultValue;
+    }
+}
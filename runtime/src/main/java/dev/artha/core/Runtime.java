@@ -1,11 +1,22 @@
 package dev.artha.core;
 
+import dev.artha.annotations.RateLimit;
 import dev.artha.annotations.Step;
 import dev.artha.annotations.Valid;
+import dev.artha.http.AccessLog;
+import dev.artha.http.Broadcaster;
+import dev.artha.http.Compression;
+import dev.artha.http.PushConnection;
+import dev.artha.http.RateLimiter;
+import dev.artha.http.RequestCoalescer;
 import dev.artha.http.Request;
 import dev.artha.http.RequestImpl;
 import dev.artha.http.Response;
+import dev.artha.http.ResponseCache;
 import dev.artha.http.ResponseImpl;
+import dev.artha.http.StaticFiles;
+import dev.artha.http.HttpException;
+import dev.artha.http.Metrics;
 import dev.artha.db.Database;
 import io.javalin.Javalin;
 import org.reflections.Reflections;
@@ -14,6 +25,7 @@ import org.reflections.util.ClasspathHelper;
 import org.reflections.util.ConfigurationBuilder;
 import org.hibernate.validator.messageinterpolation.ParameterMessageInterpolator;
 
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Map;
 import java.util.Set;
@@ -22,6 +34,7 @@ import java.util.List;
 import java.util.ArrayList;
 import java.sql.Connection;
 import java.io.File;
+import java.nio.charset.StandardCharsets;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Validation;
 import jakarta.validation.Validator;
@@ -37,6 +50,9 @@ public class Runtime {
 
     // Exception handler registry: Exception class -> Handler info
     private static final Map<Class<? extends Exception>, ExceptionHandlerInfo> exceptionHandlers = new HashMap<>();
+    // ObjectMapper is thread-safe once configured; one instance for all request bodies
+    private static final ObjectMapper bodyMapper = new ObjectMapper();
+    private static final Map<Method, RateLimiter> rateLimiters = new java.util.concurrent.ConcurrentHashMap<>();
 
     private static class ExceptionHandlerInfo {
         Class<?> controllerClass;
@@ -100,6 +116,11 @@ public class Runtime {
             }
         }
 
+        // Spans are exported in the background; off unless artha.json has "tracing"
+        if (Tracer.getInstance().isEnabled()) {
+            System.out.println("🔭 Tracing enabled: " + Tracer.getInstance().stats());
+        }
+
         // Get port from CLI -Dartha.port or default 8080
         int port = Integer.parseInt(System.getProperty("artha.port", "8080"));
         System.out.println("ℹ️  Using port: " + port + "\n");
@@ -109,6 +130,18 @@ public class Runtime {
             // Configure Jackson as the default JSON mapper
             config.jsonMapper(new io.javalin.json.JavalinJackson());
 
+            // gzip per artha.json "compression" (threshold, types, level)
+            if (Compression.getInstance().isEnabled()) {
+                config.http.customCompression(Compression.getInstance().strategy());
+            } else {
+                config.http.disableCompression();
+            }
+
+            // Access log lines are queued by Jetty's request log hook and written off-thread
+            if (AccessLog.getInstance().isEnabled()) {
+                config.jetty.modifyServer(server -> server.setRequestLog(AccessLog.getInstance()));
+            }
+
             config.bundledPlugins.enableCors(cors -> {
                 cors.addRule(it -> {
                     it.anyHost();
@@ -154,6 +187,34 @@ public class Runtime {
             }
         }
 
+        // Scan @Sse and @WebSocket push endpoints
+        Set<Method> sseMethods = reflections.getMethodsAnnotatedWith(dev.artha.annotations.Sse.class);
+        Set<Method> webSocketMethods = reflections.getMethodsAnnotatedWith(dev.artha.annotations.WebSocket.class);
+        if (!sseMethods.isEmpty() || !webSocketMethods.isEmpty()) {
+            System.out.println("\n📡 Registering push endpoints...\n");
+            for (Method method : sseMethods) {
+                registerPushEndpoint(app, method, true);
+            }
+            for (Method method : webSocketMethods) {
+                registerPushEndpoint(app, method, false);
+            }
+        }
+
+        // Prometheus endpoint (not itself timed)
+        if (Metrics.getInstance().isEnabled()) {
+            System.out.println("\n📈 Serving metrics...\n");
+            Metrics.getInstance().register(app);
+        }
+
+        // Static file mounts go last so routes take precedence
+        List<StaticFiles> staticMounts = StaticFiles.fromConfig();
+        if (!staticMounts.isEmpty()) {
+            System.out.println("\n📁 Serving static files...\n");
+            for (StaticFiles mount : staticMounts) {
+                mount.register(app);
+            }
+        }
+
         // Scan and register @ExceptionHandler methods
         Set<Method> exceptionHandlerMethods = reflections
                 .getMethodsAnnotatedWith(dev.artha.annotations.ExceptionHandler.class);
@@ -175,6 +236,19 @@ public class Runtime {
             System.out.println();
         }
 
+        // Scan @JobHandler methods and start the job workers
+        Set<Method> jobHandlerMethods = reflections.getMethodsAnnotatedWith(dev.artha.annotations.JobHandler.class);
+        if (!jobHandlerMethods.isEmpty()) {
+            System.out.println("📨 Registering job handlers...\n");
+            for (Method method : jobHandlerMethods) {
+                Object instance = DIContainer.getInstance().get(method.getDeclaringClass());
+                JobQueue.getInstance().register(instance, method,
+                        method.getAnnotation(dev.artha.annotations.JobHandler.class));
+            }
+            JobQueue.getInstance().start();
+            System.out.println();
+        }
+
         app.start(port);
 
         System.out.println("\n✓ Server started at http://localhost:" + port + "\n");
@@ -261,6 +335,61 @@ public class Runtime {
         }
     }
 
+    /**
+     * SSE or WebSocket endpoint: the method runs once per connection with the
+     * PushConnection as its only argument
+     */
+    private static void registerPushEndpoint(Javalin app, Method method, boolean sse) {
+        Class<?> clazz = method.getDeclaringClass();
+        for (Class<?> type : method.getParameterTypes()) {
+            if (!PushConnection.class.isAssignableFrom(type)) {
+                System.err.println("❌ " + clazz.getSimpleName() + "." + method.getName()
+                        + "() can only take a PushConnection parameter");
+                return;
+            }
+        }
+        String classPath = clazz.isAnnotationPresent(Step.class) ? clazz.getAnnotation(Step.class).path() : "";
+        String methodPath = sse ? method.getAnnotation(dev.artha.annotations.Sse.class).path()
+                : method.getAnnotation(dev.artha.annotations.WebSocket.class).path();
+        String fullPath = combinePaths(classPath, methodPath);
+        method.setAccessible(true);
+
+        if (sse) {
+            app.sse(fullPath, client -> {
+                PushConnection connection = Broadcaster.getInstance().open(client);
+                client.onClose(connection::close);
+                client.keepAlive();
+                connect(clazz, method, connection);
+            });
+        } else {
+            app.ws(fullPath, ws -> {
+                ws.onConnect(ctx -> {
+                    ctx.enableAutomaticPings();
+                    connect(clazz, method, Broadcaster.getInstance().open(ctx));
+                });
+                ws.onMessage(ctx -> Broadcaster.getInstance().received(ctx, ctx.message()));
+                ws.onClose(ctx -> Broadcaster.getInstance().closed(ctx));
+                ws.onError(ctx -> Broadcaster.getInstance().closed(ctx));
+            });
+        }
+        System.out.println("  " + (sse ? "SSE" : "WS") + "  " + fullPath + " → " + clazz.getSimpleName() + "."
+                + method.getName() + "()");
+    }
+
+    private static void connect(Class<?> clazz, Method method, PushConnection connection) {
+        try {
+            Object instance = DIContainer.getInstance().get(clazz);
+            Object[] args = new Object[method.getParameterCount()];
+            java.util.Arrays.fill(args, connection);
+            method.invoke(instance, args);
+        } catch (Exception e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            System.err.println("⚠️  " + method.getName() + "() failed for connection " + connection.id() + ": "
+                    + cause.getMessage());
+            connection.close();
+        }
+    }
+
     private static String combinePaths(String classPath, String methodPath) {
         if (classPath == null || classPath.isEmpty()) {
             return methodPath;
@@ -279,7 +408,29 @@ public class Runtime {
         return classPath + methodPath;
     }
 
-    private static void registerHandler(Javalin app, String method, String path, io.javalin.http.Handler handler) {
+    private static void registerHandler(Javalin app, String method, String path, io.javalin.http.Handler route) {
+        io.javalin.http.Handler handler = route;
+        if (Metrics.getInstance().isEnabled()) {
+            // Per-route latency, resolved once here rather than per request
+            Metrics.RouteMetrics metrics = Metrics.getInstance().route(method, path);
+            io.javalin.http.Handler timed = handler;
+            handler = ctx -> {
+                long start = System.nanoTime();
+                try {
+                    timed.handle(ctx);
+                } finally {
+                    metrics.record(ctx.statusCode(), System.nanoTime() - start);
+                }
+            };
+        }
+        if (AccessLog.getInstance().isEnabled()) {
+            // Route template for the access log line
+            io.javalin.http.Handler logged = handler;
+            handler = ctx -> {
+                ctx.req().setAttribute(AccessLog.ROUTE, path);
+                logged.handle(ctx);
+            };
+        }
         switch (method) {
             case "GET":
                 app.get(path, handler);
@@ -415,26 +566,63 @@ public class Runtime {
         }
     }
 
+    /**
+     * Run a route the way its Javalin handler does (rate limit, middleware,
+     * handler, error handling) on the given Context. Lets the allocation
+     * budget suite drive dispatch in-process without a server.
+     */
+    public static void dispatch(io.javalin.http.Context ctx, Class<?> clazz, Method method) {
+        handleRequest(ctx, clazz, method);
+    }
+
     private static void handleRequest(io.javalin.http.Context ctx, Class<?> clazz, Method method) {
+        RequestImpl req = RequestImpl.of(ctx);
+        Span span = Tracer.server(ctx);
+        JfrEvents.Dispatch event = JfrEvents.dispatch();
         try {
             // Use DI container for instance creation (supports @Inject)
             Object instance = DIContainer.getInstance().get(clazz);
 
-            Request req = new RequestImpl(ctx);
-            Response res = new ResponseImpl(ctx);
+            Response res = ResponseImpl.of(ctx);
+
+            // 0. @RateLimit runs first so rejected requests cost as little as possible
+            RateLimiter limiter = rateLimiter(clazz, method);
+            boolean perUser = limiter != null && limiter.key() == RateLimit.Key.USER;
+            if (limiter != null && !perUser) {
+                limiter.apply(req, res);
+            }
 
             // 1. Execute Class-level @Before
-            if (clazz.isAnnotationPresent(dev.artha.annotations.Before.class)) {
+            if (!res.isHalted() && clazz.isAnnotationPresent(dev.artha.annotations.Before.class)) {
                 executeMiddleware(clazz.getAnnotation(dev.artha.annotations.Before.class).value(), req, res);
             }
 
             // 2. Execute Method-level @Before
-            if (method.isAnnotationPresent(dev.artha.annotations.Before.class)) {
+            if (!res.isHalted() && method.isAnnotationPresent(dev.artha.annotations.Before.class)) {
                 executeMiddleware(method.getAnnotation(dev.artha.annotations.Before.class).value(), req, res);
             }
 
-            // 3. Invoke Handler
-            invokeAndRespond(ctx, instance, method, req, res);
+            // Per-user limits need the principal verified by the auth middleware above
+            if (!res.isHalted() && perUser) {
+                limiter.apply(req, res);
+            }
+
+            if (res.isHalted()) {
+                return;
+            }
+
+            // 3. Invoke Handler (or answer from the response cache)
+            dev.artha.annotations.Cacheable cacheable = cacheableGet(ctx, method);
+            if (cacheable == null || !ResponseCache.getInstance().serve(ctx, cacheable)) {
+                dev.artha.annotations.Coalesce coalesce = method.getAnnotation(dev.artha.annotations.Coalesce.class);
+                if (coalesce != null && ctx.method() == io.javalin.http.HandlerType.GET) {
+                    // Identical concurrent GETs share one execution
+                    RequestCoalescer.getInstance().execute(ctx, coalesce,
+                            () -> invokeAndRespond(ctx, instance, method, req, res));
+                } else {
+                    invokeAndRespond(ctx, instance, method, req, res);
+                }
+            }
 
             // 4. Execute Method-level @After
             if (method.isAnnotationPresent(dev.artha.annotations.After.class)) {
@@ -447,7 +635,15 @@ public class Runtime {
             }
 
         } catch (Exception e) {
+            span.error(e);
             handleError(ctx, e);
+        } finally {
+            // Upload temp files don't outlive the request
+            req.close();
+            span.attribute("http.status_code", ctx.statusCode()).close();
+            if (event != null) {
+                event.record(ctx.method().name(), ctx.endpointHandlerPath(), ctx.statusCode());
+            }
         }
     }
 
@@ -456,8 +652,35 @@ public class Runtime {
         for (Class<? extends dev.artha.http.Middleware> middlewareClass : middlewares) {
             // Use DI container to get middleware instance
             dev.artha.http.Middleware middleware = DIContainer.getInstance().get(middlewareClass);
-            middleware.apply(req, res);
+            Span span = Tracer.span("middleware", middlewareClass.getSimpleName());
+            try {
+                middleware.apply(req, res);
+            } catch (Exception e) {
+                span.error(e);
+                throw e;
+            } finally {
+                span.close();
+            }
+            if (res.isHalted()) {
+                return;
+            }
+        }
+    }
+
+    private static RateLimiter rateLimiter(Class<?> clazz, Method method) {
+        RateLimiter limiter = rateLimiters.get(method);
+        if (limiter != null) {
+            return limiter;
+        }
+        RateLimit limit = method.getAnnotation(RateLimit.class);
+        if (limit == null) {
+            limit = clazz.getAnnotation(RateLimit.class);
+        }
+        if (limit == null) {
+            return null;
         }
+        RateLimit annotation = limit;
+        return rateLimiters.computeIfAbsent(method, m -> RateLimiter.of(annotation));
     }
 
     private static void invokeAndRespond(io.javalin.http.Context ctx, Object instance, Method method, Request req,
@@ -469,86 +692,108 @@ public class Runtime {
         java.lang.reflect.Parameter[] params = method.getParameters();
         Object[] args = new Object[params.length];
 
-        for (int i = 0; i < params.length; i++) {
-            java.lang.reflect.Parameter param = params[i];
-            Class<?> type = param.getType();
-
-            // 1. Check for @Body annotation (explicit body parsing)
-            if (param.isAnnotationPresent(dev.artha.annotations.Body.class)) {
-                args[i] = parseBodyParam(ctx, param, type);
-            }
-            // 2. Check for @Query annotation (query parameters)
-            else if (param.isAnnotationPresent(dev.artha.annotations.Query.class)) {
-                args[i] = parseQueryParam(ctx, param);
-            }
-            // 3. Check for @PathParam annotation (explicit path param)
-            else if (param.isAnnotationPresent(dev.artha.annotations.PathParam.class)) {
-                args[i] = parsePathParamExplicit(ctx, param);
-            }
-            // 4. Legacy: Request/Response injection
-            else if (type == Request.class) {
-                args[i] = req;
-            } else if (type == Response.class) {
-                args[i] = res;
-            } else if (type == Connection.class) {
-                // Inject database connection
-                if (Database.getInstance().isInitialized()) {
-                    injectedConnection = Database.getInstance().getConnection();
-                    args[i] = injectedConnection;
-                } else {
-                    throw new IllegalStateException("Database not configured! Add database section to artha.json");
-                }
-            }
-            // 5. Auto path param extraction (v2.0 new feature!)
-            else if (isPrimitiveOrWrapper(type) || type == String.class) {
-                // Try to extract from path parameter by parameter name
-                String paramName = param.getName();
-                String pathValue = ctx.pathParam(paramName);
+        Span bindSpan = Tracer.span("bind");
+        JfrEvents.Bind bindEvent = JfrEvents.bind();
+        try {
+            for (int i = 0; i < params.length; i++) {
+                java.lang.reflect.Parameter param = params[i];
+                Class<?> type = param.getType();
 
-                if (pathValue != null) {
-                    args[i] = convertType(pathValue, type);
-                } else {
-                    // If not in path, try query param as fallback
-                    String queryValue = ctx.queryParam(paramName);
-                    if (queryValue != null) {
-                        args[i] = convertType(queryValue, type);
+                // 1. Check for @Body annotation (explicit body parsing)
+                if (param.isAnnotationPresent(dev.artha.annotations.Body.class)) {
+                    args[i] = parseBodyParam(ctx, param, type);
+                }
+                // 2. Check for @Query annotation (query parameters)
+                else if (param.isAnnotationPresent(dev.artha.annotations.Query.class)) {
+                    args[i] = parseQueryParam(ctx, param);
+                }
+                // 3. Check for @PathParam annotation (explicit path param)
+                else if (param.isAnnotationPresent(dev.artha.annotations.PathParam.class)) {
+                    args[i] = parsePathParamExplicit(ctx, param);
+                }
+                // 4. Legacy: Request/Response injection
+                else if (type == Request.class) {
+                    args[i] = req;
+                } else if (type == Response.class) {
+                    args[i] = res;
+                } else if (type == Connection.class) {
+                    // Inject database connection
+                    if (Database.getInstance().isInitialized()) {
+                        injectedConnection = Database.getInstance().getConnection();
+                        args[i] = injectedConnection;
                     } else {
-                        args[i] = getDefaultValue(type);
+                        throw new IllegalStateException("Database not configured! Add database section to artha.json");
                     }
                 }
-            }
-            // 6. Complex type without @Body? Try to parse from body (backward
-            // compatibility)
-            else {
-                try {
-                    String body = ctx.body();
-                    if (body != null && !body.trim().isEmpty()) {
-                        ObjectMapper mapper = new ObjectMapper();
-                        Object pojo = mapper.readValue(body, type);
-
-                        // Validate if @Valid annotation is present
-                        if (param.isAnnotationPresent(Valid.class)) {
-                            @SuppressWarnings("unchecked")
-                            Set<ConstraintViolation<Object>> violations = validator.validate(pojo);
-                            if (!violations.isEmpty()) {
-                                throw new RequestValidationException(violations);
+                // 5. Auto path param extraction (v2.0 new feature!)
+                else if (isPrimitiveOrWrapper(type) || type == String.class) {
+                    // Try to extract from path parameter by parameter name
+                    String paramName = param.getName();
+                    String pathValue = ctx.pathParam(paramName);
+
+                    if (pathValue != null) {
+                        args[i] = convertType(pathValue, type);
+                    } else {
+                        // If not in path, try query param as fallback
+                        String queryValue = ctx.queryParam(paramName);
+                        if (queryValue != null) {
+                            args[i] = convertType(queryValue, type);
+                        } else {
+                            args[i] = getDefaultValue(type);
+                        }
+                    }
+                }
+                // 6. Complex type without @Body? Try to parse from body (backward
+                // compatibility)
+                else {
+                    try {
+                        String body = ctx.body();
+                        if (body != null && !body.trim().isEmpty()) {
+                            Object pojo = bodyMapper.readValue(body, type);
+
+                            // Validate if @Valid annotation is present
+                            if (param.isAnnotationPresent(Valid.class)) {
+                                @SuppressWarnings("unchecked")
+                                Set<ConstraintViolation<Object>> violations = validator.validate(pojo);
+                                if (!violations.isEmpty()) {
+                                    throw new RequestValidationException(violations);
+                                }
                             }
+                            args[i] = pojo;
+                        } else {
+                            args[i] = null;
                         }
-                        args[i] = pojo;
-                    } else {
-                        args[i] = null;
+                    } catch (RequestValidationException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new IllegalArgumentException("Invalid request body: " + e.getMessage());
                     }
-                } catch (RequestValidationException e) {
-                    throw e;
-                } catch (Exception e) {
-                    throw new IllegalArgumentException("Invalid request body: " + e.getMessage());
                 }
             }
+        } catch (Exception e) {
+            bindSpan.error(e);
+            // The handler never runs, so the finally below that closes it doesn't either
+            if (injectedConnection != null) {
+                try {
+                    injectedConnection.close();
+                } catch (Exception closeError) {
+                    System.err.println("Warning: Failed to close database connection: " + closeError.getMessage());
+                }
+            }
+            throw e;
+        } finally {
+            bindSpan.close();
+            if (bindEvent != null) {
+                bindEvent.record(method.getDeclaringClass().getSimpleName() + "." + method.getName(), params.length);
+            }
         }
 
         try {
             method.setAccessible(true);
-            Object result = method.invoke(instance, args);
+            // Headers set before the handler (CORS, middleware) aren't part of a cached response
+            dev.artha.annotations.Cacheable cacheable = cacheableGet(ctx, method);
+            Set<String> inherited = cacheable != null ? ResponseCache.headerNames(ctx) : null;
+            Object result = invokeTraced(instance, method, args);
 
             // Check for @Status annotation (v2.0)
             if (method.isAnnotationPresent(dev.artha.annotations.Status.class)) {
@@ -556,6 +801,19 @@ public class Runtime {
                 ctx.status(status);
             }
 
+            // Cache the serialized bytes of successful @Cacheable GETs
+            if (result != null && cacheable != null && ctx.status().getCode() == 200) {
+                if (result instanceof String) {
+                    ResponseCache.getInstance().store(ctx, cacheable,
+                            ((String) result).getBytes(StandardCharsets.UTF_8), "text/plain; charset=utf-8", inherited);
+                } else {
+                    String json = ctx.jsonMapper().toJsonString(result, result.getClass());
+                    ResponseCache.getInstance().store(ctx, cacheable, json.getBytes(StandardCharsets.UTF_8),
+                            "application/json", inherited);
+                }
+                return;
+            }
+
             // Auto-serialize if not already handled
             if (result != null) {
                 if (result instanceof String) {
@@ -576,6 +834,22 @@ public class Runtime {
         }
     }
 
+    private static Object invokeTraced(Object instance, Method method, Object[] args) throws Exception {
+        try (Span span = Tracer.span("handler", method.getName())) {
+            try {
+                return method.invoke(instance, args);
+            } catch (InvocationTargetException e) {
+                span.error(e.getCause() != null ? e.getCause() : e);
+                throw e;
+            }
+        }
+    }
+
+    private static dev.artha.annotations.Cacheable cacheableGet(io.javalin.http.Context ctx, Method method) {
+        dev.artha.annotations.Cacheable cacheable = method.getAnnotation(dev.artha.annotations.Cacheable.class);
+        return cacheable != null && ctx.method() == io.javalin.http.HandlerType.GET ? cacheable : null;
+    }
+
     // Helper: Parse @Body parameter
     private static Object parseBodyParam(io.javalin.http.Context ctx, java.lang.reflect.Parameter param, Class<?> type)
             throws Exception {
@@ -584,8 +858,7 @@ public class Runtime {
             throw new IllegalArgumentException("Request body is required");
         }
 
-        ObjectMapper mapper = new ObjectMapper();
-        Object pojo = mapper.readValue(body, type);
+        Object pojo = bodyMapper.readValue(body, type);
 
         // Validate if @Valid is present
         if (param.isAnnotationPresent(Valid.class)) {
@@ -706,8 +979,8 @@ public class Runtime {
             try {
                 // Invoke the exception handler
                 Object controllerInstance = DIContainer.getInstance().get(handler.controllerClass);
-                Request req = new RequestImpl(ctx);
-                Response res = new ResponseImpl(ctx);
+                Request req = RequestImpl.of(ctx);
+                Response res = ResponseImpl.of(ctx);
 
                 handler.handlerMethod.setAccessible(true);
                 Object result = handler.handlerMethod.invoke(controllerInstance, actualException, req, res);
@@ -747,6 +1020,9 @@ public class Runtime {
             errorResponse.put("violations", violations);
 
             ctx.status(400).json(errorResponse);
+        } else if (actualException instanceof HttpException) {
+            errorResponse.put("message", actualException.getMessage());
+            ctx.status(((HttpException) actualException).getStatus()).json(errorResponse);
         } else {
             // Handle other errors
             errorResponse.put("message",
@@ -788,7 +1064,6 @@ public class Runtime {
 
     private static void registerScheduledTask(Method method) {
         dev.artha.annotations.Scheduled annotation = method.getAnnotation(dev.artha.annotations.Scheduled.class);
-        long fixedRate = annotation.fixedRate();
         Class<?> clazz = method.getDeclaringClass();
 
         // Validate method signature
@@ -804,8 +1079,8 @@ public class Runtime {
         // Get instance via DI container
         Object instance = DIContainer.getInstance().get(clazz);
 
-        // Schedule the task
-        TaskScheduler.getInstance().scheduleFixedRate(instance, method, fixedRate);
+        // Schedule the task (fixedRate, fixedDelay or cron)
+        TaskScheduler.getInstance().schedule(instance, method, annotation);
     }
 
     private static Map<String, Object> loadConfig() {
@@ -0,0 +1,126 @@
+package dev.artha.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A timed operation in a trace. Open with Tracer and close with
+ * try-with-resources; closing ends the span, makes its parent current again
+ * and queues it for export.
+ *
+ * Unsampled work gets Span.NOOP, whose methods do nothing, so instrumented
+ * code costs a thread-local read when tracing is off.
+ */
+public class Span implements AutoCloseable {
+    public static final Span NOOP = new Span();
+
+    public enum Kind {
+        INTERNAL, SERVER, CLIENT
+    }
+
+    final long traceIdHigh;
+    final long traceIdLow;
+    final long spanId;
+    final long parentSpanId; // 0 for a root span
+    final String name;
+    final Kind kind;
+    final long startNanos;
+    long endNanos;
+    List<Object> attributes; // key, value, key, value...
+    String error;
+    final Span previous; // current span when this one was opened
+
+    private final Tracer tracer;
+    private boolean closed;
+
+    private Span() {
+        this(null, null, 0, 0, 0, 0, null, Kind.INTERNAL);
+    }
+
+    Span(Tracer tracer, Span previous, long traceIdHigh, long traceIdLow, long spanId, long parentSpanId,
+            String name, Kind kind) {
+        this.tracer = tracer;
+        this.previous = previous;
+        this.traceIdHigh = traceIdHigh;
+        this.traceIdLow = traceIdLow;
+        this.spanId = spanId;
+        this.parentSpanId = parentSpanId;
+        this.name = name;
+        this.kind = kind;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Whether this span is sampled (false for NOOP)
+     */
+    public boolean isRecording() {
+        return this != NOOP;
+    }
+
+    public Span attribute(String key, String value) {
+        if (this != NOOP && value != null) {
+            put(key, value);
+        }
+        return this;
+    }
+
+    public Span attribute(String key, long value) {
+        if (this != NOOP) {
+            put(key, value);
+        }
+        return this;
+    }
+
+    /**
+     * Mark the span as failed
+     */
+    public Span error(Throwable e) {
+        if (this != NOOP) {
+            error = e.getClass().getSimpleName() + (e.getMessage() != null ? ": " + e.getMessage() : "");
+        }
+        return this;
+    }
+
+    /**
+     * W3C traceparent header value for calls made within this span, or null
+     * when not sampled
+     */
+    public String traceparent() {
+        if (this == NOOP) {
+            return null;
+        }
+        return "00-" + traceId() + "-" + hex(spanId) + "-01";
+    }
+
+    public String traceId() {
+        return this == NOOP ? null : hex(traceIdHigh) + hex(traceIdLow);
+    }
+
+    @Override
+    public void close() {
+        if (this == NOOP || closed) {
+            return;
+        }
+        closed = true;
+        endNanos = System.nanoTime();
+        tracer.ended(this);
+    }
+
+    // Child in the same trace, made current on this thread
+    Span child(String childName, Kind childKind) {
+        return tracer.open(traceIdHigh, traceIdLow, spanId, childName, childKind);
+    }
+
+    private void put(String key, Object value) {
+        if (attributes == null) {
+            attributes = new ArrayList<>(8);
+        }
+        attributes.add(key);
+        attributes.add(value);
+    }
+
+    static String hex(long value) {
+        String digits = Long.toHexString(value);
+        return digits.length() == 16 ? digits : "0000000000000000".substring(digits.length()) + digits;
+    }
+}
@@ -0,0 +1,280 @@
+package dev.artha.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ships ended spans off the request path.
+ *
+ * Spans go into a bounded queue (dropped and counted when full) drained by
+ * one daemon thread, which writes them in batches either as JSON lines to a
+ * file or as OTLP/HTTP JSON to a collector.
+ */
+abstract class SpanExporter {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // Converts System.nanoTime() readings to wall-clock nanoseconds
+    private static final long EPOCH_OFFSET_NANOS = System.currentTimeMillis() * 1_000_000L - System.nanoTime();
+
+    private final BlockingQueue<Span> queue;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    private final LongAdder exported = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    SpanExporter(int queueSize, int batchSize, long flushIntervalMillis) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(16, queueSize));
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMillis = Math.max(10, flushIntervalMillis);
+        this.worker = new Thread(this::drain, "artha-trace-export");
+        this.worker.setDaemon(true);
+        this.worker.start();
+        java.lang.Runtime.getRuntime().addShutdownHook(new Thread(this::close, "artha-trace-flush"));
+    }
+
+    static SpanExporter fromConfig(ConfigManager config) {
+        String type = config.getString("tracing.exporter");
+        Integer queueSize = config.getInt("tracing.queueSize");
+        Integer batchSize = config.getInt("tracing.batchSize");
+        Integer flushMs = config.getInt("tracing.flushIntervalMs");
+        int queue = queueSize != null ? queueSize : 2048;
+        int batch = batchSize != null ? batchSize : 256;
+        long flush = flushMs != null ? flushMs : 1000;
+
+        if ("otlp".equalsIgnoreCase(type)) {
+            String endpoint = config.getString("tracing.endpoint");
+            String service = config.getString("tracing.serviceName");
+            return new Otlp(endpoint != null ? endpoint : "http://localhost:4318/v1/traces",
+                    service != null ? service : "artha", queue, batch, flush);
+        }
+        String file = config.getString("tracing.file");
+        return new JsonLines(Paths.get(file != null ? file : "logs/traces.jsonl"), queue, batch, flush);
+    }
+
+    void offer(Span span) {
+        if (!running || !queue.offer(span)) {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Write one batch; throwing counts the whole batch as failed
+     */
+    abstract void export(List<Span> batch) throws IOException, InterruptedException;
+
+    abstract String describe();
+
+    private void drain() {
+        List<Span> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Span first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                // NOOP is close()'s wake-up marker, not a span
+                batch.removeIf(span -> span == Span.NOOP);
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (InterruptedException e) {
+                // Keep draining until close() has stopped us
+            }
+        }
+    }
+
+    private void flush(List<Span> batch) {
+        try {
+            export(batch);
+            exported.add(batch.size());
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            // Log the first failure and then every thousandth span lost
+            long before = failed.sum();
+            failed.add(batch.size());
+            if (before == 0 || before / 1000 != failed.sum() / 1000) {
+                System.err.println("⚠️  Trace export to " + describe() + " failed: " + e.getMessage());
+            }
+        }
+        batch.clear();
+    }
+
+    void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        // Wake a worker waiting in poll() without interrupting a send in
+        // progress; if the queue is full it isn't waiting anyway
+        queue.offer(Span.NOOP);
+        try {
+            worker.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("exporter", describe());
+        stats.put("queued", queue.size());
+        stats.put("exported", exported.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    static long epochNanos(long nanoTime) {
+        return EPOCH_OFFSET_NANOS + nanoTime;
+    }
+
+    static String spanId(long id) {
+        return id == 0 ? null : Span.hex(id);
+    }
+
+    /**
+     * One JSON object per span, appended to a local file
+     */
+    static final class JsonLines extends SpanExporter {
+        private final Path file;
+
+        JsonLines(Path file, int queueSize, int batchSize, long flushIntervalMillis) {
+            super(queueSize, batchSize, flushIntervalMillis);
+            this.file = file;
+        }
+
+        @Override
+        void export(List<Span> batch) throws IOException {
+            StringBuilder out = new StringBuilder(batch.size() * 256);
+            for (Span span : batch) {
+                Map<String, Object> line = new LinkedHashMap<>();
+                line.put("traceId", span.traceId());
+                line.put("spanId", Span.hex(span.spanId));
+                line.put("parentSpanId", spanId(span.parentSpanId));
+                line.put("name", span.name);
+                line.put("kind", span.kind.name().toLowerCase());
+                line.put("start", epochNanos(span.startNanos));
+                line.put("durationUs", (span.endNanos - span.startNanos) / 1000);
+                if (span.attributes != null) {
+                    Map<String, Object> attributes = new LinkedHashMap<>();
+                    for (int i = 0; i < span.attributes.size(); i += 2) {
+                        attributes.put((String) span.attributes.get(i), span.attributes.get(i + 1));
+                    }
+                    line.put("attributes", attributes);
+                }
+                if (span.error != null) {
+                    line.put("error", span.error);
+                }
+                out.append(mapper.writeValueAsString(line)).append('\n');
+            }
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.write(file, out.toString().getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+
+        @Override
+        String describe() {
+            return "file:" + file;
+        }
+    }
+
+    /**
+     * OTLP/HTTP with the JSON encoding, as accepted by the OpenTelemetry
+     * Collector's otlp receiver on port 4318
+     */
+    static final class Otlp extends SpanExporter {
+        private final URI endpoint;
+        private final Map<String, Object> resource;
+        private final HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+
+        Otlp(String endpoint, String serviceName, int queueSize, int batchSize, long flushIntervalMillis) {
+            super(queueSize, batchSize, flushIntervalMillis);
+            this.endpoint = URI.create(endpoint);
+            this.resource = Map.of("attributes", List.of(attribute("service.name", serviceName)));
+        }
+
+        @Override
+        void export(List<Span> batch) throws IOException, InterruptedException {
+            List<Object> spans = new ArrayList<>(batch.size());
+            for (Span span : batch) {
+                Map<String, Object> otlp = new LinkedHashMap<>();
+                otlp.put("traceId", span.traceId());
+                otlp.put("spanId", Span.hex(span.spanId));
+                String parent = spanId(span.parentSpanId);
+                if (parent != null) {
+                    otlp.put("parentSpanId", parent);
+                }
+                otlp.put("name", span.name);
+                otlp.put("kind", span.kind == Span.Kind.SERVER ? 2 : span.kind == Span.Kind.CLIENT ? 3 : 1);
+                // 64-bit nanos are strings in OTLP/JSON
+                otlp.put("startTimeUnixNano", Long.toString(epochNanos(span.startNanos)));
+                otlp.put("endTimeUnixNano", Long.toString(epochNanos(span.endNanos)));
+                if (span.attributes != null) {
+                    List<Object> attributes = new ArrayList<>(span.attributes.size() / 2);
+                    for (int i = 0; i < span.attributes.size(); i += 2) {
+                        attributes.add(attribute((String) span.attributes.get(i), span.attributes.get(i + 1)));
+                    }
+                    otlp.put("attributes", attributes);
+                }
+                if (span.error != null) {
+                    otlp.put("status", Map.of("code", 2, "message", span.error));
+                }
+                spans.add(otlp);
+            }
+
+            Map<String, Object> scope = Map.of("scope", Map.of("name", "dev.artha"), "spans", spans);
+            Map<String, Object> body = Map.of("resourceSpans",
+                    List.of(Map.of("resource", resource, "scopeSpans", List.of(scope))));
+
+            HttpRequest request = HttpRequest.newBuilder(endpoint)
+                    .timeout(Duration.ofSeconds(10))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body)))
+                    .build();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 300) {
+                throw new IOException("HTTP " + response.statusCode());
+            }
+        }
+
+        private static Map<String, Object> attribute(String key, Object value) {
+            Map<String, Object> typed = value instanceof Long
+                    ? Map.of("intValue", value.toString())
+                    : Map.of("stringValue", String.valueOf(value));
+            return Map.of("key", key, "value", typed);
+        }
+
+        @Override
+        String describe() {
+            return endpoint.toString();
+        }
+    }
+}
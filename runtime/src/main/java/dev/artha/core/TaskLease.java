@@ -0,0 +1,153 @@
+package dev.artha.core;
+
+import dev.artha.db.Database;
+import dev.artha.db.QueryBuilder;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database lease that lets only one node run an exclusive @Scheduled task.
+ *
+ * A row in artha_leases names the current owner and when its lease
+ * expires. A node runs the task only if it already owns the row or the
+ * previous owner's lease has expired; both are single conditional UPDATEs,
+ * so exactly one node wins. While the task runs the lease is renewed every
+ * third of its duration; if the owner dies, another node takes over once it
+ * expires. On completion the lease is kept until the given time so nodes
+ * whose trigger fires a little later (clock skew, jitter) don't run the
+ * same occurrence again. Node clocks are assumed to be roughly in sync.
+ */
+final class TaskLease {
+    static final String TABLE = "artha_leases";
+    static final String NODE_ID = ManagementFactory.getRuntimeMXBean().getName() + "-"
+            + Long.toHexString(System.nanoTime());
+
+    private static ScheduledExecutorService renewer;
+    private static volatile boolean tableReady;
+
+    private final String name;
+    private final long leaseMillis;
+    private final String owner;
+    private volatile ScheduledFuture<?> renewal;
+    private volatile boolean lost;
+
+    TaskLease(String name, long leaseMillis, String owner) {
+        this.name = name;
+        this.leaseMillis = leaseMillis;
+        this.owner = owner;
+    }
+
+    /**
+     * Take or extend the lease and keep renewing it until release()
+     *
+     * @return false if another node holds it
+     */
+    boolean acquire() throws SQLException {
+        long now = System.currentTimeMillis();
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("owner", owner);
+        row.put("expires_at", now + leaseMillis);
+
+        boolean acquired = leases().where("name", name).where("owner", owner).update(row) == 1
+                || leases().where("name", name).where("expires_at", "<", now).update(row) == 1
+                || insert(row);
+        if (acquired) {
+            lost = false;
+            long period = Math.max(1, leaseMillis / 3);
+            renewal = renewer().scheduleWithFixedDelay(this::renew, period, period, TimeUnit.MILLISECONDS);
+        }
+        return acquired;
+    }
+
+    /**
+     * Stop renewing; other nodes may take over after holdUntil
+     */
+    void release(long holdUntil) {
+        ScheduledFuture<?> current = renewal;
+        if (current != null) {
+            current.cancel(false);
+        }
+        if (lost) {
+            return;
+        }
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("expires_at", Math.max(System.currentTimeMillis(), holdUntil));
+        try {
+            leases().where("name", name).where("owner", owner).update(row);
+        } catch (SQLException | RuntimeException e) {
+            // The lease simply runs out
+            System.err.println("⚠️  Failed to release lease " + name + ": " + e.getMessage());
+        }
+    }
+
+    private void renew() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("expires_at", System.currentTimeMillis() + leaseMillis);
+        try {
+            if (leases().where("name", name).where("owner", owner).update(row) == 0) {
+                lost = true;
+                renewal.cancel(false);
+                System.err.println("⚠️  Lease " + name + " was taken over by another node while running");
+            }
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("⚠️  Failed to renew lease " + name + ": " + e.getMessage());
+        }
+    }
+
+    private boolean insert(Map<String, Object> row) throws SQLException {
+        Database db = Database.getInstance();
+        Map<String, Object> lease = new LinkedHashMap<>(row);
+        lease.put("name", name);
+        if (db.getMemoryDatabase() != null) {
+            // No unique constraints in memory; the process is the only node
+            synchronized (TaskLease.class) {
+                if (!leases().where("name", name).limit(1).get().isEmpty()) {
+                    return false;
+                }
+                leases().insert(lease);
+                return true;
+            }
+        }
+        if (!leases().where("name", name).limit(1).get().isEmpty()) {
+            return false;
+        }
+        try {
+            leases().insert(lease);
+            return true;
+        } catch (SQLException e) {
+            // Primary key violation: another node inserted it first
+            return false;
+        }
+    }
+
+    private static QueryBuilder leases() throws SQLException {
+        Database db = Database.getInstance();
+        if (!tableReady) {
+            synchronized (TaskLease.class) {
+                if (!tableReady && db.getMemoryDatabase() == null) {
+                    db.execute("CREATE TABLE IF NOT EXISTS " + TABLE + " (name VARCHAR(191) PRIMARY KEY,"
+                            + " owner VARCHAR(191) NOT NULL, expires_at BIGINT NOT NULL)");
+                }
+                tableReady = true;
+            }
+        }
+        return db.table(TABLE);
+    }
+
+    private static synchronized ScheduledExecutorService renewer() {
+        if (renewer == null) {
+            renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "artha-scheduler-lease");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return renewer;
+    }
+}
@@ -1,19 +1,165 @@
 package dev.artha.core;
 
+import dev.artha.annotations.Scheduled;
+import dev.artha.db.Database;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
- * Manages scheduled tasks
+ * Manages scheduled tasks.
+ *
+ * A single timer thread only decides when tasks fire; the tasks themselves
+ * run on a worker pool so a slow job never delays another job's trigger.
+ *
+ * Exclusive tasks additionally hold a database lease (see TaskLease) so
+ * that only one node of a cluster runs each occurrence.
+ *
+ * Configured via artha.json:
+ * "scheduler": { "poolSize": 5, "virtualThreads": false, "leaseMs": 60000 }
  */
 public class TaskScheduler {
     private static TaskScheduler instance;
-    private ScheduledExecutorService executor;
+    private static final int DEFAULT_POOL_SIZE = 5;
+    private static final long DEFAULT_LEASE_MS = 60_000;
+
+    private final ScheduledThreadPoolExecutor timer;
+    private final ExecutorService workers;
+    private final Map<String, ScheduledTask> tasks = new ConcurrentHashMap<>();
+    private final long leaseMillis;
+
+    /**
+     * Task body; exceptions are recorded as failures
+     */
+    @FunctionalInterface
+    public interface TaskBody {
+        void run() throws Exception;
+    }
+
+    /**
+     * A registered task with its trigger and run metrics
+     */
+    public static final class ScheduledTask {
+        private final String name;
+        private final TaskBody body;
+        private final long fixedRate;
+        private final long fixedDelay;
+        private final CronExpression cron;
+        private final ZoneId zone;
+        private final long jitter;
+        private final boolean skipIfRunning;
+        private volatile TaskLease lease;
+
+        private final AtomicInteger running = new AtomicInteger();
+        private volatile ScheduledFuture<?> next;
+        private volatile boolean cancelled;
+
+        // Metrics
+        private final LongAdder runs = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder leaseSkipped = new LongAdder();
+        private final LongAdder totalRunNanos = new LongAdder();
+        private final AtomicLong maxRunNanos = new AtomicLong();
+        private final AtomicLong maxLagMillis = new AtomicLong();
+        private volatile long lastRunNanos;
+        private volatile long lastLagMillis;
+        private volatile long lastStartedAt;
+        private volatile String lastError;
+
+        private ScheduledTask(String name, TaskBody body, long fixedRate, long fixedDelay, CronExpression cron,
+                ZoneId zone, long jitter, boolean skipIfRunning) {
+            this.name = name;
+            this.body = body;
+            this.fixedRate = fixedRate;
+            this.fixedDelay = fixedDelay;
+            this.cron = cron;
+            this.zone = zone;
+            this.jitter = jitter;
+            this.skipIfRunning = skipIfRunning;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isRunning() {
+            return running.get() > 0;
+        }
+
+        /**
+         * Snapshot of run metrics
+         */
+        public Map<String, Object> stats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            long count = runs.sum();
+            stats.put("schedule", describe());
+            stats.put("running", running.get());
+            stats.put("runs", count);
+            stats.put("failures", failures.sum());
+            stats.put("skipped", skipped.sum());
+            if (lease != null) {
+                stats.put("leaseSkipped", leaseSkipped.sum());
+            }
+            stats.put("lastRunMs", lastRunNanos / 1_000_000.0);
+            stats.put("avgRunMs", count == 0 ? 0.0 : totalRunNanos.sum() / (double) count / 1_000_000.0);
+            stats.put("maxRunMs", maxRunNanos.get() / 1_000_000.0);
+            stats.put("lastLagMs", lastLagMillis);
+            stats.put("maxLagMs", maxLagMillis.get());
+            stats.put("lastStartedAt", lastStartedAt == 0 ? null : Instant.ofEpochMilli(lastStartedAt).toString());
+            stats.put("lastError", lastError);
+            return stats;
+        }
+
+        private String describe() {
+            if (cron != null) {
+                return "cron '" + cron + "'" + (lease != null ? ", exclusive" : "");
+            }
+            String schedule = fixedDelay >= 0 ? "every " + fixedDelay + "ms after completion"
+                    : "every " + fixedRate + "ms";
+            return lease != null ? schedule + ", exclusive" : schedule;
+        }
+
+        private long randomJitter() {
+            return jitter > 0 ? ThreadLocalRandom.current().nextLong(jitter + 1) : 0;
+        }
+    }
 
     private TaskScheduler() {
-        executor = Executors.newScheduledThreadPool(5);
+        ConfigManager config = ConfigManager.getInstance();
+        Integer poolSize = config.getInt("scheduler.poolSize");
+        Boolean virtualThreads = config.getBoolean("scheduler.virtualThreads");
+        Integer lease = config.getInt("scheduler.leaseMs");
+        leaseMillis = lease != null && lease > 0 ? lease : DEFAULT_LEASE_MS;
+
+        timer = new ScheduledThreadPoolExecutor(1, daemonThreads("artha-scheduler-timer"));
+        timer.setRemoveOnCancelPolicy(true);
+
+        ExecutorService pool = null;
+        if (Boolean.TRUE.equals(virtualThreads)) {
+            pool = newVirtualThreadExecutor();
+        }
+        if (pool == null) {
+            pool = Executors.newFixedThreadPool(poolSize != null && poolSize > 0 ? poolSize : DEFAULT_POOL_SIZE,
+                    daemonThreads("artha-scheduler"));
+        }
+        workers = pool;
     }
 
     public static synchronized TaskScheduler getInstance() {
@@ -23,31 +169,284 @@ public class TaskScheduler {
         return instance;
     }
 
+    /**
+     * Schedule a method according to its @Scheduled annotation
+     */
+    public ScheduledTask schedule(Object instance, Method method, Scheduled config) {
+        int triggers = (config.fixedRate() > 0 ? 1 : 0) + (config.fixedDelay() > 0 ? 1 : 0)
+                + (config.cron().isEmpty() ? 0 : 1);
+        String target = instance.getClass().getSimpleName() + "." + method.getName();
+        if (triggers != 1) {
+            throw new IllegalArgumentException(
+                    "@Scheduled needs exactly one of fixedRate, fixedDelay or cron: " + target);
+        }
+
+        CronExpression cron = config.cron().isEmpty() ? null : new CronExpression(config.cron());
+        ZoneId zone = config.zone().isEmpty() ? ZoneId.systemDefault() : ZoneId.of(config.zone());
+
+        if (config.exclusive() && !Database.getInstance().isInitialized()) {
+            throw new IllegalStateException("@Scheduled(exclusive = true) needs a database: " + target);
+        }
+
+        return register(target, invoker(instance, method), config.fixedRate(),
+                config.fixedDelay() > 0 ? config.fixedDelay() : -1, cron, zone, config.initialDelay(),
+                config.jitter(), config.skipIfRunning(), config.exclusive());
+    }
+
     /**
      * Schedule a method to run at fixed rate
      */
     public void scheduleFixedRate(Object instance, Method method, long rateMillis) {
-        executor.scheduleAtFixedRate(() -> {
+        register(instance.getClass().getSimpleName() + "." + method.getName(), invoker(instance, method),
+                rateMillis, -1, null, ZoneId.systemDefault(), 0, 0, true, false);
+    }
+
+    /**
+     * Schedule arbitrary code at a fixed rate
+     */
+    public ScheduledTask scheduleFixedRate(String name, TaskBody body, long initialDelayMillis, long rateMillis) {
+        return register(name, body, rateMillis, -1, null, ZoneId.systemDefault(), initialDelayMillis, 0, true,
+                false);
+    }
+
+    /**
+     * Schedule arbitrary code with a fixed delay between runs
+     */
+    public ScheduledTask scheduleFixedDelay(String name, TaskBody body, long initialDelayMillis, long delayMillis) {
+        return register(name, body, -1, delayMillis, null, ZoneId.systemDefault(), initialDelayMillis, 0, true,
+                false);
+    }
+
+    private ScheduledTask register(String name, TaskBody body, long fixedRate, long fixedDelay,
+            CronExpression cron, ZoneId zone, long initialDelay, long jitter, boolean skipIfRunning,
+            boolean exclusive) {
+        String key = name;
+        for (int i = 2; tasks.containsKey(key); i++) {
+            key = name + "#" + i;
+        }
+        ScheduledTask task = new ScheduledTask(key, body, fixedRate, fixedDelay, cron, zone, Math.max(0, jitter),
+                skipIfRunning);
+        if (exclusive) {
+            task.lease = new TaskLease(key, leaseMillis, TaskLease.NODE_ID);
+        }
+        tasks.put(key, task);
+
+        long now = System.currentTimeMillis();
+        if (cron != null) {
+            scheduleNext(task, now);
+        } else {
+            scheduleAt(task, now + Math.max(0, initialDelay));
+        }
+
+        System.out.println("  ⏰ Scheduled: " + key + "() " + task.describe()
+                + (initialDelay > 0 && cron == null ? ", first run in " + initialDelay + "ms" : "")
+                + (task.skipIfRunning ? "" : " (overlap allowed)"));
+        return task;
+    }
+
+    // Resolve reflection once at registration instead of on every run
+    private static TaskBody invoker(Object instance, Method method) {
+        method.setAccessible(true);
+        return () -> {
             try {
-                method.setAccessible(true);
                 method.invoke(instance);
-            } catch (Exception e) {
-                System.err.println("Error executing scheduled task " + method.getName() + ": " + e.getMessage());
-                e.printStackTrace();
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw e;
             }
-        }, 0, rateMillis, TimeUnit.MILLISECONDS);
+        };
+    }
+
+    /**
+     * Plan a run at the given (un-jittered) time
+     */
+    private void scheduleAt(ScheduledTask task, long plannedAt) {
+        if (task.cancelled || timer.isShutdown()) {
+            return;
+        }
+        long fireAt = plannedAt + task.randomJitter();
+        long delay = Math.max(0, fireAt - System.currentTimeMillis());
+        try {
+            task.next = timer.schedule(() -> fire(task, plannedAt, fireAt), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Scheduler shutting down
+        }
+    }
+
+    /**
+     * Plan the run after a fixedRate or cron run planned at previous
+     */
+    private void scheduleNext(ScheduledTask task, long previous) {
+        long now = System.currentTimeMillis();
+        if (task.cron != null) {
+            ZonedDateTime after = ZonedDateTime.ofInstant(Instant.ofEpochMilli(Math.max(previous, now)), task.zone);
+            ZonedDateTime next = task.cron.next(after);
+            if (next == null) {
+                System.err.println("⚠️  Cron '" + task.cron + "' for " + task.name + " never fires again");
+                return;
+            }
+            scheduleAt(task, next.toInstant().toEpochMilli());
+        } else {
+            // Runs missed while the JVM was paused are not replayed in a burst
+            scheduleAt(task, Math.max(previous + task.fixedRate, now));
+        }
+    }
+
+    private void fire(ScheduledTask task, long plannedAt, long fireAt) {
+        // Rate and cron triggers don't depend on how long this run takes
+        if (task.fixedDelay < 0) {
+            scheduleNext(task, plannedAt);
+        }
+
+        // An exclusive task never overlaps itself, on this node or any other
+        if ((task.skipIfRunning || task.lease != null) && task.running.get() > 0) {
+            task.skipped.increment();
+            return;
+        }
+
+        task.running.incrementAndGet();
+        try {
+            workers.execute(() -> run(task, fireAt));
+        } catch (RejectedExecutionException e) {
+            task.running.decrementAndGet();
+        }
+    }
+
+    private void run(ScheduledTask task, long fireAt) {
+        TaskLease lease = task.lease;
+        if (lease != null && !acquire(task, lease)) {
+            task.running.decrementAndGet();
+            if (task.fixedDelay >= 0) {
+                scheduleAt(task, System.currentTimeMillis() + task.fixedDelay);
+            }
+            return;
+        }
+
+        long startedAt = System.currentTimeMillis();
+        long lag = Math.max(0, startedAt - fireAt);
+        task.lastStartedAt = startedAt;
+        task.lastLagMillis = lag;
+        task.maxLagMillis.accumulateAndGet(lag, Math::max);
+
+        long start = System.nanoTime();
+        Span span = Tracer.root("task " + task.name);
+        JfrEvents.TaskRun event = JfrEvents.taskRun();
+        boolean failed = false;
+        try {
+            task.body.run();
+        } catch (Throwable e) {
+            failed = true;
+            span.error(e);
+            task.failures.increment();
+            task.lastError = e.getClass().getSimpleName() + ": " + e.getMessage();
+            System.err.println("Error executing scheduled task " + task.name + ": " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            span.close();
+            if (event != null) {
+                event.record(task.name, lag, failed);
+            }
+            long elapsed = System.nanoTime() - start;
+            task.runs.increment();
+            task.totalRunNanos.add(elapsed);
+            task.lastRunNanos = elapsed;
+            task.maxRunNanos.accumulateAndGet(elapsed, Math::max);
+            if (lease != null) {
+                lease.release(startedAt + minimumHold(task, fireAt));
+            }
+            task.running.decrementAndGet();
 
-        System.out.println("  ⏰ Scheduled: " + instance.getClass().getSimpleName() + "." + method.getName()
-                + "() every " + rateMillis + "ms");
+            if (task.fixedDelay >= 0) {
+                scheduleAt(task, System.currentTimeMillis() + task.fixedDelay);
+            }
+        }
+    }
+
+    private static boolean acquire(ScheduledTask task, TaskLease lease) {
+        try {
+            if (lease.acquire()) {
+                return true;
+            }
+        } catch (SQLException | RuntimeException e) {
+            task.lastError = "Lease: " + e.getMessage();
+            System.err.println("⚠️  Skipping " + task.name + ", lease unavailable: " + e.getMessage());
+        }
+        task.leaseSkipped.increment();
+        return false;
+    }
+
+    /**
+     * How long a finished exclusive run keeps its lease: half the interval
+     * to the next planned run, so late-firing nodes skip this occurrence
+     */
+    private static long minimumHold(ScheduledTask task, long fireAt) {
+        if (task.cron != null) {
+            ZonedDateTime fired = ZonedDateTime.ofInstant(Instant.ofEpochMilli(fireAt), task.zone);
+            ZonedDateTime next = task.cron.next(fired);
+            return next == null ? 0 : (next.toInstant().toEpochMilli() - fireAt) / 2;
+        }
+        return (task.fixedDelay >= 0 ? task.fixedDelay : task.fixedRate) / 2;
+    }
+
+    /**
+     * Stop scheduling a task; a run in progress is not interrupted
+     */
+    public boolean cancel(String name) {
+        ScheduledTask task = tasks.remove(name);
+        if (task == null) {
+            return false;
+        }
+        task.cancelled = true;
+        ScheduledFuture<?> next = task.next;
+        if (next != null) {
+            next.cancel(false);
+        }
+        return true;
+    }
+
+    /**
+     * Per-task metrics: runs, failures, skipped runs, run time and start lag
+     */
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (ScheduledTask task : tasks.values()) {
+            stats.put(task.name, task.stats());
+        }
+        return stats;
     }
 
     /**
      * Shutdown the scheduler
      */
     public void shutdown() {
-        if (executor != null && !executor.isShutdown()) {
-            executor.shutdown();
+        if (timer != null && !timer.isShutdown()) {
+            timer.shutdownNow();
+            workers.shutdown();
             System.out.println("🛑 Task scheduler shutdown");
         }
     }
+
+    private static java.util.concurrent.ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    // Executors.newVirtualThreadPerTaskExecutor() on Java 21+, looked up
+    // reflectively so the runtime still targets Java 11
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (Exception e) {
+            System.err.println("⚠️  Virtual threads need Java 21+, using a fixed scheduler pool");
+            return null;
+        }
+    }
 }
@@ -0,0 +1,238 @@
+package dev.artha.core;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Built-in tracing.
+ *
+ * Runtime opens a server span per request (continuing an incoming W3C
+ * traceparent) with child spans for each middleware, parameter binding and
+ * the handler; QueryBuilder and Database add one per SQL statement and
+ * TaskScheduler one per task run. The current span is kept in a
+ * thread-local, so child spans need no plumbing; use wrap() to carry it
+ * onto another thread.
+ *
+ * Sampling is parent-based: a request whose traceparent is sampled is
+ * always traced, one that is not never is, and new traces are sampled at
+ * sampleRate. Ended spans are exported in batches by a background thread,
+ * to a JSON-lines file or an OTLP/HTTP endpoint (JSON encoding).
+ *
+ * Configured via artha.json:
+ * "tracing": { "sampleRate": 0.1, "exporter": "otlp",
+ * "endpoint": "http://localhost:4318/v1/traces", "file": "logs/traces.jsonl",
+ * "serviceName": "artha", "queueSize": 2048 }
+ */
+public class Tracer {
+    private static volatile Tracer instance;
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final SpanExporter exporter;
+
+    private Tracer() {
+        ConfigManager config = ConfigManager.getInstance();
+        Boolean enabledConfig = config.getBoolean("tracing.enabled");
+        Double rateConfig = config.getDouble("tracing.sampleRate");
+        this.enabled = config.get("tracing") != null && (enabledConfig == null || enabledConfig);
+        this.sampleRate = rateConfig != null ? Math.max(0, Math.min(1, rateConfig)) : 1.0;
+        this.exporter = enabled ? SpanExporter.fromConfig(config) : null;
+    }
+
+    public static synchronized Tracer getInstance() {
+        if (instance == null) {
+            instance = new Tracer();
+        }
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The innermost open span on this thread, or NOOP
+     */
+    public static Span current() {
+        Span span = CURRENT.get();
+        return span != null ? span : Span.NOOP;
+    }
+
+    /**
+     * Child of the current span; NOOP when there is no sampled span open
+     */
+    public static Span span(String name) {
+        Span parent = CURRENT.get();
+        if (parent == null) {
+            return Span.NOOP;
+        }
+        return parent.child(name, Span.Kind.INTERNAL);
+    }
+
+    /**
+     * Child span named "kind detail"; the name is only built when sampled
+     */
+    public static Span span(String kind, String detail) {
+        Span parent = CURRENT.get();
+        if (parent == null) {
+            return Span.NOOP;
+        }
+        return parent.child(kind + " " + detail, Span.Kind.INTERNAL);
+    }
+
+    /**
+     * Span for an incoming request, continuing the caller's trace when the
+     * traceparent header is valid
+     */
+    public static Span server(io.javalin.http.Context ctx) {
+        Tracer tracer = instance;
+        if (tracer == null || !tracer.enabled) {
+            return Span.NOOP;
+        }
+        String traceparent = ctx.header("traceparent");
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long traceHigh;
+        long traceLow;
+        long parent = 0;
+        if (traceparent != null && isValid(traceparent)) {
+            if ((Character.digit(traceparent.charAt(54), 16) & 1) == 0) {
+                // Caller chose not to sample this trace
+                return Span.NOOP;
+            }
+            traceHigh = Long.parseUnsignedLong(traceparent, 3, 19, 16);
+            traceLow = Long.parseUnsignedLong(traceparent, 19, 35, 16);
+            parent = Long.parseUnsignedLong(traceparent, 36, 52, 16);
+        } else {
+            if (random.nextDouble() >= tracer.sampleRate) {
+                return Span.NOOP;
+            }
+            traceHigh = random.nextLong();
+            traceLow = random.nextLong();
+        }
+        String method = ctx.method().name();
+        String route = ctx.endpointHandlerPath();
+        Span span = tracer.open(traceHigh, traceLow, parent, method + " " + route, Span.Kind.SERVER);
+        span.attribute("http.method", method).attribute("http.route", route).attribute("http.target", ctx.path());
+        return span;
+    }
+
+    /**
+     * Root span for background work (scheduled tasks), sampled at sampleRate
+     */
+    public static Span root(String name) {
+        Tracer tracer = instance;
+        if (tracer == null || !tracer.enabled) {
+            return Span.NOOP;
+        }
+        Span parent = CURRENT.get();
+        if (parent != null) {
+            return parent.child(name, Span.Kind.INTERNAL);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextDouble() >= tracer.sampleRate) {
+            return Span.NOOP;
+        }
+        return tracer.open(random.nextLong(), random.nextLong(), 0, name, Span.Kind.INTERNAL);
+    }
+
+    /**
+     * Run the task on another thread as part of the current span
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        Span parent = CURRENT.get();
+        if (parent == null) {
+            return task;
+        }
+        return () -> {
+            Span previous = CURRENT.get();
+            CURRENT.set(parent);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    // W3C: 00-<32 hex trace id>-<16 hex parent id>-<2 hex flags>, ids not all zero
+    static boolean isValid(String traceparent) {
+        if (traceparent.length() < 55 || traceparent.charAt(2) != '-' || traceparent.charAt(35) != '-'
+                || traceparent.charAt(52) != '-' || traceparent.startsWith("ff")) {
+            return false;
+        }
+        boolean traceNonZero = false;
+        boolean parentNonZero = false;
+        for (int i = 0; i < 55; i++) {
+            if (i == 2 || i == 35 || i == 52) {
+                continue;
+            }
+            char c = traceparent.charAt(i);
+            int digit = Character.digit(c, 16);
+            if (digit < 0 || Character.isUpperCase(c)) {
+                return false;
+            }
+            if (i > 2 && i < 35 && digit != 0) {
+                traceNonZero = true;
+            } else if (i > 35 && i < 52 && digit != 0) {
+                parentNonZero = true;
+            }
+        }
+        return traceNonZero && parentNonZero;
+    }
+
+    Span open(long traceHigh, long traceLow, long parentSpanId, String name, Span.Kind kind) {
+        Span previous = CURRENT.get();
+        long spanId;
+        do {
+            spanId = ThreadLocalRandom.current().nextLong();
+        } while (spanId == 0);
+        Span span = new Span(this, previous, traceHigh, traceLow, spanId, parentSpanId, name, kind);
+        CURRENT.set(span);
+        return span;
+    }
+
+    void ended(Span span) {
+        // Also unwinds children left open by an exception
+        for (Span open = CURRENT.get(); open != null; open = open.previous) {
+            if (open == span) {
+                restore(span.previous);
+                break;
+            }
+        }
+        exporter.offer(span);
+    }
+
+    private static void restore(Span previous) {
+        if (previous != null) {
+            CURRENT.set(previous);
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Flush queued spans and stop the exporter
+     */
+    public void close() {
+        if (exporter != null) {
+            exporter.close();
+        }
+    }
+
+    /**
+     * Sampling settings and exporter counts
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("sampleRate", sampleRate);
+        if (exporter != null) {
+            stats.putAll(exporter.stats());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,302 @@
+package dev.artha.db;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Chunked DELETE/UPDATE for background maintenance jobs.
+ *
+ * Instead of one statement that locks and rewrites every matching row, rows
+ * are processed in primary-key order in batches of chunkSize. Each batch
+ * selects the next ids, then deletes/updates that id range with the original
+ * conditions and commits on its own, so locks are short and replication lag
+ * stays low. Batches can be throttled with a pause and a rows/second cap.
+ *
+ * Example (inside a @Scheduled task):
+ *
+ * <pre>
+ * db.table("posts")
+ *         .where("created_at", "<", cutoff)
+ *         .chunked(1000)
+ *         .pause(200)
+ *         .maxRowsPerSecond(5000)
+ *         .resumable("purge-old-posts")
+ *         .delete();
+ * </pre>
+ *
+ * With resumable(name) the last processed id is stored in the
+ * artha_checkpoints table after every batch, so a restarted job continues
+ * where it stopped; the checkpoint is removed once the job completes.
+ * Requires a numeric, ascending "id" column.
+ */
+public class ChunkedOperation {
+    static final String CHECKPOINT_TABLE = "artha_checkpoints";
+
+    private static final Map<String, Progress> RUNNING = new ConcurrentHashMap<>();
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final QueryBuilder query;
+    private final int chunkSize;
+    private long pauseMillis;
+    private int maxRowsPerSecond;
+    private String checkpointName;
+    private Consumer<Progress> listener;
+    private boolean checkpointTableReady;
+
+    /**
+     * Progress of a running or finished chunked operation
+     */
+    public static class Progress {
+        private final String name;
+        private final String table;
+        private final String operation;
+        private final long startedAt = System.currentTimeMillis();
+        private volatile long batches;
+        private volatile long rows;
+        private volatile Object lastId;
+        private volatile long finishedAt;
+
+        Progress(String name, String table, String operation) {
+            this.name = name;
+            this.table = table;
+            this.operation = operation;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getBatches() {
+            return batches;
+        }
+
+        /**
+         * Rows deleted/updated so far
+         */
+        public long getRows() {
+            return rows;
+        }
+
+        public Object getLastId() {
+            return lastId;
+        }
+
+        public boolean isDone() {
+            return finishedAt != 0;
+        }
+
+        public long getElapsedMillis() {
+            return (finishedAt != 0 ? finishedAt : System.currentTimeMillis()) - startedAt;
+        }
+
+        public double getRowsPerSecond() {
+            long elapsed = getElapsedMillis();
+            return elapsed > 0 ? rows * 1000.0 / elapsed : 0;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("name", name);
+            map.put("table", table);
+            map.put("operation", operation);
+            map.put("batches", batches);
+            map.put("rows", rows);
+            map.put("lastId", lastId);
+            map.put("elapsedMs", getElapsedMillis());
+            map.put("rowsPerSecond", Math.round(getRowsPerSecond()));
+            map.put("done", isDone());
+            return map;
+        }
+    }
+
+    ChunkedOperation(QueryBuilder query, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        this.query = query;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Sleep between batches, giving other transactions and replicas room
+     */
+    public ChunkedOperation pause(long millis) {
+        this.pauseMillis = Math.max(0, millis);
+        return this;
+    }
+
+    /**
+     * Cap throughput; batches are delayed as needed (0 = unlimited)
+     */
+    public ChunkedOperation maxRowsPerSecond(int rows) {
+        this.maxRowsPerSecond = Math.max(0, rows);
+        return this;
+    }
+
+    /**
+     * Persist progress under this name so a restarted job resumes
+     */
+    public ChunkedOperation resumable(String name) {
+        this.checkpointName = name;
+        return this;
+    }
+
+    /**
+     * Called after every batch
+     */
+    public ChunkedOperation onProgress(Consumer<Progress> listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Delete all matching rows, batch by batch
+     */
+    public Progress delete() throws SQLException {
+        return run("DELETE", null);
+    }
+
+    /**
+     * Update all matching rows, batch by batch
+     */
+    public Progress update(Map<String, Object> data) throws SQLException {
+        if (data == null || data.isEmpty()) {
+            throw new IllegalArgumentException("Update data must not be empty");
+        }
+        return run("UPDATE", data);
+    }
+
+    /**
+     * Progress of chunked operations started in this JVM: running ones and
+     * the most recent finished one per name
+     */
+    public static List<Map<String, Object>> stats() {
+        List<Map<String, Object>> stats = new ArrayList<>();
+        for (Progress progress : RUNNING.values()) {
+            stats.add(progress.toMap());
+        }
+        return stats;
+    }
+
+    private Progress run(String operation, Map<String, Object> data) throws SQLException {
+        String name = checkpointName != null ? checkpointName
+                : query.tableName() + "-" + operation.toLowerCase() + "-" + SEQUENCE.incrementAndGet();
+        Progress progress = new Progress(name, query.tableName(), operation);
+        if (checkpointName == null) {
+            RUNNING.values().removeIf(p -> p.isDone() && p.table.equals(progress.table)
+                    && p.operation.equals(progress.operation));
+        }
+        RUNNING.put(name, progress);
+
+        Object lastId = checkpointName != null ? loadCheckpoint() : null;
+        long windowStart = System.nanoTime();
+        long windowRows = 0;
+
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                QueryBuilder next = query.copyWhere().select("id").orderBy("id", "ASC").limit(chunkSize);
+                if (lastId != null) {
+                    next.where("id", ">", lastId);
+                }
+                List<Map<String, Object>> ids = next.get();
+                if (ids.isEmpty()) {
+                    break;
+                }
+                Object first = ids.get(0).get("id");
+                Object last = ids.get(ids.size() - 1).get("id");
+
+                // Same conditions, bounded to this id range: rows changed since the
+                // SELECT are re-checked, rows inserted into the range are included
+                QueryBuilder batch = query.copyWhere().where("id", ">=", first).where("id", "<=", last);
+                int affected = "DELETE".equals(operation) ? batch.delete() : batch.update(data);
+
+                lastId = last;
+                progress.batches++;
+                progress.rows += affected;
+                progress.lastId = last;
+                if (checkpointName != null) {
+                    saveCheckpoint(last);
+                }
+                if (listener != null) {
+                    listener.accept(progress);
+                }
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+
+                windowRows += affected;
+                if (!throttle(windowStart, windowRows)) {
+                    break;
+                }
+            }
+
+            if (!Thread.currentThread().isInterrupted() && checkpointName != null) {
+                clearCheckpoint();
+            }
+        } finally {
+            progress.finishedAt = System.currentTimeMillis();
+        }
+        return progress;
+    }
+
+    /**
+     * Sleep for the configured pause, longer if over the rate cap
+     *
+     * @return false if interrupted
+     */
+    private boolean throttle(long windowStart, long windowRows) {
+        long sleep = pauseMillis;
+        if (maxRowsPerSecond > 0) {
+            long elapsedMillis = (System.nanoTime() - windowStart) / 1_000_000;
+            long dueMillis = windowRows * 1000 / maxRowsPerSecond;
+            sleep = Math.max(sleep, dueMillis - elapsedMillis);
+        }
+        if (sleep <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(sleep);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private QueryBuilder checkpoints() throws SQLException {
+        QueryBuilder checkpoints = query.sibling(CHECKPOINT_TABLE);
+        if (checkpointTableReady) {
+            return checkpoints;
+        }
+        checkpointTableReady = true;
+        checkpoints.executeStatement("CREATE TABLE IF NOT EXISTS " + CHECKPOINT_TABLE
+                + " (name VARCHAR(191) PRIMARY KEY, last_id BIGINT, updated_at BIGINT)");
+        return checkpoints;
+    }
+
+    private Object loadCheckpoint() throws SQLException {
+        List<Map<String, Object>> rows = checkpoints().select("last_id").where("name", checkpointName).limit(1)
+                .get();
+        return rows.isEmpty() ? null : rows.get(0).get("last_id");
+    }
+
+    private void saveCheckpoint(Object lastId) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("last_id", lastId);
+        row.put("updated_at", System.currentTimeMillis());
+        if (checkpoints().where("name", checkpointName).update(row) == 0) {
+            row.put("name", checkpointName);
+            query.sibling(CHECKPOINT_TABLE).insert(row);
+        }
+    }
+
+    private void clearCheckpoint() throws SQLException {
+        query.sibling(CHECKPOINT_TABLE).where("name", checkpointName).delete();
+    }
+}
@@ -0,0 +1,722 @@
+package dev.artha.db;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Column-oriented query result.
+ * Metadata is read once; integer, long and floating point columns are kept in
+ * primitive arrays with a null bitmap instead of one HashMap per row.
+ *
+ * Serializes with Jackson as row-major JSON ([{"id": 1, ...}, ...]) by
+ * default, or column-major ({"id": [1, 2, ...], ...}) via
+ * {@code layout(Layout.COLUMNS)}.
+ */
+public class ColumnarResult implements Iterable<ColumnarResult.Row>, JsonSerializable {
+
+    public enum Layout {
+        ROWS, COLUMNS
+    }
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Column[] columns;
+    private final Map<String, Integer> columnIndex;
+    private final int rowCount;
+    private final Layout layout;
+
+    private ColumnarResult(Column[] columns, Map<String, Integer> columnIndex, int rowCount, Layout layout) {
+        this.columns = columns;
+        this.columnIndex = columnIndex;
+        this.rowCount = rowCount;
+        this.layout = layout;
+    }
+
+    /**
+     * Read the remaining rows of a ResultSet into columns
+     */
+    public static ColumnarResult from(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+
+        Column[] columns = new Column[columnCount];
+        Map<String, Integer> columnIndex = new HashMap<>();
+        for (int i = 0; i < columnCount; i++) {
+            String name = metaData.getColumnLabel(i + 1);
+            columns[i] = Column.forType(name, metaData.getColumnType(i + 1), metaData.getColumnClassName(i + 1));
+            columnIndex.putIfAbsent(name, i);
+        }
+
+        int row = 0;
+        while (rs.next()) {
+            for (int i = 0; i < columnCount; i++) {
+                columns[i].read(rs, i + 1, row);
+            }
+            row++;
+        }
+
+        for (Column column : columns) {
+            column.trim(row);
+        }
+
+        return new ColumnarResult(columns, columnIndex, row, Layout.ROWS);
+    }
+
+    /**
+     * Columns from rows that are already in memory (the "memory" driver)
+     */
+    static ColumnarResult fromRows(List<String> names, List<Map<String, Object>> rows) {
+        Column[] columns = new Column[names.size()];
+        Map<String, Integer> columnIndex = new HashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = Column.forValues(names.get(i), rows);
+            columnIndex.putIfAbsent(names.get(i), i);
+        }
+
+        for (int row = 0; row < rows.size(); row++) {
+            Map<String, Object> values = rows.get(row);
+            for (int i = 0; i < columns.length; i++) {
+                columns[i].set(row, values.get(names.get(i)));
+            }
+        }
+
+        for (Column column : columns) {
+            column.trim(rows.size());
+        }
+
+        return new ColumnarResult(columns, columnIndex, rows.size(), Layout.ROWS);
+    }
+
+    /**
+     * Same data, serialized with the given JSON layout
+     */
+    public ColumnarResult layout(Layout layout) {
+        return layout == this.layout ? this : new ColumnarResult(columns, columnIndex, rowCount, layout);
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public int columnCount() {
+        return columns.length;
+    }
+
+    public String columnName(int column) {
+        return columns[column].name;
+    }
+
+    /**
+     * Index of a column by name, or -1 if absent
+     */
+    public int columnIndex(String name) {
+        Integer index = columnIndex.get(name);
+        return index != null ? index : -1;
+    }
+
+    public boolean isNull(int row, int column) {
+        return columns[column].isNull(row);
+    }
+
+    public int getInt(int row, int column) {
+        return columns[column].getInt(row);
+    }
+
+    public long getLong(int row, int column) {
+        return columns[column].getLong(row);
+    }
+
+    public double getDouble(int row, int column) {
+        return columns[column].getDouble(row);
+    }
+
+    public String getString(int row, int column) {
+        Object value = columns[column].get(row);
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Boxed value (null for SQL NULL)
+     */
+    public Object get(int row, int column) {
+        return columns[column].get(row);
+    }
+
+    /**
+     * Lightweight view over one row; no values are copied
+     */
+    public Row row(int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of " + rowCount);
+        }
+        return new Row(row);
+    }
+
+    @Override
+    public Iterator<Row> iterator() {
+        return new Iterator<Row>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < rowCount;
+            }
+
+            @Override
+            public Row next() {
+                if (next >= rowCount) {
+                    throw new NoSuchElementException();
+                }
+                return new Row(next++);
+            }
+        };
+    }
+
+    /**
+     * Convert to the row-of-maps shape returned by Database.execute
+     */
+    public List<Map<String, Object>> toMaps() {
+        List<Map<String, Object>> rows = new ArrayList<>(rowCount);
+        for (int r = 0; r < rowCount; r++) {
+            rows.add(row(r).toMap());
+        }
+        return rows;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        if (layout == Layout.COLUMNS) {
+            gen.writeStartObject();
+            for (Column column : columns) {
+                gen.writeFieldName(column.name);
+                gen.writeStartArray();
+                for (int r = 0; r < rowCount; r++) {
+                    column.write(gen, r, serializers);
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        } else {
+            gen.writeStartArray();
+            for (int r = 0; r < rowCount; r++) {
+                gen.writeStartObject();
+                for (Column column : columns) {
+                    gen.writeFieldName(column.name);
+                    column.write(gen, r, serializers);
+                }
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+
+    /**
+     * Row view with name-based accessors
+     */
+    public class Row {
+        private final int row;
+
+        private Row(int row) {
+            this.row = row;
+        }
+
+        public int index() {
+            return row;
+        }
+
+        public boolean isNull(String column) {
+            return columns[require(column)].isNull(row);
+        }
+
+        public int getInt(String column) {
+            return columns[require(column)].getInt(row);
+        }
+
+        public long getLong(String column) {
+            return columns[require(column)].getLong(row);
+        }
+
+        public double getDouble(String column) {
+            return columns[require(column)].getDouble(row);
+        }
+
+        public String getString(String column) {
+            return ColumnarResult.this.getString(row, require(column));
+        }
+
+        public Object get(String column) {
+            return columns[require(column)].get(row);
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (Column column : columns) {
+                map.put(column.name, column.get(row));
+            }
+            return map;
+        }
+
+        @Override
+        public String toString() {
+            return toMap().toString();
+        }
+    }
+
+    private int require(String column) {
+        Integer index = columnIndex.get(column);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown column: " + column);
+        }
+        return index;
+    }
+
+    // Column storage
+
+    private abstract static class Column {
+        final String name;
+
+        Column(String name) {
+            this.name = name;
+        }
+
+        static Column forType(String name, int sqlType, String className) {
+            switch (sqlType) {
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                    // Unsigned INT is reported as Long by MySQL; IntColumn
+                    // widens itself for SQLite's 64-bit INTEGER
+                    return "java.lang.Long".equals(className) ? new LongColumn(name) : new IntColumn(name);
+                case Types.BIGINT:
+                    // Unsigned BIGINT does not fit a long
+                    return "java.math.BigInteger".equals(className) ? new ObjectColumn(name)
+                            : new LongColumn(name);
+                case Types.FLOAT:
+                case Types.REAL:
+                case Types.DOUBLE:
+                    return new DoubleColumn(name);
+                case Types.CHAR:
+                case Types.VARCHAR:
+                case Types.LONGVARCHAR:
+                case Types.NCHAR:
+                case Types.NVARCHAR:
+                case Types.LONGNVARCHAR:
+                    return new StringColumn(name);
+                default:
+                    return new ObjectColumn(name);
+            }
+        }
+
+        // Memory rows hold Long, Double and String values (see MemoryTable.normalize)
+        static Column forValues(String name, List<Map<String, Object>> rows) {
+            Class<?> type = null;
+            for (Map<String, Object> row : rows) {
+                Object value = row.get(name);
+                if (value == null) {
+                    continue;
+                }
+                if (type == null) {
+                    type = value.getClass();
+                } else if (type != value.getClass()) {
+                    return new ObjectColumn(name);
+                }
+            }
+            if (type == Long.class) {
+                return new LongColumn(name);
+            }
+            if (type == Double.class) {
+                return new DoubleColumn(name);
+            }
+            return type == String.class ? new StringColumn(name) : new ObjectColumn(name);
+        }
+
+        abstract void read(ResultSet rs, int columnIndex, int row) throws SQLException;
+
+        abstract void set(int row, Object value);
+
+        abstract Object get(int row);
+
+        abstract void trim(int rowCount);
+
+        boolean isNull(int row) {
+            return get(row) == null;
+        }
+
+        int getInt(int row) {
+            Object value = get(row);
+            return value instanceof Number ? ((Number) value).intValue() : 0;
+        }
+
+        long getLong(int row) {
+            Object value = get(row);
+            return value instanceof Number ? ((Number) value).longValue() : 0L;
+        }
+
+        double getDouble(int row) {
+            Object value = get(row);
+            return value instanceof Number ? ((Number) value).doubleValue() : 0.0;
+        }
+
+        void write(JsonGenerator gen, int row, SerializerProvider serializers) throws IOException {
+            serializers.defaultSerializeValue(get(row), gen);
+        }
+    }
+
+    // Primitive column with a null bitmap (bit set = SQL NULL)
+    private abstract static class PrimitiveColumn extends Column {
+        long[] nulls = new long[1];
+
+        PrimitiveColumn(String name) {
+            super(name);
+        }
+
+        void markNull(int row) {
+            int word = row >>> 6;
+            if (word >= nulls.length) {
+                nulls = Arrays.copyOf(nulls, Math.max(word + 1, nulls.length * 2));
+            }
+            nulls[word] |= 1L << row;
+        }
+
+        @Override
+        boolean isNull(int row) {
+            int word = row >>> 6;
+            return word < nulls.length && (nulls[word] & (1L << row)) != 0;
+        }
+
+        void trimNulls(int rowCount) {
+            nulls = Arrays.copyOf(nulls, Math.max(1, (rowCount + 63) >>> 6));
+        }
+    }
+
+    /**
+     * INTEGER column stored as int[], widened to long[] the first time a
+     * value doesn't fit: SQLite reports its 64-bit INTEGER columns (rowids,
+     * epoch millis) as Types.INTEGER
+     */
+    private static final class IntColumn extends PrimitiveColumn {
+        int[] values = new int[INITIAL_CAPACITY];
+        long[] wide; // replaces values once widened
+
+        IntColumn(String name) {
+            super(name);
+        }
+
+        @Override
+        void set(int row, Object value) {
+            if (value == null) {
+                ensureCapacity(row);
+                markNull(row);
+            } else {
+                store(row, ((Number) value).longValue());
+            }
+        }
+
+        @Override
+        void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+            long value = rs.getLong(columnIndex);
+            if (rs.wasNull()) {
+                ensureCapacity(row);
+                markNull(row);
+            } else {
+                store(row, value);
+            }
+        }
+
+        private void store(int row, long value) {
+            ensureCapacity(row);
+            if (wide == null && value != (int) value) {
+                wide = new long[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    wide[i] = values[i];
+                }
+                values = null;
+            }
+            if (wide != null) {
+                wide[row] = value;
+            } else {
+                values[row] = (int) value;
+            }
+        }
+
+        private void ensureCapacity(int row) {
+            if (wide != null) {
+                if (row == wide.length) {
+                    wide = Arrays.copyOf(wide, wide.length * 2);
+                }
+            } else if (row == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            if (isNull(row)) {
+                return null;
+            }
+            return wide != null ? (Object) wide[row] : (Object) values[row];
+        }
+
+        @Override
+        int getInt(int row) {
+            return wide != null ? (int) wide[row] : values[row];
+        }
+
+        @Override
+        long getLong(int row) {
+            return wide != null ? wide[row] : values[row];
+        }
+
+        @Override
+        double getDouble(int row) {
+            return getLong(row);
+        }
+
+        @Override
+        void write(JsonGenerator gen, int row, SerializerProvider serializers) throws IOException {
+            if (isNull(row)) {
+                gen.writeNull();
+            } else if (wide != null) {
+                gen.writeNumber(wide[row]);
+            } else {
+                gen.writeNumber(values[row]);
+            }
+        }
+
+        @Override
+        void trim(int rowCount) {
+            if (wide != null) {
+                wide = Arrays.copyOf(wide, rowCount);
+            } else {
+                values = Arrays.copyOf(values, rowCount);
+            }
+            trimNulls(rowCount);
+        }
+    }
+
+    private static final class LongColumn extends PrimitiveColumn {
+        long[] values = new long[INITIAL_CAPACITY];
+
+        LongColumn(String name) {
+            super(name);
+        }
+
+        @Override
+        void set(int row, Object value) {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            if (value == null) {
+                markNull(row);
+            } else {
+                values[row] = ((Number) value).longValue();
+            }
+        }
+
+        @Override
+        void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[row] = rs.getLong(columnIndex);
+            if (rs.wasNull()) {
+                markNull(row);
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            return isNull(row) ? null : values[row];
+        }
+
+        @Override
+        int getInt(int row) {
+            return (int) values[row];
+        }
+
+        @Override
+        long getLong(int row) {
+            return values[row];
+        }
+
+        @Override
+        double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        void write(JsonGenerator gen, int row, SerializerProvider serializers) throws IOException {
+            if (isNull(row)) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(values[row]);
+            }
+        }
+
+        @Override
+        void trim(int rowCount) {
+            values = Arrays.copyOf(values, rowCount);
+            trimNulls(rowCount);
+        }
+    }
+
+    private static final class DoubleColumn extends PrimitiveColumn {
+        double[] values = new double[INITIAL_CAPACITY];
+
+        DoubleColumn(String name) {
+            super(name);
+        }
+
+        @Override
+        void set(int row, Object value) {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            if (value == null) {
+                markNull(row);
+            } else {
+                values[row] = ((Number) value).doubleValue();
+            }
+        }
+
+        @Override
+        void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[row] = rs.getDouble(columnIndex);
+            if (rs.wasNull()) {
+                markNull(row);
+            }
+        }
+
+        @Override
+        Object get(int row) {
+            return isNull(row) ? null : values[row];
+        }
+
+        @Override
+        int getInt(int row) {
+            return (int) values[row];
+        }
+
+        @Override
+        long getLong(int row) {
+            return (long) values[row];
+        }
+
+        @Override
+        double getDouble(int row) {
+            return values[row];
+        }
+
+        @Override
+        void write(JsonGenerator gen, int row, SerializerProvider serializers) throws IOException {
+            if (isNull(row)) {
+                gen.writeNull();
+            } else {
+                gen.writeNumber(values[row]);
+            }
+        }
+
+        @Override
+        void trim(int rowCount) {
+            values = Arrays.copyOf(values, rowCount);
+            trimNulls(rowCount);
+        }
+    }
+
+    private static final class StringColumn extends Column {
+        String[] values = new String[INITIAL_CAPACITY];
+
+        StringColumn(String name) {
+            super(name);
+        }
+
+        @Override
+        void set(int row, Object value) {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[row] = value != null ? value.toString() : null;
+        }
+
+        @Override
+        void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[row] = rs.getString(columnIndex);
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        void write(JsonGenerator gen, int row, SerializerProvider serializers) throws IOException {
+            gen.writeString(values[row]);
+        }
+
+        @Override
+        void trim(int rowCount) {
+            values = Arrays.copyOf(values, rowCount);
+        }
+    }
+
+    private static final class ObjectColumn extends Column {
+        Object[] values = new Object[INITIAL_CAPACITY];
+
+        ObjectColumn(String name) {
+            super(name);
+        }
+
+        @Override
+        void set(int row, Object value) {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[row] = value;
+        }
+
+        @Override
+        void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+            if (row == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[row] = rs.getObject(columnIndex);
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        void trim(int rowCount) {
+            values = Arrays.copyOf(values, rowCount);
+        }
+    }
+}
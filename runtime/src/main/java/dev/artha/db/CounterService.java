@@ -0,0 +1,372 @@
+package dev.artha.db;
+
+import dev.artha.core.ConfigManager;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Write-behind counters for hot "col = col + 1" statements.
+ *
+ * Increments are accumulated per (table, column, id) in LongAdders and
+ * written as one batched UPDATE per key on a fixed interval, instead of one
+ * UPDATE per event.
+ *
+ * Example:
+ *
+ * <pre>
+ * &#64;Inject
+ * private CounterService counters;
+ *
+ * counters.increment("posts", "likes_count", postId);
+ * long likes = counters.get("posts", "likes_count", postId); // DB value + pending
+ * </pre>
+ *
+ * Configured via artha.json: "counters": { "flushIntervalMs": 1000 }
+ *
+ * Each flush swaps in a fresh generation of adders and waits for writers
+ * still inside the retired one before reading it, so increments are never
+ * lost or written twice. Pending deltas are flushed on JVM shutdown.
+ */
+public class CounterService {
+    private static CounterService instance;
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+    private static final long DEFAULT_FLUSH_INTERVAL_MS = 1000;
+
+    private volatile Generation current = new Generation();
+    private volatile Generation flushing; // generation being written, for pending()
+    // Odd while a flush is moving deltas into the database (written under the flush lock)
+    private volatile long flushSequence;
+    // Deltas of failed flushes, retried by the next one (guarded by flush lock)
+    private final Map<CounterKey, Long> unwritten = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final long flushIntervalMillis;
+
+    // Metrics
+    private final LongAdder increments = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder rowsFlushed = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private volatile long lastFlushMillis;
+
+    private static final class CounterKey {
+        final String table;
+        final String column;
+        final Object id;
+
+        CounterKey(String table, String column, Object id) {
+            this.table = table;
+            this.column = column;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CounterKey)) {
+                return false;
+            }
+            CounterKey other = (CounterKey) o;
+            return table.equals(other.table) && column.equals(other.column) && id.equals(other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(table, column, id);
+        }
+    }
+
+    /**
+     * One set of adders plus striped in-flight writer counts. A writer
+     * registers in its stripe, re-checks that the generation is still live and
+     * only then adds; the flusher retires the generation and waits for all
+     * stripes to drain, so every add either lands before the read or retries
+     * on the next generation.
+     */
+    private static final class Generation {
+        private static final int STRIPES = 64;
+        private static final int PADDING = 8; // one stripe per cache line
+
+        final Map<CounterKey, LongAdder> adders = new ConcurrentHashMap<>();
+        final AtomicLongArray writers = new AtomicLongArray(STRIPES * PADDING);
+        volatile boolean retired;
+
+        static int stripe() {
+            return ((int) Thread.currentThread().getId() & (STRIPES - 1)) * PADDING;
+        }
+
+        boolean add(CounterKey key, long delta) {
+            int stripe = stripe();
+            writers.incrementAndGet(stripe);
+            try {
+                if (retired) {
+                    return false;
+                }
+                LongAdder adder = adders.get(key);
+                if (adder == null) {
+                    adder = adders.computeIfAbsent(key, k -> new LongAdder());
+                }
+                adder.add(delta);
+                return true;
+            } finally {
+                writers.decrementAndGet(stripe);
+            }
+        }
+
+        void retireAndAwaitWriters() {
+            retired = true;
+            for (int i = 0; i < STRIPES * PADDING; i += PADDING) {
+                while (writers.get(i) != 0) {
+                    Thread.yield();
+                }
+            }
+        }
+
+        long sum(CounterKey key) {
+            LongAdder adder = adders.get(key);
+            return adder != null ? adder.sum() : 0;
+        }
+    }
+
+    private CounterService() {
+        Integer configured = ConfigManager.getInstance().getInt("counters.flushIntervalMs");
+        this.flushIntervalMillis = configured != null && configured > 0 ? configured : DEFAULT_FLUSH_INTERVAL_MS;
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "artha-counters");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+
+        java.lang.Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "artha-counters-shutdown"));
+    }
+
+    public static synchronized CounterService getInstance() {
+        if (instance == null) {
+            instance = new CounterService();
+        }
+        return instance;
+    }
+
+    /**
+     * Add 1 to table.column for the row with the given id
+     */
+    public void increment(String table, String column, Object id) {
+        add(table, column, id, 1);
+    }
+
+    /**
+     * Add delta (may be negative) to table.column for the row with the given id
+     */
+    public void add(String table, String column, Object id, long delta) {
+        CounterKey key = key(table, column, id);
+        while (!current.add(key, delta)) {
+            // Generation retired by a concurrent flush: use the new one
+        }
+        increments.increment();
+    }
+
+    /**
+     * Delta not yet written to the database
+     */
+    public long pending(String table, String column, Object id) {
+        CounterKey key = key(table, column, id);
+        Generation writing = flushing;
+        long pending = current.sum(key) + unwritten.getOrDefault(key, 0L);
+        return writing != null ? pending + writing.sum(key) : pending;
+    }
+
+    /**
+     * Current value: the stored column value plus any pending delta.
+     * Both are read between flushes (retrying if one starts meanwhile), so
+     * a flushed delta is counted exactly once.
+     */
+    public long get(String table, String column, Object id) {
+        while (true) {
+            long sequence = flushSequence;
+            if ((sequence & 1) != 0) {
+                // A flush is committing; whether the row has its delta yet is unknown
+                awaitFlush();
+                continue;
+            }
+            long stored = stored(table, column, id);
+            long pending = pending(table, column, id);
+            if (flushSequence == sequence) {
+                return stored + pending;
+            }
+        }
+    }
+
+    private synchronized void awaitFlush() {
+        // flush() holds this lock until it has finished
+    }
+
+    private long stored(String table, String column, Object id) {
+        List<Map<String, Object>> rows;
+        try {
+            rows = Database.getInstance().table(table).select(column).where("id", id).limit(1).get();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read counter " + table + "." + column + ": " + e.getMessage(), e);
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        Object value = rows.get(0).get(column);
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    /**
+     * Write all pending deltas as batched UPDATEs
+     *
+     * @return Number of rows updated
+     */
+    public synchronized int flush() throws SQLException {
+        flushSequence++;
+        Generation retired = current;
+        flushing = retired;
+        current = new Generation();
+        retired.retireAndAwaitWriters();
+
+        Map<CounterKey, Long> deltas = new LinkedHashMap<>(unwritten);
+        unwritten.clear();
+        for (Map.Entry<CounterKey, LongAdder> entry : retired.adders.entrySet()) {
+            deltas.merge(entry.getKey(), entry.getValue().sum(), Long::sum);
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+
+        try {
+            if (deltas.isEmpty()) {
+                return 0;
+            }
+            long start = System.currentTimeMillis();
+            int rows = write(deltas);
+            flushes.increment();
+            rowsFlushed.add(rows);
+            lastFlushMillis = System.currentTimeMillis() - start;
+            return rows;
+        } catch (SQLException | RuntimeException e) {
+            // Keep the deltas for the next attempt
+            failedFlushes.increment();
+            unwritten.putAll(deltas);
+            throw e;
+        } finally {
+            flushing = null;
+            flushSequence++;
+        }
+    }
+
+    private int write(Map<CounterKey, Long> deltas) throws SQLException {
+        MemoryDatabase memory = Database.getInstance().getMemoryDatabase();
+        if (memory != null) {
+            int rows = 0;
+            for (Map.Entry<CounterKey, Long> entry : deltas.entrySet()) {
+                CounterKey key = entry.getKey();
+                rows += memory.resolve(key.table).increment(key.column, key.id, entry.getValue());
+            }
+            return rows;
+        }
+
+        // Group by statement shape: one batch per (table, column)
+        Map<String, List<Map.Entry<CounterKey, Long>>> batches = new LinkedHashMap<>();
+        for (Map.Entry<CounterKey, Long> entry : deltas.entrySet()) {
+            CounterKey key = entry.getKey();
+            String sql = "UPDATE " + key.table + " SET " + key.column + " = " + key.column + " + ? WHERE id = ?";
+            batches.computeIfAbsent(sql, k -> new ArrayList<>()).add(entry);
+        }
+
+        int rows = 0;
+        try (Connection conn = Database.getInstance().getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                for (Map.Entry<String, List<Map.Entry<CounterKey, Long>>> batch : batches.entrySet()) {
+                    try (PreparedStatement stmt = conn.prepareStatement(batch.getKey())) {
+                        for (Map.Entry<CounterKey, Long> entry : batch.getValue()) {
+                            stmt.setLong(1, entry.getValue());
+                            stmt.setObject(2, entry.getKey().id);
+                            stmt.addBatch();
+                        }
+                        for (int count : stmt.executeBatch()) {
+                            // Drivers may report success without a row count
+                            rows += count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+                        }
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+        return rows;
+    }
+
+    private void flushQuietly() {
+        try {
+            if (Database.getInstance().isInitialized()) {
+                flush();
+            }
+        } catch (Exception e) {
+            System.err.println("⚠️  Counter flush failed, will retry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Snapshot of counter metrics
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("flushIntervalMs", flushIntervalMillis);
+        stats.put("increments", increments.sum());
+        stats.put("pendingKeys", current.adders.size() + unwritten.size());
+        stats.put("flushes", flushes.sum());
+        stats.put("rowsFlushed", rowsFlushed.sum());
+        stats.put("failedFlushes", failedFlushes.sum());
+        stats.put("lastFlushMs", lastFlushMillis);
+        return stats;
+    }
+
+    /**
+     * Stop the background flusher and write everything still pending
+     */
+    public void shutdown() {
+        if (flusher.isShutdown()) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+            flush();
+        } catch (Exception e) {
+            System.err.println("⚠️  Failed to flush counters on shutdown: " + e.getMessage());
+        }
+    }
+
+    private static CounterKey key(String table, String column, Object id) {
+        if (!IDENTIFIER.matcher(table).matches() || !IDENTIFIER.matcher(column).matches()) {
+            throw new IllegalArgumentException("Invalid counter target: " + table + "." + column);
+        }
+        if (id == null) {
+            throw new IllegalArgumentException("Counter id must not be null");
+        }
+        // 5 and 5L must hit the same counter
+        return new CounterKey(table, column, MemoryTable.normalize(id));
+    }
+}
@@ -2,9 +2,15 @@ package dev.artha.db;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import dev.artha.core.JfrEvents;
+import dev.artha.core.Span;
+import dev.artha.core.Tracer;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Singleton class for managing database connections using HikariCP.
@@ -13,6 +19,9 @@ import java.util.Map;
 public class Database {
     private static Database instance;
     private HikariDataSource dataSource;
+    private DatabaseExecutor asyncExecutor;
+    private MemoryDatabase memory;
+    private String driver;
     private boolean initialized = false;
 
     private Database() {
@@ -47,6 +56,25 @@ public class Database {
             String username = (String) config.get("username");
             String password = (String) config.get("password");
 
+            Object poolSizeObj = config.get("poolSize");
+            int poolSize = poolSizeObj != null ? Integer.parseInt(poolSizeObj.toString()) : 10;
+            @SuppressWarnings("unchecked")
+            Map<String, Object> asyncConfig = (Map<String, Object>) config.get("async");
+
+            this.driver = "postgres".equalsIgnoreCase(driver) ? "postgresql" : driver.toLowerCase();
+
+            // In-process tables: no JDBC URL or connection pool
+            if ("memory".equalsIgnoreCase(driver)) {
+                memory = new MemoryDatabase();
+                @SuppressWarnings("unchecked")
+                Map<String, Object> indexes = (Map<String, Object>) config.get("indexes");
+                memory.createIndexes(indexes);
+                asyncExecutor = DatabaseExecutor.fromConfig(asyncConfig, poolSize);
+                initialized = true;
+                System.out.println("✅ Database ready: in-memory tables");
+                return;
+            }
+
             // Build JDBC URL based on driver type
             String jdbcUrl;
             switch (driver.toLowerCase()) {
@@ -72,11 +100,14 @@ public class Database {
                 hikariConfig.setPassword(password);
 
             // Connection pool settings
-            hikariConfig.setMaximumPoolSize(10);
-            hikariConfig.setMinimumIdle(2);
+            hikariConfig.setMaximumPoolSize(poolSize);
+            hikariConfig.setMinimumIdle(Math.min(2, poolSize));
             hikariConfig.setConnectionTimeout(30000);
 
             dataSource = new HikariDataSource(hikariConfig);
+
+            // Async executor sized against the pool
+            asyncExecutor = DatabaseExecutor.fromConfig(asyncConfig, poolSize);
             initialized = true;
 
             System.out.println("✅ Database connected: " + jdbcUrl);
@@ -93,7 +124,20 @@ public class Database {
         if (!initialized) {
             throw new IllegalStateException("Database not initialized! Add database config to artha.json");
         }
-        return dataSource.getConnection();
+        if (memory != null) {
+            throw new IllegalStateException("Raw SQL and JDBC connections need a SQL database; with "
+                    + "\"driver\": \"memory\" in artha.json use table() queries");
+        }
+        JfrEvents.ConnectionAcquire acquire = JfrEvents.connectionAcquire();
+        try {
+            return dataSource.getConnection();
+        } finally {
+            if (acquire != null) {
+                com.zaxxer.hikari.HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+                acquire.record(pool != null ? pool.getActiveConnections() : -1,
+                        pool != null ? pool.getThreadsAwaitingConnection() : -1);
+            }
+        }
     }
 
     /**
@@ -107,7 +151,28 @@ public class Database {
      * Create a QueryBuilder for the specified table
      */
     public QueryBuilder table(String tableName) throws SQLException {
-        return new QueryBuilder(getConnection(), tableName);
+        if (!initialized) {
+            throw new IllegalStateException("Database not initialized! Add database config to artha.json");
+        }
+        if (memory != null) {
+            return memory.table(tableName);
+        }
+        // Each statement borrows a pooled connection and returns it when done
+        return new QueryBuilder(this, tableName);
+    }
+
+    /**
+     * Configured driver: "postgresql", "mysql", "sqlite" or "memory"
+     */
+    public String getDriver() {
+        return driver;
+    }
+
+    /**
+     * Get the in-memory engine when running on the "memory" driver, else null
+     */
+    public MemoryDatabase getMemoryDatabase() {
+        return memory;
     }
 
     /**
@@ -118,6 +183,9 @@ public class Database {
      * @return List of result rows as Maps
      */
     public java.util.List<Map<String, Object>> execute(String sql, Object... params) {
+        Span span = Tracer.span("db query").attribute("db.statement", sql);
+        JfrEvents.Sql event = JfrEvents.sql();
+        long rows = -1;
         try (Connection conn = getConnection()) {
             java.sql.PreparedStatement stmt = conn.prepareStatement(sql);
 
@@ -131,35 +199,137 @@ public class Database {
                 java.sql.ResultSet rs = stmt.executeQuery();
                 java.util.List<Map<String, Object>> results = new java.util.ArrayList<>();
 
+                // Read metadata once, not per row
+                java.sql.ResultSetMetaData metaData = rs.getMetaData();
+                int columnCount = metaData.getColumnCount();
+                String[] columnNames = new String[columnCount + 1];
+                for (int i = 1; i <= columnCount; i++) {
+                    columnNames[i] = metaData.getColumnLabel(i);
+                }
+
                 while (rs.next()) {
-                    Map<String, Object> row = new java.util.HashMap<>();
-                    java.sql.ResultSetMetaData metaData = rs.getMetaData();
-                    int columnCount = metaData.getColumnCount();
+                    Map<String, Object> row = new java.util.HashMap<>(columnCount * 2);
 
                     for (int i = 1; i <= columnCount; i++) {
-                        String columnName = metaData.getColumnName(i);
-                        Object value = rs.getObject(i);
-                        row.put(columnName, value);
+                        row.put(columnNames[i], rs.getObject(i));
                     }
 
                     results.add(row);
                 }
 
+                rows = results.size();
                 return results;
             } else {
                 // For INSERT/UPDATE/DELETE
-                stmt.executeUpdate();
+                rows = stmt.executeUpdate();
                 return new java.util.ArrayList<>();
             }
         } catch (SQLException e) {
+            span.error(e);
             throw new RuntimeException("SQL execution failed: " + e.getMessage(), e);
+        } finally {
+            span.close();
+            if (event != null) {
+                event.record(operation(sql), sql, rows, rows < 0);
+            }
         }
     }
 
+    // First keyword of a statement (SELECT, INSERT...), for JFR events
+    private static String operation(String sql) {
+        String trimmed = sql.trim();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return trimmed.substring(0, end).toUpperCase();
+    }
+
+    /**
+     * Execute a SELECT and return the rows in columnar form.
+     * Numeric columns are stored in primitive arrays, which keeps large
+     * reporting results several times smaller than a List of Maps.
+     *
+     * @param sql    SQL query with ? placeholders
+     * @param params Parameters for placeholders
+     */
+    public ColumnarResult executeColumnar(String sql, Object... params) {
+        Span span = Tracer.span("db query").attribute("db.statement", sql);
+        JfrEvents.Sql event = JfrEvents.sql();
+        long rows = -1;
+        try (Connection conn = getConnection();
+                java.sql.PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+
+            try (java.sql.ResultSet rs = stmt.executeQuery()) {
+                ColumnarResult result = ColumnarResult.from(rs);
+                rows = result.rowCount();
+                return result;
+            }
+        } catch (SQLException e) {
+            span.error(e);
+            throw new RuntimeException("SQL execution failed: " + e.getMessage(), e);
+        } finally {
+            span.close();
+            if (event != null) {
+                event.record("SELECT", sql, rows, rows < 0);
+            }
+        }
+    }
+
+    /**
+     * Execute raw SQL on the async database executor.
+     * The future fails with RejectedExecutionException when the queue is full.
+     */
+    public CompletableFuture<List<Map<String, Object>>> executeAsync(String sql, Object... params) {
+        return getAsyncExecutor().submit(() -> execute(sql, params));
+    }
+
+    /**
+     * Run arbitrary database work on the async database executor.
+     * Example: db.supplyAsync(() -> db.table("users").find(id, User.class))
+     */
+    public <T> CompletableFuture<T> supplyAsync(Callable<T> work) {
+        return getAsyncExecutor().submit(work);
+    }
+
+    /**
+     * Connection pool gauges (active, idle, total, waiting, max); empty for
+     * the memory driver
+     */
+    public Map<String, Object> poolStats() {
+        Map<String, Object> stats = new java.util.LinkedHashMap<>();
+        if (dataSource == null || dataSource.getHikariPoolMXBean() == null) {
+            return stats;
+        }
+        com.zaxxer.hikari.HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        stats.put("active", pool.getActiveConnections());
+        stats.put("idle", pool.getIdleConnections());
+        stats.put("total", pool.getTotalConnections());
+        stats.put("waiting", pool.getThreadsAwaitingConnection());
+        stats.put("max", dataSource.getMaximumPoolSize());
+        return stats;
+    }
+
+    /**
+     * Get the bounded executor used for async queries (queue depth, wait times)
+     */
+    public DatabaseExecutor getAsyncExecutor() {
+        if (!initialized) {
+            throw new IllegalStateException("Database not initialized! Add database config to artha.json");
+        }
+        return asyncExecutor;
+    }
+
     /**
      * Shutdown the connection pool
      */
     public void shutdown() {
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+        }
         if (dataSource != null && !dataSource.isClosed()) {
             dataSource.close();
             System.out.println("🔌 Database connection pool closed");
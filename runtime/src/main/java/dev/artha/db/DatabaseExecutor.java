@@ -0,0 +1,209 @@
+package dev.artha.db;
+
+import dev.artha.core.Tracer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded executor for asynchronous database work.
+ *
+ * Threads are sized against the connection pool so queries never wait on the
+ * pool itself; excess work waits in a bounded queue. When the queue is full
+ * new work is rejected (REJECT) or the oldest queued task is dropped
+ * (SHED_OLDEST). Tasks that waited longer than maxQueueWait fail instead of
+ * running late.
+ *
+ * Configured via artha.json:
+ * "database": { "async": { "threads": 10, "queueSize": 500,
+ * "overflow": "reject", "maxQueueWaitMs": 5000 } }
+ */
+public class DatabaseExecutor {
+
+    public enum Overflow {
+        REJECT, SHED_OLDEST
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final BlockingQueue<Runnable> queue;
+    private final Overflow overflow;
+    private final long queueWaitLimitNanos;
+
+    // Metrics
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder totalQueueWaitNanos = new LongAdder();
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+
+    public DatabaseExecutor(int threads, int queueSize, Overflow overflow, long maxQueueWaitMillis) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        this.overflow = overflow;
+        this.queueWaitLimitNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxQueueWaitMillis));
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, queue, r -> {
+            Thread t = new Thread(r, "artha-db-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Create an executor from the "async" section of the database config
+     *
+     * @param config   async config map (may be null)
+     * @param poolSize connection pool size, used as the default thread count
+     */
+    static DatabaseExecutor fromConfig(Map<String, Object> config, int poolSize) {
+        int threads = intValue(config, "threads", poolSize);
+        int queueSize = intValue(config, "queueSize", threads * 50);
+        long maxWait = intValue(config, "maxQueueWaitMs", 0);
+        Object mode = config != null ? config.get("overflow") : null;
+        // "shed" / "shed-oldest" drop the oldest queued task, anything else rejects
+        Overflow overflow = mode != null && mode.toString().toLowerCase().startsWith("shed")
+                ? Overflow.SHED_OLDEST
+                : Overflow.REJECT;
+        return new DatabaseExecutor(threads, queueSize, overflow, maxWait);
+    }
+
+    private static int intValue(Map<String, Object> config, String key, int defaultValue) {
+        Object value = config != null ? config.get(key) : null;
+        if (value == null) {
+            return defaultValue;
+        }
+        return value instanceof Number ? ((Number) value).intValue() : Integer.parseInt(value.toString());
+    }
+
+    /**
+     * Run database work on the executor.
+     * Never blocks the caller: if the queue is full the returned future fails
+     * with RejectedExecutionException.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> work) {
+        Task<T> task = new Task<>(Tracer.wrap(work));
+        submitted.increment();
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // A concurrent submitter may take the freed slot first: shed again until ours fits
+            while (overflow == Overflow.SHED_OLDEST && !executor.isShutdown()) {
+                Runnable oldest = queue.poll();
+                if (oldest instanceof Task) {
+                    shed.increment();
+                    ((Task<?>) oldest).fail(new RejectedExecutionException("Shed from database queue under load"));
+                }
+                if (queue.offer(task)) {
+                    return task.future;
+                }
+            }
+            rejected.increment();
+            task.future.completeExceptionally(new RejectedExecutionException(
+                    "Database queue full (" + queue.size() + " waiting)"));
+        }
+
+        return task.future;
+    }
+
+    /**
+     * Number of tasks waiting for a thread
+     */
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Snapshot of executor metrics
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long starts = started.sum();
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", queue.size() + queue.remainingCapacity());
+        stats.put("submitted", submitted.sum());
+        stats.put("completed", completed.sum());
+        stats.put("failed", failed.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("shed", shed.sum());
+        stats.put("expired", expired.sum());
+        stats.put("avgQueueWaitMs", starts == 0 ? 0.0 : totalQueueWaitNanos.sum() / (double) starts / 1_000_000.0);
+        stats.put("maxQueueWaitMs", maxQueueWaitNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        // Anything still queued will never run
+        Runnable pending;
+        while ((pending = queue.poll()) != null) {
+            if (pending instanceof Task) {
+                ((Task<?>) pending).fail(new RejectedExecutionException("Database executor shut down"));
+            }
+        }
+    }
+
+    private final class Task<T> implements Runnable {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final Callable<T> work;
+        final long enqueuedAt = System.nanoTime();
+
+        Task(Callable<T> work) {
+            this.work = work;
+        }
+
+        @Override
+        public void run() {
+            long waited = System.nanoTime() - enqueuedAt;
+            started.increment();
+            totalQueueWaitNanos.add(waited);
+            maxQueueWaitNanos.accumulateAndGet(waited, Math::max);
+
+            if (future.isDone()) {
+                return; // Cancelled by the caller while queued
+            }
+            if (queueWaitLimitNanos > 0 && waited > queueWaitLimitNanos) {
+                expired.increment();
+                future.completeExceptionally(new RejectedExecutionException(
+                        "Waited " + TimeUnit.NANOSECONDS.toMillis(waited) + "ms in database queue"));
+                return;
+            }
+
+            try {
+                future.complete(work.call());
+                completed.increment();
+            } catch (Throwable t) {
+                failed.increment();
+                future.completeExceptionally(t);
+            }
+        }
+
+        void fail(Throwable t) {
+            future.completeExceptionally(t);
+        }
+    }
+}
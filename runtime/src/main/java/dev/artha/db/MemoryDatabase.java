@@ -0,0 +1,98 @@
+package dev.artha.db;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process table engine behind the "memory" database driver.
+ *
+ * Supports the QueryBuilder operations (select, where, orderBy, limit,
+ * offset, insert, update, delete) over concurrent tables with a primary-key
+ * index on "id" and optional secondary hash indexes. Tables are created on
+ * first use; rows without an id get an auto-increment id.
+ *
+ * Enable with artha.json:
+ * "database": { "driver": "memory", "indexes": { "posts": ["user_id"] } }
+ *
+ * It can also be used on its own as a local cache tier for reference data:
+ *
+ * <pre>
+ * MemoryDatabase cache = new MemoryDatabase();
+ * cache.createIndex("countries", "code");
+ * cache.table("countries").insert(Map.of("code", "IN", "name", "India"));
+ * </pre>
+ *
+ * Raw SQL, joins and eager-loaded relations are not supported.
+ */
+public class MemoryDatabase {
+    private final Map<String, MemoryTable> tables = new ConcurrentHashMap<>();
+
+    /**
+     * Create a QueryBuilder over an in-memory table
+     */
+    public QueryBuilder table(String tableName) {
+        return new QueryBuilder(this, tableName);
+    }
+
+    /**
+     * Add a secondary hash index, used by equality conditions on the column
+     */
+    public void createIndex(String tableName, String column) {
+        resolve(tableName).createIndex(column);
+    }
+
+    /**
+     * Create indexes from config: { "table": ["column", ...] }
+     */
+    void createIndexes(Map<String, Object> config) {
+        if (config == null) {
+            return;
+        }
+        for (Map.Entry<String, Object> entry : config.entrySet()) {
+            Object columns = entry.getValue();
+            if (columns instanceof List) {
+                for (Object column : (List<?>) columns) {
+                    createIndex(entry.getKey(), column.toString());
+                }
+            } else if (columns != null) {
+                createIndex(entry.getKey(), columns.toString());
+            }
+        }
+    }
+
+    /**
+     * Names of all tables created so far
+     */
+    public Set<String> tableNames() {
+        return new TreeSet<>(tables.keySet());
+    }
+
+    /**
+     * Number of rows in a table (0 if it doesn't exist)
+     */
+    public int count(String tableName) {
+        MemoryTable table = tables.get(tableName);
+        return table != null ? table.size() : 0;
+    }
+
+    /**
+     * Remove all rows from every table, keeping indexes
+     */
+    public void clear() {
+        for (MemoryTable table : new ArrayList<>(tables.values())) {
+            table.clear();
+        }
+    }
+
+    MemoryTable resolve(String tableName) {
+        String name = tableName.trim();
+        if (name.contains(" ")) {
+            throw new UnsupportedOperationException("Table aliases are not supported by the memory driver: " + name);
+        }
+        return tables.computeIfAbsent(name, MemoryTable::new);
+    }
+}
@@ -0,0 +1,541 @@
+package dev.artha.db;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * A single table of the in-memory engine.
+ *
+ * Rows are immutable maps stored in a primary-key index ordered by id, so
+ * reads never lock and always see whole rows. Writes are serialized per table
+ * and keep the secondary hash indexes in step with the rows. Candidate rows
+ * found through an index are always re-checked against every condition.
+ *
+ * Values compare like SQL: numbers by value whatever their boxed type, and a
+ * string against a number by the number it spells. Index keys are normalized
+ * the same way, so adding an index never changes which rows match.
+ */
+class MemoryTable {
+    private static final String PRIMARY_KEY = "id";
+    private static final Pattern NUMBER = Pattern.compile("[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?");
+    private static final double LONG_RANGE = 0x1p63;
+
+    private final String name;
+
+    private final ConcurrentSkipListMap<Object, Map<String, Object>> rows = new ConcurrentSkipListMap<>(
+            MemoryTable::keyOrder);
+    // column -> index key (see indexKey) -> ids
+    private final Map<String, ConcurrentHashMap<Object, Set<Object>>> indexes = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    // Ids that are not numbers rule out direct primary-key lookups by number
+    private volatile boolean textIds;
+
+    MemoryTable(String name) {
+        this.name = name;
+    }
+
+    String name() {
+        return name;
+    }
+
+    int size() {
+        return rows.size();
+    }
+
+    /**
+     * Add a secondary hash index on a column (no-op if present)
+     */
+    synchronized void createIndex(String column) {
+        if (column.equals(PRIMARY_KEY) || indexes.containsKey(column)) {
+            return;
+        }
+        ConcurrentHashMap<Object, Set<Object>> index = new ConcurrentHashMap<>();
+        for (Map.Entry<Object, Map<String, Object>> row : rows.entrySet()) {
+            addToIndex(index, row.getValue().get(column), row.getKey());
+        }
+        indexes.put(column, index);
+    }
+
+    // Reads
+
+    List<Map<String, Object>> select(List<QueryBuilder.WhereClause> where, List<String> columns,
+            String orderBy, String direction, Integer limit, Integer offset) {
+        List<Condition> conditions = compile(where);
+        List<Map<String, Object>> matches = new ArrayList<>();
+        for (Map<String, Object> row : candidates(conditions)) {
+            if (matchesAll(row, conditions)) {
+                matches.add(row);
+            }
+        }
+
+        if (orderBy != null) {
+            String column = unqualify(orderBy);
+            Comparator<Map<String, Object>> order = (a, b) -> compareNullsFirst(a.get(column), b.get(column));
+            matches.sort("DESC".equalsIgnoreCase(direction) ? order.reversed() : order);
+        }
+
+        int from = offset != null ? Math.min(offset, matches.size()) : 0;
+        int to = limit != null ? Math.min(matches.size(), from + limit) : matches.size();
+
+        List<Map<String, Object>> results = new ArrayList<>(to - from);
+        for (Map<String, Object> row : matches.subList(from, to)) {
+            results.add(project(row, columns));
+        }
+        return results;
+    }
+
+    // Writes
+
+    synchronized long insert(Map<String, Object> data) throws SQLException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            row.put(unqualify(entry.getKey()), normalize(entry.getValue()));
+        }
+
+        Object id = row.get(PRIMARY_KEY);
+        if (id == null) {
+            id = sequence.incrementAndGet();
+            row.put(PRIMARY_KEY, id);
+        } else {
+            if (rows.containsKey(id)) {
+                throw new SQLException("Duplicate entry '" + id + "' for key '" + name + ".PRIMARY'");
+            }
+            if (id instanceof Long) {
+                long explicit = (Long) id;
+                sequence.accumulateAndGet(explicit, Math::max);
+            } else if (!(id instanceof Number)) {
+                textIds = true;
+            }
+        }
+
+        Map<String, Object> stored = Collections.unmodifiableMap(row);
+        rows.put(id, stored);
+        for (Map.Entry<String, ConcurrentHashMap<Object, Set<Object>>> index : indexes.entrySet()) {
+            addToIndex(index.getValue(), stored.get(index.getKey()), id);
+        }
+        return id instanceof Number ? ((Number) id).longValue() : -1;
+    }
+
+    synchronized int update(List<QueryBuilder.WhereClause> where, Map<String, Object> data) throws SQLException {
+        Map<String, Object> changes = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : data.entrySet()) {
+            changes.put(unqualify(entry.getKey()), normalize(entry.getValue()));
+        }
+
+        int updated = 0;
+        for (Map<String, Object> row : matching(where)) {
+            Object id = row.get(PRIMARY_KEY);
+            if (changes.containsKey(PRIMARY_KEY) && compare(changes.get(PRIMARY_KEY), id) != 0) {
+                throw new SQLException("Updating the primary key is not supported by the memory driver");
+            }
+            Map<String, Object> next = new LinkedHashMap<>(row);
+            next.putAll(changes);
+            replace(id, row, Collections.unmodifiableMap(next));
+            updated++;
+        }
+        return updated;
+    }
+
+    synchronized int delete(List<QueryBuilder.WhereClause> where) {
+        int deleted = 0;
+        for (Map<String, Object> row : matching(where)) {
+            Object id = row.get(PRIMARY_KEY);
+            rows.remove(id);
+            for (Map.Entry<String, ConcurrentHashMap<Object, Set<Object>>> index : indexes.entrySet()) {
+                removeFromIndex(index.getValue(), row.get(index.getKey()), id);
+            }
+            deleted++;
+        }
+        return deleted;
+    }
+
+    /**
+     * Atomically add delta to a numeric column of the row with the given id
+     *
+     * @return 1 if the row exists, 0 otherwise
+     */
+    synchronized int increment(String column, Object id, long delta) {
+        List<Condition> byId = Collections.singletonList(new Condition(PRIMARY_KEY, "=", normalize(id)));
+        Map<String, Object> row = null;
+        for (Map<String, Object> candidate : candidates(byId)) {
+            if (matchesAll(candidate, byId)) {
+                row = candidate;
+                break;
+            }
+        }
+        if (row == null) {
+            return 0;
+        }
+        Object key = row.get(PRIMARY_KEY);
+        Object value = row.get(column);
+        Map<String, Object> next = new LinkedHashMap<>(row);
+        if (value instanceof Double) {
+            next.put(column, (Double) value + delta);
+        } else {
+            next.put(column, (value instanceof Number ? ((Number) value).longValue() : 0L) + delta);
+        }
+        replace(key, row, Collections.unmodifiableMap(next));
+        return 1;
+    }
+
+    synchronized void clear() {
+        rows.clear();
+        for (ConcurrentHashMap<Object, Set<Object>> index : indexes.values()) {
+            index.clear();
+        }
+        sequence.set(0);
+        textIds = false;
+    }
+
+    private List<Map<String, Object>> matching(List<QueryBuilder.WhereClause> where) {
+        List<Condition> conditions = compile(where);
+        List<Map<String, Object>> matches = new ArrayList<>();
+        for (Map<String, Object> row : candidates(conditions)) {
+            if (matchesAll(row, conditions)) {
+                matches.add(row);
+            }
+        }
+        return matches;
+    }
+
+    private void replace(Object id, Map<String, Object> old, Map<String, Object> next) {
+        rows.put(id, next);
+        for (Map.Entry<String, ConcurrentHashMap<Object, Set<Object>>> index : indexes.entrySet()) {
+            Object before = old.get(index.getKey());
+            Object after = next.get(index.getKey());
+            if (compareNullsFirst(before, after) != 0) {
+                removeFromIndex(index.getValue(), before, id);
+                addToIndex(index.getValue(), after, id);
+            }
+        }
+    }
+
+    /**
+     * Rows worth checking: a primary-key or index lookup for the first
+     * equality condition on an indexed column, otherwise a full scan
+     */
+    private Collection<Map<String, Object>> candidates(List<Condition> conditions) {
+        for (Condition condition : conditions) {
+            if (!condition.operator.equals("=") || condition.value == null) {
+                continue;
+            }
+            if (condition.column.equals(PRIMARY_KEY)) {
+                Collection<Map<String, Object>> found = byPrimaryKey(condition.value);
+                if (found != null) {
+                    return found;
+                }
+                continue;
+            }
+            ConcurrentHashMap<Object, Set<Object>> index = indexes.get(condition.column);
+            if (index != null) {
+                Set<Object> ids = index.get(indexKey(condition.value));
+                if (ids == null) {
+                    return Collections.emptyList();
+                }
+                List<Map<String, Object>> found = new ArrayList<>(ids.size());
+                for (Object id : ids) {
+                    Map<String, Object> row = rows.get(id);
+                    if (row != null) {
+                        found.add(row);
+                    }
+                }
+                // Keep primary-key order, like a scan would
+                found.sort((a, b) -> keyOrder(a.get(PRIMARY_KEY), b.get(PRIMARY_KEY)));
+                return found;
+            }
+        }
+        return rows.values();
+    }
+
+    /**
+     * Rows whose id can equal value, or null when only a scan can tell
+     * (a number looked up among text ids such as "05")
+     */
+    private Collection<Map<String, Object>> byPrimaryKey(Object value) {
+        if (value instanceof Number) {
+            if (textIds) {
+                return null;
+            }
+            Map<String, Object> row = rows.get(value);
+            return row != null ? Collections.singletonList(row) : Collections.emptyList();
+        }
+        if (!(value instanceof String)) {
+            return null;
+        }
+        // "5" matches the numeric id 5 and the text id "5", in index order
+        List<Map<String, Object>> found = new ArrayList<>(2);
+        Number number = parseNumber((String) value);
+        Map<String, Object> row = number != null ? rows.get(number) : null;
+        if (row != null) {
+            found.add(row);
+        }
+        if ((row = rows.get(value)) != null) {
+            found.add(row);
+        }
+        return found;
+    }
+
+    private static void addToIndex(ConcurrentHashMap<Object, Set<Object>> index, Object value, Object id) {
+        if (value != null) {
+            index.computeIfAbsent(indexKey(value), k -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private static void removeFromIndex(ConcurrentHashMap<Object, Set<Object>> index, Object value, Object id) {
+        if (value != null) {
+            index.computeIfPresent(indexKey(value), (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private static Map<String, Object> project(Map<String, Object> row, List<String> columns) {
+        if (columns.isEmpty()) {
+            return new LinkedHashMap<>(row);
+        }
+        Map<String, Object> projected = new LinkedHashMap<>();
+        for (String column : columns) {
+            String[] parts = column.trim().split("(?i)\\s+as\\s+");
+            String source = unqualify(parts[0].trim());
+            if (source.equals("*")) {
+                projected.putAll(row);
+            } else {
+                projected.put(parts.length > 1 ? parts[1].trim() : source, row.get(source));
+            }
+        }
+        return projected;
+    }
+
+    // Conditions
+
+    private static final class Condition {
+        final String column;
+        final String operator;
+        final Object value;
+        final Pattern like;
+
+        Condition(String column, String operator, Object value) {
+            this.column = column;
+            this.operator = operator;
+            this.value = value;
+            this.like = operator.endsWith("LIKE") && value != null ? likePattern(value.toString()) : null;
+        }
+
+        boolean matches(Map<String, Object> row) {
+            Object actual = row.get(column);
+            if (actual == null || value == null) {
+                return false; // SQL: comparisons with NULL are never true
+            }
+            switch (operator) {
+                case "=":
+                    return compare(actual, value) == 0;
+                case "!=":
+                case "<>":
+                    return compare(actual, value) != 0;
+                case "<":
+                    return compare(actual, value) < 0;
+                case "<=":
+                    return compare(actual, value) <= 0;
+                case ">":
+                    return compare(actual, value) > 0;
+                case ">=":
+                    return compare(actual, value) >= 0;
+                case "LIKE":
+                    return like.matcher(actual.toString()).matches();
+                case "NOT LIKE":
+                    return !like.matcher(actual.toString()).matches();
+                default:
+                    throw new UnsupportedOperationException(
+                            "Operator '" + operator + "' is not supported by the memory driver");
+            }
+        }
+    }
+
+    private static List<Condition> compile(List<QueryBuilder.WhereClause> where) {
+        List<Condition> conditions = new ArrayList<>(where.size());
+        for (QueryBuilder.WhereClause clause : where) {
+            String operator = clause.operator.trim().toUpperCase().replaceAll("\\s+", " ");
+            conditions.add(new Condition(unqualify(clause.column), operator, normalize(clause.value)));
+        }
+        return conditions;
+    }
+
+    private static boolean matchesAll(Map<String, Object> row, List<Condition> conditions) {
+        for (Condition condition : conditions) {
+            if (!condition.matches(row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // SQL LIKE -> regex (% = any run, _ = any char), case-insensitive like MySQL
+    private static Pattern likePattern(String like) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : like.toCharArray()) {
+            if (c == '%') {
+                regex.append(".*");
+            } else if (c == '_') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    }
+
+    // Values
+
+    // "posts.user_id" -> "user_id"
+    private static String unqualify(String column) {
+        int dot = column.lastIndexOf('.');
+        return dot >= 0 ? column.substring(dot + 1) : column;
+    }
+
+    /**
+     * Integral numbers are stored as Long and decimals as Double so that
+     * keys and comparisons don't depend on the boxed type used by the caller
+     */
+    static Object normalize(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Float) {
+            return ((Float) value).doubleValue();
+        }
+        if (value instanceof BigInteger && ((BigInteger) value).bitLength() < 64) {
+            return ((BigInteger) value).longValue();
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).doubleValue();
+        }
+        return value;
+    }
+
+    /**
+     * SQL-style comparison used by conditions and ORDER BY: numbers by exact
+     * value, a string against a number by the number it spells, other values
+     * of one type by their natural order and anything else as text
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static int compare(Object a, Object b) {
+        Number x = a instanceof Number ? (Number) a : null;
+        Number y = b instanceof Number ? (Number) b : null;
+        if (x != null && y == null && b instanceof String) {
+            y = parseNumber((String) b);
+        } else if (y != null && x == null && a instanceof String) {
+            x = parseNumber((String) a);
+        }
+        if (x != null && y != null) {
+            return compareNumbers(x, y);
+        }
+        if (a instanceof Comparable && a.getClass() == b.getClass()) {
+            return ((Comparable) a).compareTo(b);
+        }
+        return a.toString().compareTo(b.toString());
+    }
+
+    /**
+     * Total order of the primary-key index: numbers, then strings, then
+     * other types grouped by class. Unlike compare() it never equates values
+     * of different kinds, so "5" and 5 can both be ids.
+     */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static int keyOrder(Object a, Object b) {
+        int rank = Integer.compare(rank(a), rank(b));
+        if (rank != 0) {
+            return rank;
+        }
+        if (a instanceof Number) {
+            return compareNumbers((Number) a, (Number) b);
+        }
+        if (a.getClass() != b.getClass()) {
+            return a.getClass().getName().compareTo(b.getClass().getName());
+        }
+        return a instanceof Comparable ? ((Comparable) a).compareTo(b) : a.toString().compareTo(b.toString());
+    }
+
+    private static int rank(Object value) {
+        return value instanceof Number ? 0 : value instanceof String ? 1 : 2;
+    }
+
+    /**
+     * Hash-index key: values that compare() as equal always share a key
+     * (integral numbers as Long, other finite numbers as Double, numeric
+     * strings as their number, everything else as text). Distinct values may
+     * share a key too; index hits are re-checked against the condition.
+     */
+    static Object indexKey(Object value) {
+        if (value instanceof String) {
+            Number number = parseNumber((String) value);
+            return number != null ? indexKey(number) : value;
+        }
+        if (value instanceof Long) {
+            return value;
+        }
+        if (value instanceof Number) {
+            double d = ((Number) value).doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                return value.toString(); // equal to the strings "NaN" and "Infinity"
+            }
+            return d == Math.rint(d) && Math.abs(d) < LONG_RANGE ? (Object) (long) d : (Object) d;
+        }
+        return value.toString();
+    }
+
+    private static int compareNumbers(Number x, Number y) {
+        if (x instanceof Long && y instanceof Long) {
+            return Long.compare((Long) x, (Long) y);
+        }
+        double dx = x.doubleValue();
+        double dy = y.doubleValue();
+        if (Double.isNaN(dx) || Double.isInfinite(dx) || Double.isNaN(dy) || Double.isInfinite(dy)) {
+            return Double.compare(dx, dy);
+        }
+        // Exact, so large longs don't collapse into the same double
+        return toBigDecimal(x).compareTo(toBigDecimal(y));
+    }
+
+    private static BigDecimal toBigDecimal(Number number) {
+        if (number instanceof Long) {
+            return BigDecimal.valueOf((Long) number);
+        }
+        if (number instanceof BigInteger) {
+            return new BigDecimal((BigInteger) number);
+        }
+        return new BigDecimal(number.doubleValue());
+    }
+
+    // Integral text becomes Long when it fits, other numeric text Double
+    private static Number parseNumber(String text) {
+        if (!NUMBER.matcher(text).matches()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(text.startsWith("+") ? text.substring(1) : text);
+        } catch (NumberFormatException e) {
+            return Double.parseDouble(text);
+        }
+    }
+
+    private static int compareNullsFirst(Object a, Object b) {
+        if (a == null || b == null) {
+            return a == b ? 0 : (a == null ? -1 : 1);
+        }
+        return compare(a, b);
+    }
+}
@@ -1,15 +1,22 @@
 package dev.artha.db;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.artha.core.JfrEvents;
+import dev.artha.core.Span;
+import dev.artha.core.Tracer;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
 
 /**
  * Fluent Query Builder for safe database operations.
  * All queries use prepared statements to prevent SQL injection.
  */
 public class QueryBuilder {
-    private final Connection connection;
+    private final Connection connection; // caller-owned connection, never closed here
+    private final Database source; // pool to borrow a connection from per statement
+    private final MemoryDatabase memory; // set when running on the "memory" driver
     private String table;
     private String type = "SELECT"; // SELECT, INSERT, UPDATE, DELETE
     private List<String> selectColumns = new ArrayList<>();
@@ -20,8 +27,22 @@ public class QueryBuilder {
     private Integer offsetValue;
     private Map<String, Object> insertData;
     private Map<String, Object> updateData;
+    private List<JoinClause> joins = new ArrayList<>();
+    private Map<String, Relation> relations = new LinkedHashMap<>();
 
-    private static class WhereClause {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // Separator between relation name and column in aliased projections,
+    // e.g. "author__username" -> author.username
+    private static final String NEST_SEPARATOR = "__";
+
+    // Join conditions compare columns, so they may only name them
+    private static final Pattern IDENTIFIER = Pattern.compile(
+            "[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+    private static final Set<String> JOIN_OPERATORS = new HashSet<>(
+            Arrays.asList("=", "!=", "<>", "<", "<=", ">", ">="));
+
+    static class WhereClause {
         String column;
         String operator;
         Object value;
@@ -33,11 +54,116 @@ public class QueryBuilder {
         }
     }
 
+    private static class JoinClause {
+        String type;
+        String table;
+        String first;
+        String operator;
+        String second;
+
+        JoinClause(String type, String table, String first, String operator, String second) {
+            this.type = type;
+            this.table = table;
+            this.first = first;
+            this.operator = operator;
+            this.second = second;
+        }
+    }
+
+    // Eagerly loaded association: columns aliased as property__column are
+    // folded into a nested object (one) or a list of nested objects (many)
+    private static class Relation {
+        String property;
+        boolean many;
+
+        Relation(String property, boolean many) {
+            this.property = property;
+            this.many = many;
+        }
+    }
+
     public QueryBuilder(Connection connection, String table) {
         this.connection = connection;
+        this.source = null;
+        this.memory = null;
         this.table = table;
     }
 
+    QueryBuilder(Database source, String table) {
+        this.connection = null;
+        this.source = source;
+        this.memory = null;
+        this.table = table;
+    }
+
+    QueryBuilder(MemoryDatabase memory, String table) {
+        this.connection = null;
+        this.source = null;
+        this.memory = memory;
+        this.table = table;
+    }
+
+    // A connection for one statement: borrowed from the pool and returned on
+    // close, or the caller's own connection which is left open. The statement's
+    // trace span and JFR event cover the pool wait and end with the lease.
+    private static final class Lease implements AutoCloseable {
+        final Connection connection;
+        final boolean borrowed;
+        final Span span;
+        final JfrEvents.Sql event;
+        final String operation;
+        final String sql;
+        long rows = -1;
+        boolean done;
+
+        Lease(Connection connection, boolean borrowed, Span span, JfrEvents.Sql event, String operation, String sql) {
+            this.connection = connection;
+            this.borrowed = borrowed;
+            this.span = span;
+            this.event = event;
+            this.operation = operation;
+            this.sql = sql;
+        }
+
+        // Statement succeeded with this many rows returned or affected
+        <T> T done(long rowCount, T result) {
+            rows = rowCount;
+            done = true;
+            return result;
+        }
+
+        @Override
+        public void close() throws SQLException {
+            try {
+                if (borrowed) {
+                    connection.close();
+                }
+            } finally {
+                span.close();
+                if (event != null) {
+                    event.record(operation, sql, rows, !done);
+                }
+            }
+        }
+    }
+
+    private Lease lease(String operation, String sql) throws SQLException {
+        Span span = Tracer.span("db", operation).attribute("db.statement", sql);
+        JfrEvents.Sql event = JfrEvents.sql();
+        if (connection != null) {
+            return new Lease(connection, false, span, event, operation, sql);
+        }
+        try {
+            return new Lease(source.getConnection(), true, span, event, operation, sql);
+        } catch (SQLException | RuntimeException e) {
+            span.error(e).close();
+            if (event != null) {
+                event.record(operation, sql, -1, true);
+            }
+            throw e;
+        }
+    }
+
     /**
      * Start a SELECT query
      */
@@ -49,6 +175,172 @@ public class QueryBuilder {
         return this;
     }
 
+    /**
+     * Add an aliased column to the SELECT list (column AS alias)
+     */
+    public QueryBuilder selectAs(String column, String alias) {
+        this.type = "SELECT";
+        if (!(selectColumns instanceof ArrayList)) {
+            selectColumns = new ArrayList<>(selectColumns);
+        }
+        selectColumns.add(column + " AS " + alias);
+        return this;
+    }
+
+    /**
+     * Add INNER JOIN
+     * Example: join("users u", "u.id", "=", "posts.user_id")
+     */
+    public QueryBuilder join(String table, String first, String operator, String second) {
+        joins.add(joinClause("INNER JOIN", table, first, operator, second));
+        return this;
+    }
+
+    /**
+     * Add INNER JOIN with = operator
+     */
+    public QueryBuilder join(String table, String first, String second) {
+        return join(table, first, "=", second);
+    }
+
+    /**
+     * Add LEFT JOIN
+     */
+    public QueryBuilder leftJoin(String table, String first, String operator, String second) {
+        joins.add(joinClause("LEFT JOIN", table, first, operator, second));
+        return this;
+    }
+
+    /**
+     * Add LEFT JOIN with = operator
+     */
+    public QueryBuilder leftJoin(String table, String first, String second) {
+        return leftJoin(table, first, "=", second);
+    }
+
+    // Join parts are spliced into the SQL, so only identifiers are accepted:
+    // "users", "users u" or "users AS u", and columns like "u.id"
+    private static JoinClause joinClause(String type, String table, String first, String operator, String second) {
+        String[] parts = table.trim().split("\\s+");
+        boolean validTable = parts.length == 1 && isIdentifier(parts[0])
+                || parts.length == 2 && isIdentifier(parts[0]) && isIdentifier(parts[1])
+                || parts.length == 3 && isIdentifier(parts[0]) && parts[1].equalsIgnoreCase("AS")
+                        && isIdentifier(parts[2]);
+        if (!validTable) {
+            throw new IllegalArgumentException("Invalid join table: " + table);
+        }
+        if (!isIdentifier(first) || !isIdentifier(second)) {
+            throw new IllegalArgumentException("Invalid join condition: " + first + " " + operator + " " + second);
+        }
+        if (!JOIN_OPERATORS.contains(operator)) {
+            throw new IllegalArgumentException("Invalid join operator: " + operator);
+        }
+        return new JoinClause(type, table.trim(), first, operator, second);
+    }
+
+    private static boolean isIdentifier(String name) {
+        return name != null && IDENTIFIER.matcher(name).matches();
+    }
+
+    /**
+     * Eager-load a single related row (many-to-one / one-to-one) in the same
+     * query. The related table is LEFT JOINed under the alias {@code property}
+     * and its columns are mapped into a nested object.
+     *
+     * Example: withOne("author", "users", "id", "user_id", "username", "full_name")
+     * maps each post to { ..., "author": { "username": ..., "full_name": ... } }
+     *
+     * @param property   Name of the nested property (also used as SQL alias)
+     * @param table      Related table
+     * @param foreignKey Column on the related table
+     * @param localKey   Column on this table
+     * @param columns    Related columns to load
+     */
+    public QueryBuilder withOne(String property, String table, String foreignKey, String localKey,
+            String... columns) {
+        return with(property, table, foreignKey, localKey, false, columns);
+    }
+
+    /**
+     * Eager-load a list of related rows (one-to-many) in the same query.
+     * Joined rows are grouped by this table's "id" column, so the base "id"
+     * must be part of the projection; with several withMany() relations each
+     * must also select its own "id". Note that limit() applies to joined
+     * rows, not to parents, so first() is rejected; find(id) loads every
+     * child of that parent.
+     *
+     * Example: withMany("comments", "comments", "post_id", "id", "id", "body")
+     */
+    public QueryBuilder withMany(String property, String table, String foreignKey, String localKey,
+            String... columns) {
+        return with(property, table, foreignKey, localKey, true, columns);
+    }
+
+    private QueryBuilder with(String property, String table, String foreignKey, String localKey, boolean many,
+            String... columns) {
+        if (!property.matches("[A-Za-z_][A-Za-z0-9_]*") || property.contains(NEST_SEPARATOR)) {
+            throw new IllegalArgumentException("Invalid relation name: " + property);
+        }
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("Relation '" + property + "' must select at least one column");
+        }
+        for (String column : columns) {
+            if (!isIdentifier(column) || column.contains(".")) {
+                throw new IllegalArgumentException("Invalid column for relation '" + property + "': " + column);
+            }
+        }
+
+        // Qualify the base projection so joined columns don't clash with it
+        if (selectColumns.isEmpty()) {
+            selectColumns = new ArrayList<>();
+            selectColumns.add(baseAlias() + ".*");
+        }
+
+        leftJoin(table + " " + property, property + "." + foreignKey, "=", qualify(localKey));
+        for (String column : columns) {
+            selectAs(property + "." + column, property + NEST_SEPARATOR + column);
+        }
+        relations.put(property, new Relation(property, many));
+        return this;
+    }
+
+    // Alias of the base table: "posts" -> "posts", "posts p" -> "p"
+    private String baseAlias() {
+        String[] parts = table.trim().split("\\s+");
+        return parts[parts.length - 1];
+    }
+
+    private String qualify(String column) {
+        return column.contains(".") ? column : baseAlias() + "." + column;
+    }
+
+    /**
+     * Once another table is joined, a bare column (where("id", ...),
+     * orderBy("created_at")) means the base table's, so it can't be
+     * ambiguous. Expressions, qualified names and select aliases are kept.
+     */
+    private String selectColumn(String column) {
+        if (joins.isEmpty() || !isIdentifier(column) || column.contains(".")) {
+            return column;
+        }
+        for (String selected : selectColumns) {
+            int as = selected.toUpperCase().lastIndexOf(" AS ");
+            if (as > 0 && selected.substring(as + 4).trim().equals(column)) {
+                return column;
+            }
+        }
+        return qualify(column);
+    }
+
+    private boolean hasManyRelation() {
+        for (Relation relation : relations.values()) {
+            if (relation.many) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Add WHERE clause
      */
@@ -96,33 +388,72 @@ public class QueryBuilder {
         return this;
     }
 
+    /**
+     * The SELECT this builder would run, with ? placeholders
+     */
+    public String toSql() {
+        return buildSelectSQL();
+    }
+
     /**
      * Execute SELECT and return list of results
      */
     public <T> List<T> get(Class<T> clazz) throws SQLException {
-        String sql = buildSelectSQL();
         List<T> results = new ArrayList<>();
+        if (memory != null) {
+            for (Map<String, Object> row : memorySelect()) {
+                results.add(mapper.convertValue(row, clazz));
+            }
+            return results;
+        }
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        String sql = buildSelectSQL();
+
+        try (Lease lease = lease(type, sql); PreparedStatement stmt = lease.connection.prepareStatement(sql)) {
             setWhereParameters(stmt);
 
             try (ResultSet rs = stmt.executeQuery()) {
-                ObjectMapper mapper = new ObjectMapper();
+                if (!relations.isEmpty()) {
+                    for (Map<String, Object> row : nestRows(rs)) {
+                        results.add(mapper.convertValue(row, clazz));
+                    }
+                    return lease.done(results.size(), results);
+                }
                 while (rs.next()) {
                     Map<String, Object> row = resultSetToMap(rs);
                     T obj = mapper.convertValue(row, clazz);
                     results.add(obj);
                 }
             }
+            lease.done(results.size(), results);
         }
 
         return results;
     }
 
+    /**
+     * Execute SELECT on the async database executor
+     */
+    public <T> CompletableFuture<List<T>> getAsync(Class<T> clazz) {
+        return Database.getInstance().getAsyncExecutor().submit(() -> get(clazz));
+    }
+
+    /**
+     * Execute SELECT on the async database executor and return list of maps
+     */
+    public CompletableFuture<List<Map<String, Object>>> getAsync() {
+        return Database.getInstance().getAsyncExecutor().submit(() -> get());
+    }
+
     /**
      * Execute SELECT and return first result
      */
     public <T> T first(Class<T> clazz) throws SQLException {
+        if (hasManyRelation()) {
+            // LIMIT 1 would cut the joined rows down to a single child
+            throw new IllegalStateException(
+                    "first() can't be combined with withMany(); use find(id), or get() with a where on the id");
+        }
         this.limitValue = 1;
         List<T> results = get(clazz);
         return results.isEmpty() ? null : results.get(0);
@@ -132,6 +463,11 @@ public class QueryBuilder {
      * Find a single record by ID
      */
     public <T> T find(Object id, Class<T> clazz) throws SQLException {
+        if (hasManyRelation()) {
+            // The id already selects one parent; its joined rows all belong to it
+            List<T> results = where("id", id).get(clazz);
+            return results.isEmpty() ? null : results.get(0);
+        }
         return where("id", id).first(clazz);
     }
 
@@ -140,7 +476,6 @@ public class QueryBuilder {
      * Assumes "id" field determines if it's new or existing.
      */
     public int save(Object entity) throws SQLException {
-        ObjectMapper mapper = new ObjectMapper();
         // Convert object to map
         Map<String, Object> map = mapper.convertValue(entity,
                 new com.fasterxml.jackson.core.type.TypeReference<Map<String, Object>>() {
@@ -166,22 +501,89 @@ public class QueryBuilder {
      * Execute SELECT and return list of maps
      */
     public List<Map<String, Object>> get() throws SQLException {
+        if (memory != null) {
+            return memorySelect();
+        }
+
         String sql = buildSelectSQL();
         List<Map<String, Object>> results = new ArrayList<>();
 
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Lease lease = lease(type, sql); PreparedStatement stmt = lease.connection.prepareStatement(sql)) {
             setWhereParameters(stmt);
 
             try (ResultSet rs = stmt.executeQuery()) {
+                if (!relations.isEmpty()) {
+                    List<Map<String, Object>> nested = nestRows(rs);
+                    return lease.done(nested.size(), nested);
+                }
                 while (rs.next()) {
                     results.add(resultSetToMap(rs));
                 }
             }
+            lease.done(results.size(), results);
         }
 
         return results;
     }
 
+    /**
+     * Execute SELECT and return the rows in columnar form
+     */
+    public ColumnarResult getColumnar() throws SQLException {
+        if (!relations.isEmpty()) {
+            throw new IllegalStateException("Columnar results do not support withOne/withMany relations");
+        }
+        if (memory != null) {
+            List<Map<String, Object>> rows = memorySelect();
+            Set<String> columns = new LinkedHashSet<>();
+            for (Map<String, Object> row : rows) {
+                columns.addAll(row.keySet());
+            }
+            return ColumnarResult.fromRows(new ArrayList<>(columns), rows);
+        }
+
+        String sql = buildSelectSQL();
+        try (Lease lease = lease(type, sql); PreparedStatement stmt = lease.connection.prepareStatement(sql)) {
+            setWhereParameters(stmt);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                ColumnarResult result = ColumnarResult.from(rs);
+                return lease.done(result.rowCount(), result);
+            }
+        }
+    }
+
+    /**
+     * DELETE matching rows in primary-key batches, committing each batch.
+     * Example (inside a @Scheduled task):
+     * db.table("posts").where("likes_count", 0).deleteInChunks(1000, 200)
+     *
+     * @param chunkSize   Rows per batch
+     * @param pauseMillis Pause between batches
+     */
+    public ChunkedOperation.Progress deleteInChunks(int chunkSize, long pauseMillis) throws SQLException {
+        return chunked(chunkSize).pause(pauseMillis).delete();
+    }
+
+    /**
+     * UPDATE matching rows in primary-key batches, committing each batch
+     */
+    public ChunkedOperation.Progress updateInChunks(Map<String, Object> data, int chunkSize, long pauseMillis)
+            throws SQLException {
+        return chunked(chunkSize).pause(pauseMillis).update(data);
+    }
+
+    /**
+     * Configure a chunked DELETE/UPDATE with rate limiting, resumable
+     * checkpoints and progress reporting
+     */
+    public ChunkedOperation chunked(int chunkSize) {
+        if (!joins.isEmpty() || !relations.isEmpty()) {
+            throw new IllegalStateException("Chunked operations do not support joins");
+        }
+        return new ChunkedOperation(this, chunkSize);
+    }
+
     /**
      * INSERT data
      */
@@ -189,14 +591,19 @@ public class QueryBuilder {
         this.type = "INSERT";
         this.insertData = data;
 
+        if (memory != null) {
+            return (int) memory.resolve(table).insert(data);
+        }
+
         String sql = buildInsertSQL();
-        try (PreparedStatement stmt = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Lease lease = lease(type, sql);
+                PreparedStatement stmt = lease.connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             int index = 1;
             for (Object value : data.values()) {
                 stmt.setObject(index++, value);
             }
 
-            stmt.executeUpdate();
+            lease.done(stmt.executeUpdate(), null);
 
             // Return generated ID
             try (ResultSet rs = stmt.getGeneratedKeys()) {
@@ -216,8 +623,12 @@ public class QueryBuilder {
         this.type = "UPDATE";
         this.updateData = data;
 
+        if (memory != null) {
+            return memory.resolve(table).update(whereClauses, data);
+        }
+
         String sql = buildUpdateSQL();
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Lease lease = lease(type, sql); PreparedStatement stmt = lease.connection.prepareStatement(sql)) {
             int index = 1;
 
             // Set update values
@@ -230,7 +641,8 @@ public class QueryBuilder {
                 stmt.setObject(index++, where.value);
             }
 
-            return stmt.executeUpdate();
+            int updated = stmt.executeUpdate();
+            return lease.done(updated, updated);
         }
     }
 
@@ -240,13 +652,63 @@ public class QueryBuilder {
     public int delete() throws SQLException {
         this.type = "DELETE";
 
+        if (memory != null) {
+            return memory.resolve(table).delete(whereClauses);
+        }
+
         String sql = buildDeleteSQL();
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Lease lease = lease(type, sql); PreparedStatement stmt = lease.connection.prepareStatement(sql)) {
             setWhereParameters(stmt);
-            return stmt.executeUpdate();
+            int deleted = stmt.executeUpdate();
+            return lease.done(deleted, deleted);
+        }
+    }
+
+    String tableName() {
+        return table;
+    }
+
+    /**
+     * New builder on the same backend for another table
+     */
+    QueryBuilder sibling(String otherTable) {
+        if (memory != null) {
+            return new QueryBuilder(memory, otherTable);
+        }
+        return source != null ? new QueryBuilder(source, otherTable) : new QueryBuilder(connection, otherTable);
+    }
+
+    /**
+     * New builder on the same table with the same WHERE conditions only
+     */
+    QueryBuilder copyWhere() {
+        QueryBuilder copy = sibling(table);
+        copy.whereClauses = new ArrayList<>(whereClauses);
+        return copy;
+    }
+
+    /**
+     * Run a statement without results (DDL); ignored on the memory driver,
+     * whose tables need no schema
+     */
+    void executeStatement(String sql) throws SQLException {
+        if (memory != null) {
+            return;
+        }
+        try (Lease lease = lease("DDL", sql); PreparedStatement stmt = lease.connection.prepareStatement(sql)) {
+            stmt.execute();
+            lease.done(-1, null);
         }
     }
 
+    private List<Map<String, Object>> memorySelect() {
+        if (!joins.isEmpty()) {
+            throw new UnsupportedOperationException("Joins are not supported by the memory driver");
+        }
+        return memory.resolve(table).select(whereClauses, selectColumns, orderByColumn, orderByDirection,
+                limitValue, offsetValue);
+    }
+
     // SQL Building Methods
 
     private String buildSelectSQL() {
@@ -255,15 +717,25 @@ public class QueryBuilder {
         if (selectColumns.isEmpty()) {
             sql.append("*");
         } else {
-            sql.append(String.join(", ", selectColumns));
+            List<String> columns = new ArrayList<>(selectColumns.size());
+            for (String column : selectColumns) {
+                columns.add(selectColumn(column));
+            }
+            sql.append(String.join(", ", columns));
         }
 
         sql.append(" FROM ").append(table);
 
-        appendWhereClauses(sql);
+        for (JoinClause join : joins) {
+            sql.append(" ").append(join.type).append(" ").append(join.table)
+                    .append(" ON ").append(join.first).append(" ").append(join.operator).append(" ")
+                    .append(join.second);
+        }
+
+        appendWhereClauses(sql, true);
 
         if (orderByColumn != null) {
-            sql.append(" ORDER BY ").append(orderByColumn).append(" ").append(orderByDirection);
+            sql.append(" ORDER BY ").append(selectColumn(orderByColumn)).append(" ").append(orderByDirection);
         }
 
         if (limitValue != null) {
@@ -297,23 +769,24 @@ public class QueryBuilder {
         }
         sql.append(String.join(", ", setParts));
 
-        appendWhereClauses(sql);
+        appendWhereClauses(sql, false);
 
         return sql.toString();
     }
 
     private String buildDeleteSQL() {
         StringBuilder sql = new StringBuilder("DELETE FROM ").append(table);
-        appendWhereClauses(sql);
+        appendWhereClauses(sql, false);
         return sql.toString();
     }
 
-    private void appendWhereClauses(StringBuilder sql) {
+    private void appendWhereClauses(StringBuilder sql, boolean select) {
         if (!whereClauses.isEmpty()) {
             sql.append(" WHERE ");
             List<String> whereParts = new ArrayList<>();
             for (WhereClause where : whereClauses) {
-                whereParts.add(where.column + " " + where.operator + " ?");
+                String column = select ? selectColumn(where.column) : where.column;
+                whereParts.add(column + " " + where.operator + " ?");
             }
             sql.append(String.join(" AND ", whereParts));
         }
@@ -332,11 +805,125 @@ public class QueryBuilder {
         int columnCount = metaData.getColumnCount();
 
         for (int i = 1; i <= columnCount; i++) {
-            String columnName = metaData.getColumnName(i);
+            // Label honours "AS alias"; it equals the column name otherwise
+            String columnName = metaData.getColumnLabel(i);
             Object value = rs.getObject(i);
             row.put(columnName, value);
         }
 
         return row;
     }
+
+    /**
+     * Map joined rows into parent rows with nested relation objects in a
+     * single pass over the ResultSet. Rows of one-to-many relations are
+     * grouped by the parent's "id".
+     */
+    private List<Map<String, Object>> nestRows(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+
+        // Resolve every column once: relation (or null for the base row) + name
+        String[] names = new String[columnCount + 1];
+        Relation[] owners = new Relation[columnCount + 1];
+        // Label of the "id" column per owner ("" for the base row); drivers differ in case
+        Map<String, String> idLabels = new HashMap<>();
+        for (int i = 1; i <= columnCount; i++) {
+            String label = metaData.getColumnLabel(i);
+            int sep = label.indexOf(NEST_SEPARATOR);
+            Relation relation = sep > 0 ? relations.get(label.substring(0, sep)) : null;
+            owners[i] = relation;
+            names[i] = relation != null ? label.substring(sep + NEST_SEPARATOR.length()) : label;
+            if (names[i].equalsIgnoreCase("id")) {
+                idLabels.putIfAbsent(relation != null ? relation.property : "", names[i]);
+            }
+        }
+
+        int manyCount = 0;
+        for (Relation relation : relations.values()) {
+            if (relation.many) {
+                manyCount++;
+            }
+        }
+        String baseId = idLabels.get("");
+        if (manyCount > 0 && baseId == null) {
+            throw new IllegalStateException("withMany() groups rows by the base \"id\" column; add it to select()");
+        }
+        // Several one-to-many joins multiply rows, so their children are
+        // de-duplicated by id; a single one keeps every joined row as is
+        boolean dedupe = manyCount > 1;
+        if (dedupe) {
+            for (Relation relation : relations.values()) {
+                if (relation.many && !idLabels.containsKey(relation.property)) {
+                    throw new IllegalStateException("Relation '" + relation.property
+                            + "' must select \"id\" when several withMany() relations are loaded");
+                }
+            }
+        }
+
+        Map<Object, Map<String, Object>> parents = new LinkedHashMap<>();
+        Map<Object, Map<String, Set<Object>>> seenChildren = new HashMap<>();
+
+        while (rs.next()) {
+            Map<String, Object> base = new HashMap<>();
+            Map<String, Map<String, Object>> nested = new HashMap<>();
+            for (int i = 1; i <= columnCount; i++) {
+                Object value = rs.getObject(i);
+                if (owners[i] == null) {
+                    base.put(names[i], value);
+                } else {
+                    nested.computeIfAbsent(owners[i].property, k -> new HashMap<>()).put(names[i], value);
+                }
+            }
+
+            Object key = manyCount > 0 ? base.get(baseId) : null;
+            if (key == null) {
+                key = new Object(); // No grouping possible: every row is its own parent
+            }
+
+            Map<String, Object> parent = parents.get(key);
+            if (parent == null) {
+                parent = base;
+                parents.put(key, parent);
+                for (Relation relation : relations.values()) {
+                    if (relation.many) {
+                        parent.put(relation.property, new ArrayList<>());
+                    } else {
+                        Map<String, Object> child = nested.get(relation.property);
+                        parent.put(relation.property, isAllNull(child) ? null : child);
+                    }
+                }
+            }
+
+            for (Relation relation : relations.values()) {
+                Map<String, Object> child = nested.get(relation.property);
+                if (!relation.many || isAllNull(child)) {
+                    continue; // LEFT JOIN without a match
+                }
+                if (dedupe && !seenChildren
+                        .computeIfAbsent(key, k -> new HashMap<>())
+                        .computeIfAbsent(relation.property, k -> new HashSet<>())
+                        .add(child.get(idLabels.get(relation.property)))) {
+                    continue;
+                }
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> list = (List<Map<String, Object>>) parent.get(relation.property);
+                list.add(child);
+            }
+        }
+
+        return new ArrayList<>(parents.values());
+    }
+
+    private static boolean isAllNull(Map<String, Object> values) {
+        if (values == null) {
+            return true;
+        }
+        for (Object value : values.values()) {
+            if (value != null) {
+                return false;
+            }
+        }
+        return true;
+    }
 }
@@ -0,0 +1,358 @@
+package dev.artha.http;
+
+import dev.artha.core.ConfigManager;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.RequestLog;
+import org.eclipse.jetty.server.Response;
+
+/**
+ * Built-in access log.
+ *
+ * Jetty calls log() once each response is complete. The request thread only
+ * copies field references and numbers into a preallocated ring buffer slot;
+ * a single background thread formats the lines and appends them to a
+ * rolling file, so no request waits on string formatting or disk I/O. When
+ * the buffer is full, entries are dropped (and counted) or, with
+ * dropWhenFull false, the request thread waits for room.
+ *
+ * Each line is logfmt: time, method, path, route template, status, latency,
+ * response bytes and request id (the X-Request-Id header, or a sequence
+ * number when absent).
+ *
+ * Configured via artha.json:
+ * "accessLog": { "file": "logs/access.log", "bufferSize": 8192,
+ * "dropWhenFull": true, "maxFileBytes": 10485760, "maxFiles": 5 }
+ */
+public class AccessLog implements RequestLog {
+    private static AccessLog instance;
+
+    /** Request attribute holding the matched route template */
+    public static final String ROUTE = "artha.route";
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ISO_INSTANT;
+
+    private final boolean enabled;
+    private final boolean dropWhenFull;
+    private final Path file;
+    private final long maxFileBytes;
+    private final int maxFiles;
+
+    // Ring buffer: producers claim sequences, the writer consumes them in order
+    private final Entry[] ring;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private volatile boolean writerParked;
+    private volatile boolean running = true;
+    private Thread writer;
+
+    // Writer state (writer thread only)
+    private final StringBuilder line = new StringBuilder(256);
+    private final ByteBuffer out = ByteBuffer.allocateDirect(64 * 1024);
+    private FileChannel channel;
+    private long fileBytes;
+
+    // Metrics
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder rotations = new LongAdder();
+
+    /**
+     * One ring slot, reused for every request that lands on it
+     */
+    private static final class Entry {
+        volatile long sequence = -1; // published once the fields are set
+        long timestamp;
+        String method;
+        String path;
+        String route;
+        int status;
+        long latencyNanos;
+        long bytes;
+        String requestId;
+    }
+
+    private AccessLog() {
+        ConfigManager config = ConfigManager.getInstance();
+        Boolean enabledConfig = config.getBoolean("accessLog.enabled");
+        String fileConfig = config.getString("accessLog.file");
+        Integer bufferConfig = config.getInt("accessLog.bufferSize");
+        Boolean dropConfig = config.getBoolean("accessLog.dropWhenFull");
+        Integer maxBytesConfig = config.getInt("accessLog.maxFileBytes");
+        Integer maxFilesConfig = config.getInt("accessLog.maxFiles");
+
+        this.enabled = config.get("accessLog") != null && (enabledConfig == null || enabledConfig);
+        this.file = Paths.get(fileConfig != null ? fileConfig : "logs/access.log");
+        this.dropWhenFull = dropConfig == null || dropConfig;
+        this.maxFileBytes = maxBytesConfig != null && maxBytesConfig > 0 ? maxBytesConfig : 10L * 1024 * 1024;
+        this.maxFiles = maxFilesConfig != null ? Math.max(1, maxFilesConfig) : 5;
+
+        int size = Integer.highestOneBit(Math.max(16, bufferConfig != null ? bufferConfig : 8192) - 1) << 1;
+        this.ring = new Entry[size];
+        for (int i = 0; i < size; i++) {
+            ring[i] = new Entry();
+        }
+        this.mask = size - 1;
+
+        if (enabled) {
+            writer = new Thread(this::drain, "artha-access-log");
+            writer.setDaemon(true);
+            writer.start();
+            java.lang.Runtime.getRuntime().addShutdownHook(new Thread(this::close, "artha-access-log-shutdown"));
+        }
+    }
+
+    public static synchronized AccessLog getInstance() {
+        if (instance == null) {
+            instance = new AccessLog();
+        }
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Jetty hook, called on the request thread after the response is complete
+     */
+    @Override
+    public void log(Request request, Response response) {
+        long latency = System.nanoTime() - request.getBeginNanoTime();
+        record(request.getTimeStamp(), request.getMethod(), request.getRequestURI(),
+                (String) request.getAttribute(ROUTE), response.getStatus(), latency,
+                response.getHttpChannel().getBytesWritten(), request.getHeader("X-Request-Id"));
+    }
+
+    /**
+     * Queue one entry; the strings are stored as references, not copied
+     *
+     * @return false if the buffer was full and the entry was dropped
+     */
+    public boolean record(long timestamp, String method, String path, String route, int status, long latencyNanos,
+            long bytes, String requestId) {
+        if (!running) {
+            return false;
+        }
+        long sequence;
+        while (true) {
+            sequence = claimed.get();
+            if (sequence - consumed.get() >= ring.length) {
+                if (dropWhenFull) {
+                    dropped.increment();
+                    return false;
+                }
+                wakeWriter();
+                LockSupport.parkNanos(50_000);
+                if (!running) {
+                    return false;
+                }
+                continue;
+            }
+            if (claimed.compareAndSet(sequence, sequence + 1)) {
+                break;
+            }
+        }
+        Entry entry = ring[(int) sequence & mask];
+        entry.timestamp = timestamp;
+        entry.method = method;
+        entry.path = path;
+        entry.route = route;
+        entry.status = status;
+        entry.latencyNanos = latencyNanos;
+        entry.bytes = bytes;
+        entry.requestId = requestId;
+        entry.sequence = sequence; // publish
+        recorded.increment();
+        if (writerParked) {
+            wakeWriter();
+        }
+        return true;
+    }
+
+    private void wakeWriter() {
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private void drain() {
+        try {
+            open();
+        } catch (IOException e) {
+            System.err.println("❌ Access log disabled, cannot open " + file + ": " + e.getMessage());
+            running = false;
+            return;
+        }
+        long next = 0;
+        while (true) {
+            Entry entry = ring[(int) next & mask];
+            if (entry.sequence != next) {
+                flushQuietly();
+                if (!running && claimed.get() == next) {
+                    break;
+                }
+                // Announce the park, then re-check so a publish in between isn't missed
+                writerParked = true;
+                if (entry.sequence != next && running) {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+                }
+                writerParked = false;
+                continue;
+            }
+            format(entry, next);
+            // Drop references so the slot doesn't keep request strings alive
+            entry.path = null;
+            entry.route = null;
+            entry.requestId = null;
+            consumed.lazySet(++next);
+            append();
+            written.increment();
+        }
+        flushQuietly();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Shutting down
+        }
+    }
+
+    private void format(Entry entry, long sequence) {
+        StringBuilder b = line;
+        b.setLength(0);
+        TIME.formatTo(Instant.ofEpochMilli(entry.timestamp), b);
+        b.append(" method=").append(entry.method);
+        b.append(" path=").append(entry.path);
+        b.append(" route=").append(entry.route != null ? entry.route : "-");
+        b.append(" status=").append(entry.status);
+        long micros = entry.latencyNanos / 1000;
+        b.append(" ms=").append(micros / 1000).append('.');
+        long fraction = micros % 1000;
+        if (fraction < 100) {
+            b.append(fraction < 10 ? "00" : "0");
+        }
+        b.append(fraction);
+        b.append(" bytes=").append(entry.bytes);
+        b.append(" id=");
+        if (entry.requestId != null) {
+            b.append(entry.requestId);
+        } else {
+            b.append(sequence);
+        }
+        b.append('\n');
+    }
+
+    private void append() {
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > out.remaining()) {
+            flushQuietly();
+        }
+        if (bytes.length > out.capacity()) {
+            writeQuietly(ByteBuffer.wrap(bytes));
+            return;
+        }
+        out.put(bytes);
+    }
+
+    private void flushQuietly() {
+        if (out.position() == 0) {
+            return;
+        }
+        out.flip();
+        writeQuietly(out);
+        out.clear();
+    }
+
+    private void writeQuietly(ByteBuffer buffer) {
+        try {
+            if (fileBytes > 0 && fileBytes + buffer.remaining() > maxFileBytes) {
+                rotate();
+            }
+            while (buffer.hasRemaining()) {
+                fileBytes += channel.write(buffer);
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️  Access log write failed: " + e.getMessage());
+            buffer.position(buffer.limit());
+        }
+    }
+
+    private void open() throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        fileBytes = channel.size();
+    }
+
+    // access.log -> access.log.1 -> ... -> access.log.<maxFiles>, oldest deleted
+    private void rotate() throws IOException {
+        channel.close();
+        Files.deleteIfExists(rolled(maxFiles));
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path from = rolled(i);
+            if (Files.exists(from)) {
+                Files.move(from, rolled(i + 1), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rolled(1), StandardCopyOption.REPLACE_EXISTING);
+        rotations.increment();
+        open();
+    }
+
+    private Path rolled(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    /**
+     * Stop accepting entries and wait for the queued ones to be written
+     */
+    public void close() {
+        running = false;
+        Thread thread = writer;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+            try {
+                thread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Entries recorded, dropped on a full buffer, written, and still queued
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("file", file.toString());
+        stats.put("bufferSize", ring.length);
+        stats.put("queued", claimed.get() - consumed.get());
+        stats.put("recorded", recorded.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("written", written.sum());
+        stats.put("rotations", rotations.sum());
+        return stats;
+    }
+}
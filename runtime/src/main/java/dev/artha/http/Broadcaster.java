@@ -0,0 +1,315 @@
+package dev.artha.http;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.artha.core.ConfigManager;
+import io.javalin.http.sse.SseClient;
+import io.javalin.websocket.WsContext;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Topic-based fan-out to @Sse and @WebSocket connections.
+ *
+ * publish() serializes the payload once and offers it to each subscriber's
+ * queue without blocking; a small pool of writer threads sends each
+ * connection's pending messages as one batch. Connections whose queue
+ * overflows, or whose write blocks for longer than writeTimeoutMs, are
+ * disconnected (slow-consumer eviction), so stalled clients can't hold
+ * messages or writer threads for everyone else. SSE connections get a
+ * comment heartbeat so dead clients are noticed.
+ *
+ * Configured via artha.json:
+ * "push": { "queueSize": 256, "writers": 4, "heartbeatMs": 15000, "writeTimeoutMs": 10000 }
+ */
+public class Broadcaster {
+    private static Broadcaster instance;
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final Message HEARTBEAT = new Message(null, null, false);
+
+    private final int queueSize;
+    private final ExecutorService writers;
+    private final ScheduledExecutorService heartbeat;
+    private final Map<String, Set<PushConnection>> topics = new ConcurrentHashMap<>();
+    private final Set<PushConnection> connections = ConcurrentHashMap.newKeySet();
+    private final Map<String, PushConnection> webSockets = new ConcurrentHashMap<>(); // by session id
+
+    // Metrics
+    private final LongAdder connected = new LongAdder();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * A published message, serialized once and framed lazily per transport
+     */
+    static final class Message {
+        private final String event;
+        private final String data;
+        private final boolean json; // false for String payloads
+        private volatile byte[] sse;
+        private volatile String text;
+
+        Message(String event, String data, boolean json) {
+            this.event = event;
+            this.data = data;
+            this.json = json;
+        }
+
+        boolean isHeartbeat() {
+            return data == null;
+        }
+
+        byte[] sse() {
+            byte[] frame = sse;
+            if (frame == null) {
+                StringBuilder builder = new StringBuilder();
+                if (data == null) {
+                    builder.append(": ping\n");
+                } else {
+                    if (event != null) {
+                        builder.append("event: ").append(event).append('\n');
+                    }
+                    for (String line : data.split("\n", -1)) {
+                        builder.append("data: ").append(line).append('\n');
+                    }
+                }
+                frame = builder.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+                sse = frame;
+            }
+            return frame;
+        }
+
+        String text() {
+            String frame = text;
+            if (frame == null) {
+                // {"event": ..., "data": ...} around the already serialized data
+                frame = "{\"event\":" + quote(event) + ",\"data\":" + (json ? data : quote(data)) + "}";
+                text = frame;
+            }
+            return frame;
+        }
+    }
+
+    private Broadcaster() {
+        ConfigManager config = ConfigManager.getInstance();
+        Integer queueConfig = config.getInt("push.queueSize");
+        Integer writersConfig = config.getInt("push.writers");
+        Integer heartbeatConfig = config.getInt("push.heartbeatMs");
+        Integer writeTimeoutConfig = config.getInt("push.writeTimeoutMs");
+        this.queueSize = queueConfig != null ? Math.max(1, queueConfig) : 256;
+        int writerCount = writersConfig != null ? Math.max(1, writersConfig)
+                : Math.max(2, java.lang.Runtime.getRuntime().availableProcessors());
+        long heartbeatMs = heartbeatConfig != null ? heartbeatConfig : 15000;
+        long writeTimeoutMs = writeTimeoutConfig != null ? writeTimeoutConfig : 10000;
+
+        this.writers = Executors.newFixedThreadPool(writerCount, daemonThreads("artha-push"));
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(daemonThreads("artha-push-heartbeat"));
+        if (heartbeatMs > 0) {
+            heartbeat.scheduleAtFixedRate(this::sendHeartbeats, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        }
+        if (writeTimeoutMs > 0) {
+            long every = Math.max(100, writeTimeoutMs / 4);
+            heartbeat.scheduleAtFixedRate(() -> evictStalled(writeTimeoutMs), every, every, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static synchronized Broadcaster getInstance() {
+        if (instance == null) {
+            instance = new Broadcaster();
+        }
+        return instance;
+    }
+
+    /**
+     * Send to every connection subscribed to the topic (data is serialized to
+     * JSON unless a String)
+     *
+     * @return Number of connections the message was queued for
+     */
+    public int publish(String topic, String event, Object data) {
+        published.increment();
+        Set<PushConnection> subscribers = topics.get(topic);
+        if (subscribers == null || subscribers.isEmpty()) {
+            return 0;
+        }
+        Message message = message(event, data);
+        int queued = 0;
+        for (PushConnection connection : subscribers) {
+            if (connection.enqueue(message)) {
+                queued++;
+            }
+        }
+        enqueued.add(queued);
+        return queued;
+    }
+
+    public int publish(String topic, Object data) {
+        return publish(topic, null, data);
+    }
+
+    public int subscribers(String topic) {
+        Set<PushConnection> subscribers = topics.get(topic);
+        return subscribers != null ? subscribers.size() : 0;
+    }
+
+    public Set<PushConnection> connections() {
+        return Collections.unmodifiableSet(connections);
+    }
+
+    /**
+     * Connection for a new SSE client (Runtime calls this for @Sse routes)
+     */
+    public PushConnection open(SseClient client) {
+        return register(new SseConnection(client, queueSize));
+    }
+
+    /**
+     * Connection for a new WebSocket session (Runtime calls this for
+     * @WebSocket routes)
+     */
+    public PushConnection open(WsContext ws) {
+        String path = ws.session.getUpgradeRequest().getRequestURI().getPath();
+        WebSocketConnection connection = new WebSocketConnection(ws, path, queueSize);
+        webSockets.put(ws.sessionId(), connection);
+        return register(connection);
+    }
+
+    /**
+     * Pass an incoming WebSocket text message to the connection's handler
+     */
+    public void received(WsContext ws, String text) {
+        PushConnection connection = webSockets.get(ws.sessionId());
+        if (connection != null) {
+            connection.received(text);
+        }
+    }
+
+    /**
+     * The WebSocket session ended (closed by the client or failed)
+     */
+    public void closed(WsContext ws) {
+        PushConnection connection = webSockets.remove(ws.sessionId());
+        if (connection != null) {
+            connection.close();
+        }
+    }
+
+    private PushConnection register(PushConnection connection) {
+        connections.add(connection);
+        connected.increment();
+        return connection;
+    }
+
+    void subscribe(String topic, PushConnection connection) {
+        topics.compute(topic, (t, subscribers) -> {
+            Set<PushConnection> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+            set.add(connection);
+            return set;
+        });
+    }
+
+    void unsubscribe(String topic, PushConnection connection) {
+        topics.computeIfPresent(topic, (t, subscribers) -> {
+            subscribers.remove(connection);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    void remove(PushConnection connection) {
+        connections.remove(connection);
+        if (connection instanceof WebSocketConnection) {
+            webSockets.remove(((WebSocketConnection) connection).sessionId(), connection);
+        }
+        for (String topic : connection.topics()) {
+            unsubscribe(topic, connection);
+        }
+    }
+
+    void schedule(Runnable drain) {
+        writers.execute(drain);
+    }
+
+    void written(int messages) {
+        written.add(messages);
+    }
+
+    void evicted(PushConnection connection) {
+        evicted.increment();
+        System.err.println("⚠️  Disconnecting slow client " + connection.id() + " on " + connection.path());
+    }
+
+    private void sendHeartbeats() {
+        for (PushConnection connection : connections) {
+            if (connection.isSse()) {
+                connection.enqueue(HEARTBEAT);
+            }
+        }
+    }
+
+    private void evictStalled(long writeTimeoutMs) {
+        long now = System.currentTimeMillis();
+        for (PushConnection connection : connections) {
+            if (connection.isStalled(now, writeTimeoutMs)) {
+                connection.evict();
+            }
+        }
+    }
+
+    static Message message(String event, Object data) {
+        if (data instanceof String) {
+            return new Message(event, (String) data, false);
+        }
+        try {
+            return new Message(event, mapper.writeValueAsString(data), true);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize push message: " + e.getMessage(), e);
+        }
+    }
+
+    private static String quote(String value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e); // Strings always serialize
+        }
+    }
+
+    /**
+     * Connections, topics and message counts
+     */
+    public Map<String, Object> stats() {
+        long sse = connections.stream().filter(PushConnection::isSse).count();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("connections", connections.size());
+        stats.put("sse", sse);
+        stats.put("webSocket", connections.size() - sse);
+        stats.put("topics", topics.size());
+        stats.put("connected", connected.sum());
+        stats.put("published", published.sum());
+        stats.put("enqueued", enqueued.sum());
+        stats.put("written", written.sum());
+        stats.put("evicted", evicted.sum());
+        return stats;
+    }
+
+    private static java.util.concurrent.ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,189 @@
+package dev.artha.http;
+
+import dev.artha.core.ConfigManager;
+import io.javalin.compression.CompressionStrategy;
+import io.javalin.compression.Gzip;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response compression settings.
+ *
+ * Responses are gzip-compressed when the client accepts gzip, the body is
+ * at least minSize bytes and its content type is in the allow list.
+ * Handler responses are compressed on the fly by Javalin; responses served
+ * from the ResponseCache are compressed once when stored and the gzip bytes
+ * reused for every hit.
+ *
+ * Configured via artha.json:
+ * "compression": { "enabled": true, "level": 6, "minSize": 1024,
+ * "types": ["application/json", "text/html"] }
+ *
+ * Brotli is not offered: there is no pure-Java encoder, and gzip at level
+ * 4-6 already gets JSON to a fraction of its size.
+ */
+public class Compression {
+    private static Compression instance;
+
+    private static final List<String> DEFAULT_TYPES = Arrays.asList("application/json", "text/plain", "text/html",
+            "text/css", "text/csv", "text/xml", "application/xml", "text/javascript", "application/javascript",
+            "image/svg+xml");
+
+    private final boolean enabled;
+    private final int level;
+    private final int minSize;
+    private final Set<String> types = new LinkedHashSet<>();
+
+    // Metrics for responses compressed here (cache entries)
+    private final LongAdder compressed = new LongAdder();
+    private final LongAdder bytesIn = new LongAdder();
+    private final LongAdder bytesOut = new LongAdder();
+    private final LongAdder compressNanos = new LongAdder();
+
+    private Compression() {
+        ConfigManager config = ConfigManager.getInstance();
+        Boolean enabledConfig = config.getBoolean("compression.enabled");
+        Integer levelConfig = config.getInt("compression.level");
+        Integer minSizeConfig = config.getInt("compression.minSize");
+        this.enabled = enabledConfig == null || enabledConfig;
+        this.level = levelConfig != null ? clampLevel(levelConfig) : 6;
+        this.minSize = minSizeConfig != null ? Math.max(0, minSizeConfig) : 1024;
+
+        Object typesConfig = config.get("compression.types");
+        List<?> configured = typesConfig instanceof List ? (List<?>) typesConfig : DEFAULT_TYPES;
+        for (Object type : configured) {
+            types.add(type.toString().trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    public static synchronized Compression getInstance() {
+        if (instance == null) {
+            instance = new Compression();
+        }
+        return instance;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Javalin strategy for on-the-fly compression of handler responses
+     */
+    public CompressionStrategy strategy() {
+        CompressionStrategy strategy = new CompressionStrategy(null, new Gzip(level));
+        strategy.setDefaultMinSizeForCompression(minSize);
+        // Javalin matches the full Content-Type header, with or without charset
+        List<String> allowed = new ArrayList<>();
+        for (String type : types) {
+            allowed.add(type);
+            allowed.add(type + "; charset=utf-8");
+            allowed.add(type + ";charset=utf-8");
+            allowed.add(type + "; charset=UTF-8");
+        }
+        strategy.setAllowedMimeTypes(allowed);
+        // Every type contains "", so anything not allowed above is excluded
+        strategy.setExcludedMimeTypes(List.of(""));
+        return strategy;
+    }
+
+    /**
+     * Whether a body of this type and size should be compressed
+     */
+    public boolean shouldCompress(String contentType, int length) {
+        if (!enabled || length < minSize || contentType == null) {
+            return false;
+        }
+        int semicolon = contentType.indexOf(';');
+        String type = semicolon >= 0 ? contentType.substring(0, semicolon) : contentType;
+        return types.contains(type.trim().toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * gzip the body at the configured level
+     */
+    public byte[] gzip(byte[] body) {
+        long start = System.nanoTime();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 8192) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("gzip failed", e); // in-memory streams don't throw
+        }
+        byte[] result = out.toByteArray();
+        compressed.increment();
+        bytesIn.add(body.length);
+        bytesOut.add(result.length);
+        compressNanos.add(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows gzip (and doesn't set q=0)
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        return accepts(acceptEncoding, "gzip");
+    }
+
+    /**
+     * Whether an Accept-Encoding header allows the coding (and doesn't set q=0)
+     */
+    public static boolean accepts(String acceptEncoding, String contentCoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            if (coding.equalsIgnoreCase(contentCoding) || coding.equals("*")) {
+                for (int i = 1; i < tokens.length; i++) {
+                    String param = tokens[i].trim().replace(" ", "");
+                    if (param.equals("q=0") || param.matches("q=0\\.0*")) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Settings and savings for cached responses compressed here
+     */
+    public Map<String, Object> stats() {
+        long in = bytesIn.sum();
+        long out = bytesOut.sum();
+        long count = compressed.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("level", level);
+        stats.put("minSize", minSize);
+        stats.put("types", new ArrayList<>(types));
+        stats.put("compressed", count);
+        stats.put("bytesIn", in);
+        stats.put("bytesOut", out);
+        stats.put("savedRatio", in == 0 ? 0.0 : 1.0 - out / (double) in);
+        stats.put("avgCompressMs", count == 0 ? 0.0 : compressNanos.sum() / (double) count / 1_000_000.0);
+        return stats;
+    }
+
+    private static int clampLevel(int level) {
+        return Math.max(Deflater.BEST_SPEED, Math.min(Deflater.BEST_COMPRESSION, level));
+    }
+}
@@ -0,0 +1,20 @@
+package dev.artha.http;
+
+/**
+ * Error with an HTTP status; the default error handler answers with the
+ * status and message instead of 500.
+ */
+public class HttpException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    public HttpException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
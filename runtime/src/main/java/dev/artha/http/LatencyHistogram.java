@@ -0,0 +1,102 @@
+package dev.artha.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with HDR-style log-linear buckets.
+ *
+ * Each power of two is split into 16 linear sub-buckets, so any recorded
+ * value is known to within about 6%, from 1ns up to about 2.4 hours (larger
+ * values land in the last bucket). Recording is one atomic increment on the
+ * bucket plus two LongAdder adds; readers see a consistent-enough view
+ * without stopping writers.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 42;
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        long value = nanos < 0 ? 0 : Math.min(nanos, MAX_VALUE);
+        counts.incrementAndGet(index(value));
+        count.increment();
+        sum.add(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    public long sumNanos() {
+        return sum.sum();
+    }
+
+    public long maxNanos() {
+        return max.get();
+    }
+
+    /**
+     * Recorded values at or below the given bound (bucket resolution)
+     */
+    public long countAtOrBelow(long nanos) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS && upperBound(i) <= nanos + 1; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    /**
+     * Value below which the given percentage (0-100) of recordings fall, as
+     * the highest value of its bucket
+     */
+    public long percentile(double percent) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * Math.min(100.0, percent) / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) {
+                return Math.min(upperBound(i) - 1, maxNanos());
+            }
+        }
+        return maxNanos();
+    }
+
+    static int index(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + mantissa;
+    }
+
+    // Exclusive upper bound of a bucket
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index + 1;
+        }
+        int block = index / SUB_BUCKETS;
+        int mantissa = index % SUB_BUCKETS;
+        int exponent = block + SUB_BITS - 1;
+        long width = 1L << (block - 1);
+        return (1L << exponent) + (mantissa + 1) * width;
+    }
+}
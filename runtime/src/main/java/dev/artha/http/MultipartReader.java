@@ -0,0 +1,283 @@
+package dev.artha.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streaming multipart/form-data parser.
+ *
+ * Reads the request body through a fixed buffer and hands out each part as
+ * an InputStream that ends at the next boundary, so nothing is held in
+ * memory beyond the buffer. Part and request sizes are counted as bytes
+ * arrive and the read fails with 413 as soon as a limit is crossed.
+ */
+final class MultipartReader {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+
+    private final InputStream in;
+    private final byte[] delimiter; // CRLF--boundary
+    private final long maxRequestBytes;
+    private final long maxPartBytes;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int pos;
+    private int end;
+    private boolean eof;
+    private long requestBytes;
+    private boolean finished;
+    private PartStream current;
+
+    MultipartReader(InputStream in, String boundary, long maxRequestBytes, long maxPartBytes) {
+        this.in = in;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        this.maxRequestBytes = maxRequestBytes;
+        this.maxPartBytes = maxPartBytes;
+        if (delimiter.length > BUFFER_SIZE / 2) {
+            throw new UploadException(400, "Multipart boundary too long");
+        }
+        // The first boundary has no leading CRLF; pretend it does
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        end = 2;
+    }
+
+    /**
+     * Boundary from a multipart Content-Type, or null if not multipart
+     */
+    static String boundary(String contentType) {
+        if (contentType == null || !contentType.toLowerCase(Locale.ROOT).startsWith("multipart/")) {
+            return null;
+        }
+        Map<String, String> params = parameters(contentType);
+        String boundary = params.get("boundary");
+        return boundary != null && !boundary.isEmpty() ? boundary : null;
+    }
+
+    /**
+     * Move to the next part, skipping what's left of the current one
+     *
+     * @return The part's headers (lower-case names), or null after the last
+     *         part
+     */
+    Map<String, String> next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        // Preamble or unread rest of the previous part
+        PartStream skip = current != null ? current : new PartStream(Long.MAX_VALUE);
+        skip.skipAll();
+
+        // After the delimiter: "--" ends the body, CRLF starts a part
+        require(2);
+        if (buffer[pos] == '-' && buffer[pos + 1] == '-') {
+            finished = true;
+            current = null;
+            return null;
+        }
+        String rest = readLine(); // CRLF, possibly after transport padding
+        if (!rest.trim().isEmpty()) {
+            throw new UploadException(400, "Malformed multipart boundary");
+        }
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        int headerBytes = 0;
+        while (true) {
+            String line = readLine();
+            headerBytes += line.length() + 2;
+            if (headerBytes > MAX_HEADER_BYTES) {
+                throw new UploadException(400, "Multipart part headers too large");
+            }
+            if (line.isEmpty()) {
+                break;
+            }
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT),
+                        line.substring(colon + 1).trim());
+            }
+        }
+        current = new PartStream(maxPartBytes);
+        return headers;
+    }
+
+    /**
+     * Body of the part returned by the last next()
+     */
+    InputStream stream() {
+        return current;
+    }
+
+    /**
+     * Parameters of a header value like form-data; name="file"; filename="a.png"
+     */
+    static Map<String, String> parameters(String value) {
+        Map<String, String> params = new LinkedHashMap<>();
+        int i = value.indexOf(';');
+        while (i >= 0 && i < value.length()) {
+            int eq = value.indexOf('=', i);
+            if (eq < 0) {
+                break;
+            }
+            String key = value.substring(i + 1, eq).trim().toLowerCase(Locale.ROOT);
+            int start = eq + 1;
+            String param;
+            int next;
+            if (start < value.length() && value.charAt(start) == '"') {
+                StringBuilder quoted = new StringBuilder();
+                int j = start + 1;
+                while (j < value.length() && value.charAt(j) != '"') {
+                    if (value.charAt(j) == '\\' && j + 1 < value.length()) {
+                        j++;
+                    }
+                    quoted.append(value.charAt(j++));
+                }
+                param = quoted.toString();
+                next = value.indexOf(';', j);
+            } else {
+                next = value.indexOf(';', start);
+                param = value.substring(start, next >= 0 ? next : value.length()).trim();
+            }
+            params.put(key, param);
+            i = next;
+        }
+        return params;
+    }
+
+    private String readLine() throws IOException {
+        while (true) {
+            for (int i = pos; i + 1 < end; i++) {
+                if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                    String line = new String(buffer, pos, i - pos, StandardCharsets.UTF_8);
+                    pos = i + 2;
+                    return line;
+                }
+            }
+            if (end - pos >= MAX_HEADER_BYTES) {
+                throw new UploadException(400, "Multipart header line too long");
+            }
+            if (!fill()) {
+                throw new UploadException(400, "Unexpected end of multipart body");
+            }
+        }
+    }
+
+    private void require(int bytes) throws IOException {
+        while (end - pos < bytes) {
+            if (!fill()) {
+                throw new UploadException(400, "Unexpected end of multipart body");
+            }
+        }
+    }
+
+    // Compact and read more; false at end of input
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        if (pos > 0) {
+            System.arraycopy(buffer, pos, buffer, 0, end - pos);
+            end -= pos;
+            pos = 0;
+        }
+        int read = in.read(buffer, end, buffer.length - end);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        end += read;
+        requestBytes += read;
+        if (requestBytes > maxRequestBytes) {
+            throw new UploadException(413, "Request body exceeds " + maxRequestBytes + " bytes");
+        }
+        return true;
+    }
+
+    // First delimiter starting at pos that ends before limit
+    private int indexOfDelimiter(int limit) {
+        outer: for (int i = pos; i <= limit - delimiter.length; i++) {
+            for (int j = 0; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Bytes up to the next delimiter
+     */
+    private final class PartStream extends InputStream {
+        private final long limit;
+        private long read;
+        private boolean done;
+
+        PartStream(long limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (done) {
+                return -1;
+            }
+            if (length == 0) {
+                return 0;
+            }
+            while (true) {
+                if (end - pos < delimiter.length && !eof) {
+                    fill();
+                    continue;
+                }
+                // Only look as far as this read can return
+                int window = (int) Math.min(end - pos, (long) length + delimiter.length - 1);
+                int found = indexOfDelimiter(pos + window);
+                if (found == pos) {
+                    pos += delimiter.length;
+                    done = true;
+                    return -1;
+                }
+                // Without a delimiter in view, keep a possible partial one buffered
+                int available = found >= 0 ? found - pos : window - (delimiter.length - 1);
+                if (available <= 0) {
+                    if (eof) {
+                        throw new UploadException(400, "Unexpected end of multipart body");
+                    }
+                    fill();
+                    continue;
+                }
+                int count = Math.min(length, available);
+                System.arraycopy(buffer, pos, target, offset, count);
+                pos += count;
+                read += count;
+                if (read > limit) {
+                    throw new UploadException(413, "Upload part exceeds " + limit + " bytes");
+                }
+                return count;
+            }
+        }
+
+        @Override
+        public int available() {
+            return 0;
+        }
+
+        void skipAll() throws IOException {
+            byte[] scratch = new byte[8192];
+            while (read(scratch, 0, scratch.length) >= 0) {
+                // discard
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package dev.artha.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+/**
+ * One part of a multipart/form-data request: a form field or an uploaded
+ * file.
+ *
+ * Parts from req.parts() are fully received: small ones are kept in memory,
+ * larger ones spooled to a temp file that is deleted when the request ends
+ * (unless moved with saveTo). Parts passed to req.forEachPart() are live
+ * streams that are only readable inside the callback.
+ */
+public final class Part {
+    private final Map<String, String> headers;
+    private final String name;
+    private final String filename;
+    private final String contentType;
+
+    // Exactly one source: a live stream, memory, or a spool file
+    private InputStream stream;
+    private byte[] memory;
+    private Path file;
+    private boolean temporary; // file is our spool file
+    private long size = -1;
+
+    private Part(Map<String, String> headers) {
+        this.headers = headers;
+        Map<String, String> disposition = MultipartReader.parameters(
+                headers.getOrDefault("content-disposition", ""));
+        this.name = disposition.get("name");
+        String submitted = disposition.get("filename");
+        // Browsers may send a full client path; only the last segment is meaningful
+        this.filename = submitted != null ? submitted.substring(
+                Math.max(submitted.lastIndexOf('/'), submitted.lastIndexOf('\\')) + 1) : null;
+        this.contentType = headers.get("content-type");
+    }
+
+    static Part streaming(Map<String, String> headers, InputStream stream) {
+        Part part = new Part(headers);
+        part.stream = stream;
+        return part;
+    }
+
+    /**
+     * Receive the whole part: in memory up to threshold bytes, then in a
+     * temp file written through a FileChannel
+     */
+    static Part spooled(Map<String, String> headers, InputStream stream, int threshold, Path tempDir)
+            throws IOException {
+        Part part = new Part(headers);
+        byte[] chunk = new byte[16 * 1024];
+        ByteArrayOutputStream head = new ByteArrayOutputStream(Math.min(threshold, 8192));
+        long total = 0;
+        int read;
+        while ((read = stream.read(chunk)) >= 0) {
+            total += read;
+            if (total > threshold) {
+                head.write(chunk, 0, read);
+                part.file = Files.createTempFile(tempDir, "artha-upload-", ".part");
+                part.temporary = true;
+                try (FileChannel channel = FileChannel.open(part.file, StandardOpenOption.WRITE)) {
+                    writeFully(channel, ByteBuffer.wrap(head.toByteArray()));
+                    head = null;
+                    while ((read = stream.read(chunk)) >= 0) {
+                        writeFully(channel, ByteBuffer.wrap(chunk, 0, read));
+                        total += read;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    part.delete();
+                    throw e;
+                }
+                break;
+            }
+            head.write(chunk, 0, read);
+        }
+        if (part.file == null) {
+            part.memory = head.toByteArray();
+        }
+        part.size = total;
+        return part;
+    }
+
+    /**
+     * Form field name
+     */
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Submitted file name (last path segment), or null for plain fields
+     */
+    public String filename() {
+        return filename;
+    }
+
+    public boolean isFile() {
+        return filename != null;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String header(String name) {
+        return headers.get(name.toLowerCase(java.util.Locale.ROOT));
+    }
+
+    /**
+     * Size in bytes; -1 for a live stream
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Whether the part was spooled to a temp file
+     */
+    public boolean isOnDisk() {
+        return file != null;
+    }
+
+    public InputStream inputStream() throws IOException {
+        if (stream != null) {
+            return stream;
+        }
+        return memory != null ? new ByteArrayInputStream(memory) : Files.newInputStream(file);
+    }
+
+    /**
+     * The content in memory (reads a spooled file or the rest of the stream)
+     */
+    public byte[] bytes() {
+        try {
+            if (memory != null) {
+                return memory;
+            }
+            try (InputStream in = inputStream()) {
+                return in.readAllBytes();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public String asString() {
+        return new String(bytes(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Store the content at target, replacing it. A spooled file is moved
+     * rather than copied.
+     */
+    public Path saveTo(Path target) throws IOException {
+        if (target.getParent() != null) {
+            Files.createDirectories(target.getParent());
+        }
+        if (file != null) {
+            try {
+                Files.move(file, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                // Different file system: fall back to a copy
+                Files.move(file, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            file = target;
+            temporary = false;
+            return target;
+        }
+        if (memory != null) {
+            Files.write(target, memory);
+            return target;
+        }
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            byte[] chunk = new byte[16 * 1024];
+            int read;
+            while ((read = stream.read(chunk)) >= 0) {
+                writeFully(channel, ByteBuffer.wrap(chunk, 0, read));
+            }
+        }
+        return target;
+    }
+
+    /**
+     * Remove the spool file (called when the request ends)
+     */
+    void delete() {
+        if (temporary) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                System.err.println("⚠️  Failed to delete upload temp file " + file + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
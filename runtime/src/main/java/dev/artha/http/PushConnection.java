@@ -0,0 +1,222 @@
+package dev.artha.http;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A connected SSE or WebSocket client.
+ *
+ * Outgoing messages go through a bounded per-connection queue drained by the
+ * Broadcaster's writer threads: whatever has queued up since the last write
+ * is sent in one batch and flushed once. A client that falls queueSize
+ * messages behind, or doesn't take a write within the write timeout, is
+ * disconnected rather than buffered without limit or left holding a writer
+ * thread.
+ */
+public abstract class PushConnection {
+    private static final AtomicLong ids = new AtomicLong();
+    private static final int MAX_BATCH = 64;
+
+    private final long id = ids.incrementAndGet();
+    private final String path;
+    private final ArrayBlockingQueue<Broadcaster.Message> queue;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private final Set<String> topics = ConcurrentHashMap.newKeySet();
+    private final List<Runnable> closeHandlers = new CopyOnWriteArrayList<>();
+    private volatile Consumer<String> messageHandler;
+    private volatile long writeStartedAt; // 0 while not writing
+
+    PushConnection(String path, int queueSize) {
+        this.path = path;
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+    }
+
+    public long id() {
+        return id;
+    }
+
+    /**
+     * Request path the client connected to
+     */
+    public String path() {
+        return path;
+    }
+
+    public abstract String header(String name);
+
+    public abstract String query(String name);
+
+    public abstract String pathParam(String name);
+
+    /**
+     * Receive messages published to the topic
+     */
+    public PushConnection subscribe(String topic) {
+        if (topics.add(topic)) {
+            Broadcaster.getInstance().subscribe(topic, this);
+        }
+        return this;
+    }
+
+    public PushConnection unsubscribe(String topic) {
+        if (topics.remove(topic)) {
+            Broadcaster.getInstance().unsubscribe(topic, this);
+        }
+        return this;
+    }
+
+    public Set<String> topics() {
+        return Collections.unmodifiableSet(topics);
+    }
+
+    /**
+     * Send to this client only (data is serialized to JSON unless a String)
+     *
+     * @return false if the connection is closed or was too far behind
+     */
+    public boolean send(String event, Object data) {
+        return enqueue(Broadcaster.message(event, data));
+    }
+
+    /**
+     * Handle incoming text messages (WebSocket only)
+     */
+    public void onMessage(Consumer<String> handler) {
+        this.messageHandler = handler;
+    }
+
+    public void onClose(Runnable handler) {
+        closeHandlers.add(handler);
+        if (closed.get()) {
+            handler.run();
+        }
+    }
+
+    public boolean isOpen() {
+        return !closed.get();
+    }
+
+    public void close() {
+        terminate(false);
+    }
+
+    // true for the call that actually closed the connection
+    private boolean terminate(boolean abort) {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+        Broadcaster.getInstance().remove(this);
+        queue.clear();
+        try {
+            if (abort) {
+                abortTransport();
+            } else {
+                closeTransport();
+            }
+        } catch (Exception ignored) {
+            // Already gone
+        }
+        for (Runnable handler : closeHandlers) {
+            try {
+                handler.run();
+            } catch (Exception e) {
+                System.err.println("⚠️  Connection close handler failed: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    boolean enqueue(Broadcaster.Message message) {
+        if (closed.get()) {
+            return false;
+        }
+        if (!queue.offer(message)) {
+            // Slow consumer: drop the client, not the server's memory
+            evict();
+            return false;
+        }
+        if (scheduled.compareAndSet(false, true)) {
+            Broadcaster.getInstance().schedule(this::drain);
+        }
+        return true;
+    }
+
+    private void drain() {
+        List<Broadcaster.Message> batch = new ArrayList<>(Math.min(MAX_BATCH, queue.size() + 1));
+        while (true) {
+            queue.drainTo(batch, MAX_BATCH);
+            if (batch.isEmpty()) {
+                scheduled.set(false);
+                // Recheck: a message may have arrived after drainTo
+                if (queue.isEmpty() || !scheduled.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            if (closed.get()) {
+                return;
+            }
+            writeStartedAt = System.currentTimeMillis();
+            try {
+                write(batch);
+            } catch (IOException | RuntimeException e) {
+                close();
+                return;
+            } finally {
+                writeStartedAt = 0;
+            }
+            Broadcaster.getInstance().written(batch.size());
+            batch.clear();
+        }
+    }
+
+    /**
+     * A write has been blocked (client not reading) for longer than the
+     * timeout
+     */
+    boolean isStalled(long now, long timeoutMillis) {
+        long started = writeStartedAt;
+        return started != 0 && now - started > timeoutMillis;
+    }
+
+    /**
+     * Disconnect a slow client, failing any write blocked on it so the
+     * writer thread is freed
+     */
+    void evict() {
+        if (terminate(true)) {
+            Broadcaster.getInstance().evicted(this);
+        }
+    }
+
+    void received(String text) {
+        Consumer<String> handler = messageHandler;
+        if (handler != null) {
+            handler.accept(text);
+        }
+    }
+
+    abstract boolean isSse();
+
+    /**
+     * Write and flush the batch as one transport write
+     */
+    abstract void write(List<Broadcaster.Message> batch) throws IOException;
+
+    abstract void closeTransport();
+
+    /**
+     * Drop the connection without a graceful close
+     */
+    abstract void abortTransport();
+}
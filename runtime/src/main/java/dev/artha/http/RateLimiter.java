@@ -0,0 +1,265 @@
+package dev.artha.http;
+
+import dev.artha.annotations.RateLimit;
+import dev.artha.core.ConfigManager;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-client token-bucket rate limiter.
+ *
+ * Each bucket is a single AtomicLong holding the time at which it will be
+ * full again (GCRA), updated with compare-and-set, so requests never take a
+ * lock: different clients only meet inside the ConcurrentHashMap, which is
+ * striped internally. Rejected requests get 429 with Retry-After and a JSON
+ * error body; the response is halted instead of throwing.
+ *
+ * Buckets that have refilled completely carry no state and are dropped by a
+ * background sweep, so memory follows the number of recently active clients.
+ * The map is also capped at maxKeys; past that, idle buckets are swept
+ * immediately and then arbitrary ones dropped (those clients start with a
+ * full bucket again).
+ *
+ * As middleware (@Before(RateLimiter.class)) it uses the "rateLimit" config
+ * section and one set of buckets shared by every route it guards:
+ * "rateLimit": { "perSecond": 10, "burst": 20, "key": "ip", "header": "",
+ * "maxKeys": 100000 }
+ */
+public class RateLimiter implements Middleware {
+    private static final long DEAD = Long.MIN_VALUE;
+    private static final long SWEEP_INTERVAL_MS = 10_000;
+    private static final int DEFAULT_MAX_KEYS = 100_000;
+
+    private static final Set<RateLimiter> limiters = ConcurrentHashMap.newKeySet();
+    private static ScheduledExecutorService sweeper;
+
+    private final double perSecond;
+    private final int burst;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final RateLimit.Key key;
+    private final String header;
+    private final int maxKeys;
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    // Metrics
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder limited = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * Limiter configured from the "rateLimit" config section (used by DI for
+     * @Before(RateLimiter.class))
+     */
+    public RateLimiter() {
+        this(configuredRate(), configuredInt("rateLimit.burst", 0), configuredKey(),
+                ConfigManager.getInstance().getString("rateLimit.header"),
+                configuredInt("rateLimit.maxKeys", DEFAULT_MAX_KEYS));
+    }
+
+    public RateLimiter(double perSecond, int burst, RateLimit.Key key, String header) {
+        this(perSecond, burst, key, header, configuredInt("rateLimit.maxKeys", DEFAULT_MAX_KEYS));
+    }
+
+    public RateLimiter(double perSecond, int burst, RateLimit.Key key, String header, int maxKeys) {
+        if (!(perSecond > 0)) {
+            throw new IllegalArgumentException("Rate limit perSecond must be > 0, got " + perSecond);
+        }
+        if (key == RateLimit.Key.HEADER && (header == null || header.isEmpty())) {
+            throw new IllegalArgumentException("Rate limit key HEADER needs a header name");
+        }
+        this.perSecond = perSecond;
+        this.burst = burst > 0 ? burst : Math.max(1, (int) Math.ceil(perSecond));
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / perSecond));
+        this.burstNanos = intervalNanos * this.burst;
+        this.key = key;
+        this.header = header;
+        this.maxKeys = Math.max(1, maxKeys);
+        register(this);
+    }
+
+    /**
+     * Limiter for a @RateLimit annotation
+     */
+    public static RateLimiter of(RateLimit limit) {
+        return new RateLimiter(limit.perSecond(), limit.burst(), limit.key(), limit.header());
+    }
+
+    @Override
+    public void apply(Request req, Response res) {
+        long waitNanos = tryAcquire(clientKey(req));
+        if (waitNanos == 0) {
+            return;
+        }
+        long retryAfter = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("error", true);
+        error.put("message", "Too many requests");
+        error.put("retryAfter", retryAfter);
+        res.status(429).header("Retry-After", String.valueOf(retryAfter)).json(error).halt();
+    }
+
+    /**
+     * Take one token from the client's bucket
+     *
+     * @return 0 if allowed, otherwise nanoseconds until a token is available
+     */
+    public long tryAcquire(String client) {
+        while (true) {
+            AtomicLong bucket = buckets.get(client);
+            if (bucket == null) {
+                bucket = newBucket(client);
+            }
+            long now = System.nanoTime();
+            long full = bucket.get();
+            if (full == DEAD) {
+                // Swept between lookup and update
+                buckets.remove(client, bucket);
+                continue;
+            }
+            long next = Math.max(full, now) + intervalNanos;
+            if (next - now > burstNanos) {
+                limited.increment();
+                return next - burstNanos - now;
+            }
+            if (bucket.compareAndSet(full, next)) {
+                allowed.increment();
+                return 0;
+            }
+        }
+    }
+
+    private AtomicLong newBucket(String client) {
+        if (buckets.size() >= maxKeys) {
+            sweep();
+            if (buckets.size() >= maxKeys) {
+                trim();
+            }
+        }
+        return buckets.computeIfAbsent(client, k -> new AtomicLong(System.nanoTime()));
+    }
+
+    /**
+     * Drop buckets that have refilled completely
+     */
+    void sweep() {
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            for (Map.Entry<String, AtomicLong> entry : buckets.entrySet()) {
+                AtomicLong bucket = entry.getValue();
+                long full = bucket.get();
+                if (full != DEAD && full - now <= 0 && bucket.compareAndSet(full, DEAD)) {
+                    buckets.remove(entry.getKey(), bucket);
+                    evicted.increment();
+                }
+            }
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    // Still over the cap after a sweep: make room for a tenth of maxKeys
+    private void trim() {
+        int target = maxKeys - Math.max(1, maxKeys / 10);
+        Iterator<Map.Entry<String, AtomicLong>> it = buckets.entrySet().iterator();
+        while (buckets.size() > target && it.hasNext()) {
+            Map.Entry<String, AtomicLong> entry = it.next();
+            entry.getValue().set(DEAD);
+            it.remove();
+            evicted.increment();
+        }
+    }
+
+    private String clientKey(Request req) {
+        switch (key) {
+            case HEADER: {
+                String value = req.header(header);
+                return value != null ? "h:" + value : "ip:" + req.ip();
+            }
+            case USER: {
+                // Only verified principals: raw credentials would give every bogus token a fresh bucket
+                String user = req.user();
+                return user != null ? "u:" + user : "ip:" + req.ip();
+            }
+            default:
+                return "ip:" + req.ip();
+        }
+    }
+
+    /**
+     * What identifies a client
+     */
+    public RateLimit.Key key() {
+        return key;
+    }
+
+    /**
+     * Settings, active buckets and allowed/limited counts
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("perSecond", perSecond);
+        stats.put("burst", burst);
+        stats.put("key", key.name().toLowerCase(Locale.ROOT));
+        stats.put("buckets", buckets.size());
+        stats.put("allowed", allowed.sum());
+        stats.put("limited", limited.sum());
+        stats.put("evicted", evicted.sum());
+        return stats;
+    }
+
+    /**
+     * Stop sweeping this limiter's buckets (it can still be used)
+     */
+    public void close() {
+        limiters.remove(this);
+    }
+
+    private static synchronized void register(RateLimiter limiter) {
+        limiters.add(limiter);
+        if (sweeper == null) {
+            sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "artha-ratelimit-sweeper");
+                t.setDaemon(true);
+                return t;
+            });
+            sweeper.scheduleWithFixedDelay(() -> {
+                for (RateLimiter each : limiters) {
+                    each.sweep();
+                }
+            }, SWEEP_INTERVAL_MS, SWEEP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static double configuredRate() {
+        Double configured = ConfigManager.getInstance().getDouble("rateLimit.perSecond");
+        return configured != null ? configured : 10;
+    }
+
+    private static int configuredInt(String path, int defaultValue) {
+        Integer configured = ConfigManager.getInstance().getInt(path);
+        return configured != null ? configured : defaultValue;
+    }
+
+    private static RateLimit.Key configuredKey() {
+        String configured = ConfigManager.getInstance().getString("rateLimit.key");
+        if (configured == null || configured.isEmpty()) {
+            return RateLimit.Key.IP;
+        }
+        return RateLimit.Key.valueOf(configured.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -1,5 +1,7 @@
 package dev.artha.http;
 
+import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -11,13 +13,26 @@ public interface Request {
 
     String query(String key, String defaultValue);
 
-    Map<String, String> queryMap();
+    Map<String, String> queryMap(); // Read-only view, first value per key
+
+    // Typed query params: defaultValue if absent, 400 if malformed
+    int queryInt(String key, int defaultValue);
+
+    long queryLong(String key, long defaultValue);
+
+    boolean queryBoolean(String key, boolean defaultValue);
 
     // Path params: /users/:id
     String path(String key);
 
     String param(String key); // Alias for path()
 
+    int pathInt(String key);
+
+    long pathLong(String key);
+
+    Map<String, String> pathParams(); // Read-only view
+
     // JSON body
     <T> T body(Class<T> clazz);
 
@@ -25,10 +40,30 @@ public interface Request {
 
     Map<String, Object> bodyAsMap();
 
+    // Raw body, read as it arrives (limited to uploads.maxRequestBytes)
+    InputStream bodyAsStream();
+
+    // Multipart uploads: parts are streamed, never buffered whole in memory
+    boolean isMultipart();
+
+    List<Part> parts(); // All parts; large ones spooled to temp files
+
+    Part part(String name); // First part with the name, or null
+
+    void forEachPart(PartHandler handler); // Live streams, nothing spooled
+
+    interface PartHandler {
+        void handle(Part part) throws Exception;
+    }
+
     // Headers
     String header(String key);
 
-    Map<String, String> headers();
+    Map<String, String> headers(); // Read-only, case-insensitive get
+
+    int headerInt(String key, int defaultValue);
+
+    long headerLong(String key, long defaultValue);
 
     // Metadata
     String method();
@@ -38,4 +73,9 @@ public interface Request {
     String ip();
 
     String path(); // Full request path
+
+    // Authentication
+    String user(); // Principal verified by auth middleware, null if anonymous
+
+    void user(String user); // Called by auth middleware once credentials are checked
 }
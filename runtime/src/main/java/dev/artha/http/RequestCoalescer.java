@@ -0,0 +1,186 @@
+package dev.artha.http;
+
+import dev.artha.annotations.Coalesce;
+import io.javalin.http.Context;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Single-flight execution for @Coalesce handlers.
+ *
+ * The first request for a key runs the handler (the leader); identical
+ * requests arriving while it runs wait for it and write the leader's status,
+ * content type, caching headers and body bytes. The flight is removed as
+ * soon as the leader finishes, so nothing is cached.
+ *
+ * The key is the path, sorted query string, varyBy headers and
+ * Accept-Encoding (so a precompressed body only reaches clients that accept
+ * it). Only a 2xx response with a body is shared: a 304 answers the
+ * leader's own If-None-Match, and redirects, errors and responses setting
+ * cookies or auth challenges are specific to the leader's request. In
+ * those cases, and when the leader throws or takes longer than the
+ * timeout, waiters fall through and run the handler themselves.
+ */
+public class RequestCoalescer {
+    private static RequestCoalescer instance;
+
+    // Headers the leader's response may carry that describe the body
+    private static final String[] SHARED_HEADERS = { "Content-Encoding", "ETag", "Cache-Control", "Vary",
+            "Last-Modified" };
+    // Headers that tie a response to the request that produced it
+    private static final String[] PER_REQUEST_HEADERS = { "Set-Cookie", "Location", "WWW-Authenticate" };
+
+    private final Map<String, CompletableFuture<Shared>> flights = new ConcurrentHashMap<>();
+
+    // Metrics
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder fallthroughs = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    /**
+     * Runs the handler and writes its response to the Context
+     */
+    public interface Handler {
+        void run() throws Exception;
+    }
+
+    /**
+     * A leader's response, as written to each waiter
+     */
+    private static final class Shared {
+        private final int status;
+        private final String contentType;
+        private final String[] headers;
+        private final byte[] body;
+
+        Shared(int status, String contentType, String[] headers, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        void write(Context ctx) {
+            ctx.status(status);
+            if (contentType != null) {
+                ctx.contentType(contentType);
+            }
+            for (int i = 0; i < SHARED_HEADERS.length; i++) {
+                if (headers[i] != null) {
+                    ctx.header(SHARED_HEADERS[i], headers[i]);
+                }
+            }
+            ctx.result(body);
+        }
+    }
+
+    private RequestCoalescer() {
+    }
+
+    public static synchronized RequestCoalescer getInstance() {
+        if (instance == null) {
+            instance = new RequestCoalescer();
+        }
+        return instance;
+    }
+
+    /**
+     * Run the handler, or wait for an identical request that is already
+     * running it and copy its response
+     */
+    public void execute(Context ctx, Coalesce config, Handler handler) throws Exception {
+        String acceptEncoding = ctx.header("Accept-Encoding");
+        String key = ResponseCache.requestKey(ctx, config.varyBy()) + '\n'
+                + (acceptEncoding != null ? acceptEncoding : "");
+
+        CompletableFuture<Shared> flight = new CompletableFuture<>();
+        CompletableFuture<Shared> running = flights.putIfAbsent(key, flight);
+        if (running == null) {
+            lead(ctx, key, flight, handler);
+            return;
+        }
+
+        Shared shared = await(running, config.timeout());
+        if (shared == null) {
+            fallthroughs.increment();
+            handler.run();
+            return;
+        }
+        coalesced.increment();
+        shared.write(ctx);
+    }
+
+    private void lead(Context ctx, String key, CompletableFuture<Shared> flight, Handler handler) throws Exception {
+        leaders.increment();
+        Shared shared = null;
+        try {
+            handler.run();
+            shared = capture(ctx);
+        } finally {
+            // null (failure or unshareable response) sends waiters off to run the handler themselves
+            flights.remove(key, flight);
+            flight.complete(shared);
+        }
+    }
+
+    private Shared await(CompletableFuture<Shared> running, long timeoutMs) {
+        try {
+            return running.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private static Shared capture(Context ctx) throws IOException {
+        int status = ctx.statusCode();
+        InputStream result = ctx.resultInputStream();
+        if (status < 200 || status >= 300 || result == null) {
+            return null;
+        }
+        for (String header : PER_REQUEST_HEADERS) {
+            if (ctx.res().getHeader(header) != null) {
+                return null;
+            }
+        }
+        // Reading consumes the stream, so the leader gets the bytes back
+        byte[] body = result.readAllBytes();
+        ctx.result(body);
+        if (body.length == 0) {
+            return null;
+        }
+        String[] headers = new String[SHARED_HEADERS.length];
+        for (int i = 0; i < SHARED_HEADERS.length; i++) {
+            headers[i] = ctx.res().getHeader(SHARED_HEADERS[i]);
+        }
+        return new Shared(status, ctx.res().getContentType(), headers, body);
+    }
+
+    /**
+     * Requests that ran the handler, were served a shared result, or fell
+     * through after a failure or timeout
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("inFlight", flights.size());
+        stats.put("leaders", leaders.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("fallthroughs", fallthroughs.sum());
+        stats.put("timeouts", timeouts.sum());
+        return stats;
+    }
+}
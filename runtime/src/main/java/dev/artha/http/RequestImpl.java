@@ -1,16 +1,50 @@
 package dev.artha.http;
 
 import io.javalin.http.Context;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.Set;
 
+/**
+ * Request over a Javalin Context. queryMap(), headers() and pathParams()
+ * are read-only views that look values up in Javalin's own structures
+ * instead of copying them, and each view is created once per request.
+ */
 public class RequestImpl implements Request {
+    private static final String ATTRIBUTE = "artha.request";
+
     private final Context ctx;
+    private Map<String, String> queryView;
+    private Map<String, String> headerView;
+    private Map<String, String> pathView;
+    private List<Part> parts;
+    private final List<Part> spooled = new ArrayList<>(0);
+    private boolean streamed;
+    private String user;
 
     public RequestImpl(Context ctx) {
         this.ctx = ctx;
     }
 
+    /**
+     * The request wrapper for this exchange, created on first use
+     */
+    public static RequestImpl of(Context ctx) {
+        RequestImpl request = ctx.attribute(ATTRIBUTE);
+        if (request == null) {
+            request = new RequestImpl(ctx);
+            ctx.attribute(ATTRIBUTE, request);
+        }
+        return request;
+    }
+
     @Override
     public String query(String key) {
         return ctx.queryParam(key);
@@ -24,13 +58,36 @@ public class RequestImpl implements Request {
 
     @Override
     public Map<String, String> queryMap() {
-        Map<String, String> result = new HashMap<>();
-        ctx.queryParamMap().forEach((key, values) -> {
-            if (values != null && !values.isEmpty()) {
-                result.put(key, values.get(0));
-            }
-        });
-        return result;
+        if (queryView == null) {
+            queryView = new FirstValueView(ctx.queryParamMap());
+        }
+        return queryView;
+    }
+
+    @Override
+    public int queryInt(String key, int defaultValue) {
+        return (int) parseLong(ctx.queryParam(key), defaultValue, Integer.MIN_VALUE, Integer.MAX_VALUE,
+                "Query parameter", key);
+    }
+
+    @Override
+    public long queryLong(String key, long defaultValue) {
+        return parseLong(ctx.queryParam(key), defaultValue, Long.MIN_VALUE, Long.MAX_VALUE, "Query parameter", key);
+    }
+
+    @Override
+    public boolean queryBoolean(String key, boolean defaultValue) {
+        String value = ctx.queryParam(key);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        if (value.equalsIgnoreCase("true") || value.equals("1")) {
+            return true;
+        }
+        if (value.equalsIgnoreCase("false") || value.equals("0")) {
+            return false;
+        }
+        throw new HttpException(400, "Query parameter '" + key + "' must be true or false");
     }
 
     @Override
@@ -47,6 +104,24 @@ public class RequestImpl implements Request {
         return path(key);
     }
 
+    @Override
+    public int pathInt(String key) {
+        return (int) parseLong(path(key), 0, Integer.MIN_VALUE, Integer.MAX_VALUE, "Path parameter", key);
+    }
+
+    @Override
+    public long pathLong(String key) {
+        return parseLong(path(key), 0, Long.MIN_VALUE, Long.MAX_VALUE, "Path parameter", key);
+    }
+
+    @Override
+    public Map<String, String> pathParams() {
+        if (pathView == null) {
+            pathView = Collections.unmodifiableMap(ctx.pathParamMap());
+        }
+        return pathView;
+    }
+
     @Override
     public <T> T body(Class<T> clazz) {
         try {
@@ -75,6 +150,140 @@ public class RequestImpl implements Request {
         }
     }
 
+    @Override
+    public InputStream bodyAsStream() {
+        UploadSettings settings = UploadSettings.getInstance();
+        return new LimitedInputStream(openBody(settings), settings.maxRequestBytes);
+    }
+
+    @Override
+    public boolean isMultipart() {
+        return MultipartReader.boundary(ctx.contentType()) != null;
+    }
+
+    @Override
+    public List<Part> parts() {
+        if (parts != null) {
+            return parts;
+        }
+        UploadSettings settings = UploadSettings.getInstance();
+        MultipartReader reader = multipart(settings);
+        List<Part> result = new ArrayList<>();
+        try {
+            Map<String, String> headers;
+            while ((headers = reader.next()) != null) {
+                Part part = Part.spooled(headers, reader.stream(), settings.memoryThreshold, settings.tempDir);
+                spooled.add(part);
+                result.add(part);
+            }
+        } catch (IOException e) {
+            throw new UploadException(400, "Failed to read upload: " + e.getMessage());
+        }
+        parts = java.util.Collections.unmodifiableList(result);
+        return parts;
+    }
+
+    @Override
+    public Part part(String name) {
+        for (Part part : parts()) {
+            if (name.equals(part.name())) {
+                return part;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void forEachPart(PartHandler handler) {
+        MultipartReader reader = multipart(UploadSettings.getInstance());
+        try {
+            Map<String, String> headers;
+            while ((headers = reader.next()) != null) {
+                handler.handle(Part.streaming(headers, reader.stream()));
+            }
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new UploadException(400, "Failed to read upload: " + e.getMessage());
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Delete upload temp files; called when the request ends
+     */
+    public void close() {
+        for (Part part : spooled) {
+            part.delete();
+        }
+        spooled.clear();
+    }
+
+    private MultipartReader multipart(UploadSettings settings) {
+        String boundary = MultipartReader.boundary(ctx.contentType());
+        if (boundary == null) {
+            throw new UploadException(400, "Expected a multipart/form-data request");
+        }
+        return new MultipartReader(openBody(settings), boundary, settings.maxRequestBytes,
+                settings.maxPartBytes);
+    }
+
+    // The body can be streamed once; a declared length over the limit is rejected before reading
+    private InputStream openBody(UploadSettings settings) {
+        if (streamed) {
+            throw new IllegalStateException("Request body was already read");
+        }
+        long declared = ctx.req().getContentLengthLong();
+        if (declared > settings.maxRequestBytes) {
+            throw new UploadException(413, "Request body exceeds " + settings.maxRequestBytes + " bytes");
+        }
+        streamed = true;
+        try {
+            return ctx.req().getInputStream();
+        } catch (IOException e) {
+            throw new UploadException(400, "Failed to read request body: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Fails with 413 once more than limit bytes were read
+     */
+    private static final class LimitedInputStream extends java.io.FilterInputStream {
+        private final long limit;
+        private long read;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            int n = super.read(target, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(int n) {
+            read += n;
+            if (read > limit) {
+                throw new UploadException(413, "Request body exceeds " + limit + " bytes");
+            }
+        }
+    }
+
     @Override
     public String header(String key) {
         return ctx.header(key);
@@ -82,9 +291,21 @@ public class RequestImpl implements Request {
 
     @Override
     public Map<String, String> headers() {
-        Map<String, String> result = new HashMap<>();
-        ctx.headerMap().forEach(result::put);
-        return result;
+        if (headerView == null) {
+            headerView = new HeaderView(ctx);
+        }
+        return headerView;
+    }
+
+    @Override
+    public int headerInt(String key, int defaultValue) {
+        return (int) parseLong(ctx.header(key), defaultValue, Integer.MIN_VALUE, Integer.MAX_VALUE, "Header",
+                key);
+    }
+
+    @Override
+    public long headerLong(String key, long defaultValue) {
+        return parseLong(ctx.header(key), defaultValue, Long.MIN_VALUE, Long.MAX_VALUE, "Header", key);
     }
 
     @Override
@@ -106,4 +327,160 @@ public class RequestImpl implements Request {
     public String path() {
         return ctx.path();
     }
+
+    @Override
+    public String user() {
+        return user;
+    }
+
+    @Override
+    public void user(String user) {
+        this.user = user;
+    }
+
+    /**
+     * Parse a decimal integer in place (no trim/substring copies)
+     *
+     * @return defaultValue if the value is missing or blank
+     */
+    static long parseLong(String value, long defaultValue, long min, long max, String kind, String key) {
+        if (value == null) {
+            return defaultValue;
+        }
+        int start = 0;
+        int end = value.length();
+        while (start < end && value.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return defaultValue;
+        }
+        boolean negative = value.charAt(start) == '-';
+        if (negative || value.charAt(start) == '+') {
+            start++;
+        }
+        if (start == end) {
+            throw notANumber(kind, key);
+        }
+        // Accumulate negatively so Long.MIN_VALUE fits
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            int digit = value.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw notANumber(kind, key);
+            }
+            if (result < (Long.MIN_VALUE + digit) / 10) {
+                throw outOfRange(kind, key);
+            }
+            result = result * 10 - digit;
+        }
+        if (!negative) {
+            if (result == Long.MIN_VALUE) {
+                throw outOfRange(kind, key);
+            }
+            result = -result;
+        }
+        if (result < min || result > max) {
+            throw outOfRange(kind, key);
+        }
+        return result;
+    }
+
+    private static HttpException notANumber(String kind, String key) {
+        return new HttpException(400, kind + " '" + key + "' must be an integer");
+    }
+
+    private static HttpException outOfRange(String kind, String key) {
+        return new HttpException(400, kind + " '" + key + "' is out of range");
+    }
+
+    /**
+     * Single-valued view of Javalin's query parameter map
+     */
+    private static final class FirstValueView extends AbstractMap<String, String> {
+        private final Map<String, List<String>> values;
+
+        FirstValueView(Map<String, List<String>> values) {
+            this.values = values;
+        }
+
+        @Override
+        public String get(Object key) {
+            List<String> list = values.get(key);
+            return list != null && !list.isEmpty() ? list.get(0) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<Entry<String, String>>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    Iterator<Entry<String, List<String>>> it = values.entrySet().iterator();
+                    return new Iterator<Entry<String, String>>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            Entry<String, List<String>> entry = it.next();
+                            List<String> list = entry.getValue();
+                            return new SimpleImmutableEntry<>(entry.getKey(),
+                                    list != null && !list.isEmpty() ? list.get(0) : null);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return values.size();
+                }
+            };
+        }
+    }
+
+    /**
+     * Headers looked up case-insensitively in the servlet request; the full
+     * map is only built if someone iterates it
+     */
+    private static final class HeaderView extends AbstractMap<String, String> {
+        private final Context ctx;
+        private Map<String, String> all;
+
+        HeaderView(Context ctx) {
+            this.ctx = ctx;
+        }
+
+        @Override
+        public String get(Object key) {
+            return key instanceof String ? ctx.header((String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            if (all == null) {
+                all = Collections.unmodifiableMap(ctx.headerMap());
+            }
+            return all.entrySet();
+        }
+    }
 }
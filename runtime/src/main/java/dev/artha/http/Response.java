@@ -8,4 +8,9 @@ public interface Response {
     Response json(Object obj);
     Response text(String text);
     Response header(String key, String value);
+
+    // Stop here: skip the remaining middleware and the handler
+    Response halt();
+
+    boolean isHalted();
 }
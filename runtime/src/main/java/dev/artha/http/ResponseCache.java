@@ -0,0 +1,421 @@
+package dev.artha.http;
+
+import dev.artha.annotations.Cacheable;
+import dev.artha.core.ConfigManager;
+import io.javalin.http.Context;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Server-side cache of serialized responses for @Cacheable handlers.
+ *
+ * Entries hold the response bytes, content type, the headers the handler
+ * set and a strong ETag (SHA-256 of the bytes), keyed by path, normalized
+ * query string and the varyBy request headers. Hits are written straight
+ * from the stored bytes; a matching If-None-Match gets 304 with no body
+ * either way. Total size (plain and gzip bytes) is bounded by maxBytes; the
+ * oldest entries are evicted first.
+ *
+ * Bodies eligible for compression (see Compression) are gzipped once when
+ * stored, and the gzip bytes are sent to every client that accepts them.
+ *
+ * Configured via artha.json:
+ * "cache": { "maxBytes": 67108864, "offHeap": false }
+ *
+ * With offHeap the bytes live in direct buffers outside the Java heap, so a
+ * large cache doesn't add GC work.
+ */
+public class ResponseCache {
+    private static ResponseCache instance;
+
+    private static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+    private static final char KEY_SEPARATOR = '\n';
+    // Written by write() itself, or specific to one client
+    private static final Set<String> UNCACHED_HEADERS = Set.of("etag", "cache-control", "vary",
+            "content-encoding", "content-type", "content-length", "transfer-encoding", "set-cookie", "date");
+
+    private final long maxBytes;
+    private final boolean offHeap;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // Insertion order for eviction (guarded by itself)
+    private final LinkedHashMap<String, Entry> order = new LinkedHashMap<>();
+    private final AtomicLong bytes = new AtomicLong();
+
+    // Metrics
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * A cached response
+     */
+    public static final class Entry {
+        private final String key;
+        private final Bytes body;
+        private final Bytes gzip; // null if not worth compressing
+        private final int length;
+        private final String contentType;
+        private final String[] headers; // name, value, name, value...
+        private final String etag;
+        private final long expiresAt;
+
+        private Entry(String key, byte[] body, byte[] gzip, boolean offHeap, String contentType, String[] headers,
+                String etag, long expiresAt) {
+            this.key = key;
+            this.body = new Bytes(body, offHeap);
+            this.gzip = gzip != null ? new Bytes(gzip, offHeap) : null;
+            this.length = body.length + (gzip != null ? gzip.length : 0);
+            this.contentType = contentType;
+            this.headers = headers;
+            this.etag = etag;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        /**
+         * Representations differ in bytes, so the gzip one has its own ETag
+         */
+        String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gz\"";
+        }
+    }
+
+    /**
+     * Immutable bytes on the heap or in a direct buffer
+     */
+    private static final class Bytes {
+        private final byte[] heap;
+        private final ByteBuffer direct;
+
+        Bytes(byte[] bytes, boolean offHeap) {
+            if (offHeap) {
+                this.direct = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip().asReadOnlyBuffer();
+                this.heap = null;
+            } else {
+                this.heap = bytes;
+                this.direct = null;
+            }
+        }
+
+        InputStream open() {
+            return heap != null ? new ByteArrayInputStream(heap) : new BufferInputStream(direct.duplicate());
+        }
+    }
+
+    private ResponseCache() {
+        ConfigManager config = ConfigManager.getInstance();
+        Object configured = config.get("cache.maxBytes");
+        this.maxBytes = configured instanceof Number ? ((Number) configured).longValue() : DEFAULT_MAX_BYTES;
+        this.offHeap = Boolean.TRUE.equals(config.getBoolean("cache.offHeap"));
+    }
+
+    public static synchronized ResponseCache getInstance() {
+        if (instance == null) {
+            instance = new ResponseCache();
+        }
+        return instance;
+    }
+
+    /**
+     * Answer the request from the cache if there is a fresh entry
+     *
+     * @return true if the response was written (200 or 304)
+     */
+    public boolean serve(Context ctx, Cacheable config) {
+        String key = requestKey(ctx, config.varyBy());
+        Entry entry = entries.get(key);
+        long now = System.currentTimeMillis();
+        if (entry == null || entry.isExpired(now)) {
+            if (entry != null) {
+                remove(entry);
+            }
+            misses.increment();
+            return false;
+        }
+        hits.increment();
+        for (int i = 0; i < entry.headers.length; i += 2) {
+            ctx.res().addHeader(entry.headers[i], entry.headers[i + 1]);
+        }
+        write(ctx, config, entry, now);
+        return true;
+    }
+
+    /**
+     * Cache a freshly serialized 200 response and write it
+     *
+     * @param inherited Response headers already set before the handler ran
+     *                  (CORS, middleware), which aren't replayed on hits
+     */
+    public void store(Context ctx, Cacheable config, byte[] body, String contentType, Set<String> inherited) {
+        long now = System.currentTimeMillis();
+        String key = requestKey(ctx, config.varyBy());
+        Compression compression = Compression.getInstance();
+        byte[] gzip = compression.shouldCompress(contentType, body.length) ? compression.gzip(body) : null;
+        Entry entry = new Entry(key, body, gzip, offHeap, contentType, handlerHeaders(ctx, inherited), etag(body),
+                now + config.ttl());
+        if (entry.length <= maxBytes) {
+            put(entry);
+        }
+        write(ctx, config, entry, now);
+    }
+
+    /**
+     * Response header names set so far, to tell the handler's own headers
+     * apart later
+     */
+    public static Set<String> headerNames(Context ctx) {
+        Set<String> names = new HashSet<>();
+        for (String name : ctx.res().getHeaderNames()) {
+            names.add(name.toLowerCase(Locale.ROOT));
+        }
+        return names;
+    }
+
+    private static String[] handlerHeaders(Context ctx, Set<String> inherited) {
+        List<String> headers = new ArrayList<>();
+        for (String name : ctx.res().getHeaderNames()) {
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (inherited.contains(lower) || UNCACHED_HEADERS.contains(lower)) {
+                continue;
+            }
+            for (String value : ctx.res().getHeaders(name)) {
+                headers.add(name);
+                headers.add(value);
+            }
+        }
+        return headers.toArray(new String[0]);
+    }
+
+    private void write(Context ctx, Cacheable config, Entry entry, long now) {
+        boolean gzip = entry.gzip != null && Compression.acceptsGzip(ctx.header("Accept-Encoding"));
+        ctx.header("ETag", gzip ? entry.gzipEtag() : entry.etag);
+        ctx.header("Cache-Control", "private, max-age=" + Math.max(0, (entry.expiresAt - now) / 1000));
+        String vary = String.join(", ", config.varyBy());
+        if (entry.gzip != null) {
+            vary = vary.isEmpty() ? "Accept-Encoding" : vary + ", Accept-Encoding";
+        }
+        if (!vary.isEmpty()) {
+            ctx.header("Vary", vary);
+        }
+        String ifNoneMatch = ctx.header("If-None-Match");
+        if (matches(ifNoneMatch, entry.etag) || (entry.gzip != null && matches(ifNoneMatch, entry.gzipEtag()))) {
+            notModified.increment();
+            ctx.status(304);
+            return;
+        }
+        ctx.contentType(entry.contentType);
+        if (gzip) {
+            // Already compressed: Javalin skips responses with a Content-Encoding
+            ctx.header("Content-Encoding", "gzip");
+            ctx.result(entry.gzip.open());
+        } else {
+            ctx.result(entry.body.open());
+        }
+    }
+
+    private void put(Entry entry) {
+        stores.increment();
+        synchronized (order) {
+            Entry previous = entries.put(entry.key, entry);
+            if (previous != null) {
+                order.remove(previous.key);
+                bytes.addAndGet(-previous.length);
+            }
+            order.put(entry.key, entry);
+            bytes.addAndGet(entry.length);
+
+            Iterator<Entry> oldest = order.values().iterator();
+            while (bytes.get() > maxBytes && oldest.hasNext()) {
+                Entry evicted = oldest.next();
+                oldest.remove();
+                entries.remove(evicted.key, evicted);
+                bytes.addAndGet(-evicted.length);
+                evictions.increment();
+            }
+        }
+    }
+
+    private void remove(Entry entry) {
+        synchronized (order) {
+            if (entries.remove(entry.key, entry)) {
+                order.remove(entry.key);
+                bytes.addAndGet(-entry.length);
+            }
+        }
+    }
+
+    /**
+     * Remove all cached variants of a path, e.g. after the data changed
+     *
+     * @return Number of entries removed
+     */
+    public int evict(String path) {
+        return evictMatching(path, false);
+    }
+
+    /**
+     * Remove all cached variants of paths starting with prefix
+     */
+    public int evictPrefix(String prefix) {
+        return evictMatching(prefix, true);
+    }
+
+    /**
+     * Remove everything
+     */
+    public void clear() {
+        synchronized (order) {
+            entries.clear();
+            order.clear();
+            bytes.set(0);
+        }
+    }
+
+    private int evictMatching(String path, boolean prefix) {
+        List<Entry> matching = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            String entryPath = entry.key.substring(0, entry.key.indexOf(KEY_SEPARATOR));
+            if (prefix ? entryPath.startsWith(path) : entryPath.equals(path)) {
+                matching.add(entry);
+            }
+        }
+        for (Entry entry : matching) {
+            remove(entry);
+        }
+        return matching.size();
+    }
+
+    /**
+     * Snapshot of cache metrics: hit rate and memory footprint
+     */
+    public Map<String, Object> stats() {
+        long hitCount = hits.sum();
+        long lookups = hitCount + misses.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("bytes", bytes.get());
+        stats.put("maxBytes", maxBytes);
+        stats.put("offHeap", offHeap);
+        stats.put("hits", hitCount);
+        stats.put("misses", misses.sum());
+        stats.put("hitRate", lookups == 0 ? 0.0 : hitCount / (double) lookups);
+        stats.put("notModified", notModified.sum());
+        stats.put("stores", stores.sum());
+        stats.put("evictions", evictions.sum());
+        return stats;
+    }
+
+    /**
+     * Strong ETag: quoted base64 of the first 16 bytes of SHA-256
+     */
+    public static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * If-None-Match uses weak comparison: W/ prefixes are ignored
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Path, sorted query string and the values of the varyBy headers
+     */
+    static String requestKey(Context ctx, String[] varyBy) {
+        StringBuilder key = new StringBuilder(ctx.path()).append(KEY_SEPARATOR);
+        String query = ctx.queryString();
+        if (query != null && !query.isEmpty()) {
+            // ?a=1&b=2 and ?b=2&a=1 are the same resource
+            String[] params = query.split("&");
+            Arrays.sort(params);
+            key.append(String.join("&", params));
+        }
+        for (String header : varyBy) {
+            String value = ctx.header(header);
+            key.append(KEY_SEPARATOR).append(value != null ? value : "");
+        }
+        return key.toString();
+    }
+
+    /**
+     * Reads a direct buffer without copying it onto the heap first
+     */
+    private static final class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(target, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
@@ -3,12 +3,27 @@ package dev.artha.http;
 import io.javalin.http.Context;
 
 public class ResponseImpl implements Response {
+    private static final String ATTRIBUTE = "artha.response";
+
     private final Context ctx;
+    private boolean halted;
 
     public ResponseImpl(Context ctx) {
         this.ctx = ctx;
     }
 
+    /**
+     * The response wrapper for this exchange, created on first use
+     */
+    public static ResponseImpl of(Context ctx) {
+        ResponseImpl response = ctx.attribute(ATTRIBUTE);
+        if (response == null) {
+            response = new ResponseImpl(ctx);
+            ctx.attribute(ATTRIBUTE, response);
+        }
+        return response;
+    }
+
     @Override
     public Response status(int code) {
         ctx.status(code);
@@ -32,4 +47,15 @@ public class ResponseImpl implements Response {
         ctx.header(key, value);
         return this;
     }
+
+    @Override
+    public Response halt() {
+        halted = true;
+        return this;
+    }
+
+    @Override
+    public boolean isHalted() {
+        return halted;
+    }
 }
@@ -0,0 +1,74 @@
+package dev.artha.http;
+
+import io.javalin.http.sse.SseClient;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import org.eclipse.jetty.server.Request;
+
+/**
+ * SSE client: a batch is written as one block of event frames and flushed
+ * once
+ */
+class SseConnection extends PushConnection {
+    private final SseClient client;
+
+    SseConnection(SseClient client, int queueSize) {
+        super(client.ctx().path(), queueSize);
+        this.client = client;
+    }
+
+    @Override
+    public String header(String name) {
+        return client.ctx().header(name);
+    }
+
+    @Override
+    public String query(String name) {
+        return client.ctx().queryParam(name);
+    }
+
+    @Override
+    public String pathParam(String name) {
+        return client.ctx().pathParamMap().get(name);
+    }
+
+    @Override
+    boolean isSse() {
+        return true;
+    }
+
+    @Override
+    void write(List<Broadcaster.Message> batch) throws IOException {
+        int size = 0;
+        for (Broadcaster.Message message : batch) {
+            size += message.sse().length;
+        }
+        byte[] block = new byte[size];
+        int offset = 0;
+        for (Broadcaster.Message message : batch) {
+            byte[] frame = message.sse();
+            System.arraycopy(frame, 0, block, offset, frame.length);
+            offset += frame.length;
+        }
+        OutputStream out = client.ctx().res().getOutputStream();
+        out.write(block);
+        out.flush();
+    }
+
+    @Override
+    void closeTransport() {
+        client.close();
+    }
+
+    @Override
+    void abortTransport() {
+        // Closes the socket, so a write blocked on a full buffer fails now
+        Request request = Request.getBaseRequest(client.ctx().req());
+        if (request != null) {
+            request.getHttpChannel().abort(new TimeoutException("Slow SSE client"));
+        }
+        client.close();
+    }
+}
@@ -0,0 +1,508 @@
+package dev.artha.http;
+
+import dev.artha.core.ConfigManager;
+import io.javalin.Javalin;
+import io.javalin.http.Context;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.eclipse.jetty.server.HttpOutput;
+
+/**
+ * Static file serving for a directory (e.g. a bundled SPA or docs site).
+ *
+ * The directory is indexed once at startup: every file gets a content-hash
+ * ETag, and files up to mmapMaxBytes are memory-mapped so responses are
+ * written from the page cache without copying onto the heap. Larger files
+ * are streamed from a FileChannel. Only indexed files are served, so paths
+ * can't escape the directory; files added later need a restart.
+ *
+ * A precompressed sibling (app.js.br, app.js.gz) is sent instead when the
+ * client accepts that encoding. Range requests (single range) get 206.
+ * Names with a content hash (app.3f9a2c1b.js, index-BfG7x2Qa.css) are cached
+ * for a year as immutable; other files use maxAge (0 = always revalidate).
+ *
+ * Configured via artha.json, one mount or a list:
+ * "static": { "dir": "public", "path": "/", "spa": true, "maxAge": 0,
+ * "mmapMaxBytes": 16777216 }
+ *
+ * With spa, GETs for unknown paths that accept text/html get index.html.
+ * Mounts are registered after all routes, so routes always win.
+ */
+public class StaticFiles {
+    private static final long DEFAULT_MMAP_MAX_BYTES = 16L * 1024 * 1024;
+    private static final long IMMUTABLE_MAX_AGE = 31536000;
+    private static final Pattern HASHED_NAME = Pattern
+            .compile(".*[.-](?=[A-Za-z0-9_]*[0-9])[A-Za-z0-9_]{8,}\\.[A-Za-z0-9]+$");
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.RFC_1123_DATE_TIME;
+
+    private static final Map<String, String> CONTENT_TYPES = new HashMap<>();
+
+    static {
+        CONTENT_TYPES.put("html", "text/html; charset=utf-8");
+        CONTENT_TYPES.put("htm", "text/html; charset=utf-8");
+        CONTENT_TYPES.put("css", "text/css; charset=utf-8");
+        CONTENT_TYPES.put("js", "text/javascript; charset=utf-8");
+        CONTENT_TYPES.put("mjs", "text/javascript; charset=utf-8");
+        CONTENT_TYPES.put("json", "application/json");
+        CONTENT_TYPES.put("map", "application/json");
+        CONTENT_TYPES.put("txt", "text/plain; charset=utf-8");
+        CONTENT_TYPES.put("md", "text/markdown; charset=utf-8");
+        CONTENT_TYPES.put("xml", "application/xml");
+        CONTENT_TYPES.put("svg", "image/svg+xml");
+        CONTENT_TYPES.put("png", "image/png");
+        CONTENT_TYPES.put("jpg", "image/jpeg");
+        CONTENT_TYPES.put("jpeg", "image/jpeg");
+        CONTENT_TYPES.put("gif", "image/gif");
+        CONTENT_TYPES.put("webp", "image/webp");
+        CONTENT_TYPES.put("avif", "image/avif");
+        CONTENT_TYPES.put("ico", "image/x-icon");
+        CONTENT_TYPES.put("woff", "font/woff");
+        CONTENT_TYPES.put("woff2", "font/woff2");
+        CONTENT_TYPES.put("ttf", "font/ttf");
+        CONTENT_TYPES.put("wasm", "application/wasm");
+        CONTENT_TYPES.put("pdf", "application/pdf");
+        CONTENT_TYPES.put("mp4", "video/mp4");
+        CONTENT_TYPES.put("webm", "video/webm");
+        CONTENT_TYPES.put("mp3", "audio/mpeg");
+        CONTENT_TYPES.put("gz", "application/gzip");
+        CONTENT_TYPES.put("zip", "application/zip");
+    }
+
+    private final String path;
+    private final Path root;
+    private final boolean spa;
+    private final long maxAge;
+    private final long mmapMaxBytes;
+    private final Map<String, Asset> assets = new HashMap<>();
+    private long indexedBytes;
+    private long mappedBytes;
+
+    // Metrics
+    private final LongAdder served = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder partial = new LongAdder();
+    private final LongAdder precompressed = new LongAdder();
+    private final LongAdder bytesSent = new LongAdder();
+
+    /**
+     * One stored representation of a file (identity, gzip or brotli)
+     */
+    private static final class Variant {
+        private final Path file;
+        private final long length;
+        private final String etag;
+        private final MappedByteBuffer mapped; // null above mmapMaxBytes
+
+        Variant(Path file, long length, String etag, MappedByteBuffer mapped) {
+            this.file = file;
+            this.length = length;
+            this.etag = etag;
+            this.mapped = mapped;
+        }
+    }
+
+    private static final class Asset {
+        private final Variant identity;
+        private final Variant gzip;
+        private final Variant brotli;
+        private final String contentType;
+        private final String cacheControl;
+        private final long lastModified; // seconds
+
+        Asset(Variant identity, Variant gzip, Variant brotli, String contentType, String cacheControl,
+                long lastModified) {
+            this.identity = identity;
+            this.gzip = gzip;
+            this.brotli = brotli;
+            this.contentType = contentType;
+            this.cacheControl = cacheControl;
+            this.lastModified = lastModified;
+        }
+    }
+
+    public StaticFiles(String path, Path root, boolean spa, long maxAge, long mmapMaxBytes) throws IOException {
+        this.path = normalizeMountPath(path);
+        this.root = root.toAbsolutePath().normalize();
+        this.spa = spa;
+        this.maxAge = Math.max(0, maxAge);
+        this.mmapMaxBytes = mmapMaxBytes;
+        index();
+    }
+
+    /**
+     * Mounts from the "static" config section (an object or a list)
+     */
+    public static List<StaticFiles> fromConfig() {
+        Object configured = ConfigManager.getInstance().get("static");
+        List<?> mounts = configured instanceof List ? (List<?>) configured
+                : configured instanceof Map ? List.of(configured) : List.of();
+        List<StaticFiles> result = new ArrayList<>();
+        for (Object mount : mounts) {
+            if (!(mount instanceof Map)) {
+                continue;
+            }
+            Map<?, ?> settings = (Map<?, ?>) mount;
+            Object dir = settings.get("dir");
+            if (dir == null) {
+                System.err.println("⚠️  Static mount without \"dir\" ignored");
+                continue;
+            }
+            Path root = Paths.get(dir.toString());
+            if (!Files.isDirectory(root)) {
+                System.err.println("⚠️  Static directory not found: " + root.toAbsolutePath());
+                continue;
+            }
+            try {
+                result.add(new StaticFiles(
+                        settings.get("path") != null ? settings.get("path").toString() : "/",
+                        root,
+                        Boolean.TRUE.equals(settings.get("spa")),
+                        settings.get("maxAge") instanceof Number ? ((Number) settings.get("maxAge")).longValue() : 0,
+                        settings.get("mmapMaxBytes") instanceof Number
+                                ? ((Number) settings.get("mmapMaxBytes")).longValue()
+                                : DEFAULT_MMAP_MAX_BYTES));
+            } catch (IOException e) {
+                System.err.println("⚠️  Failed to index static directory " + root + ": " + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Add GET and HEAD routes for the mount; call after all other routes
+     */
+    public void register(Javalin app) {
+        String wildcard = (path.equals("/") ? "" : path) + "/<file>";
+        app.get(path, this::handle);
+        app.head(path, this::handle);
+        app.get(wildcard, this::handle);
+        app.head(wildcard, this::handle);
+        System.out.println("  📁 " + path + " -> " + root + " (" + assets.size() + " files, "
+                + mappedBytes / 1024 + " KB mapped)");
+    }
+
+    private void index() throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(root)) {
+            files = walk.filter(Files::isRegularFile).collect(java.util.stream.Collectors.toList());
+        }
+        for (Path file : files) {
+            String relative = root.relativize(file).toString().replace('\\', '/');
+            if (isPrecompressed(file) || isHidden(relative)) {
+                continue;
+            }
+            Variant identity = variant(file);
+            Variant gzip = sibling(file, ".gz");
+            Variant brotli = sibling(file, ".br");
+            String name = file.getFileName().toString();
+            String cacheControl = HASHED_NAME.matcher(name).matches()
+                    ? "public, max-age=" + IMMUTABLE_MAX_AGE + ", immutable"
+                    : maxAge > 0 ? "public, max-age=" + maxAge : "no-cache";
+            long lastModified = Files.getLastModifiedTime(file).toMillis() / 1000;
+            assets.put(relative, new Asset(identity, gzip, brotli, contentType(name), cacheControl, lastModified));
+        }
+    }
+
+    /**
+     * app.js.gz next to app.js is served as app.js; data.tar.gz on its own
+     * is a file in its own right
+     */
+    private static boolean isPrecompressed(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.endsWith(".gz") && !name.endsWith(".br")) {
+            return false;
+        }
+        return Files.isRegularFile(file.resolveSibling(name.substring(0, name.length() - 3)));
+    }
+
+    private Variant sibling(Path file, String suffix) throws IOException {
+        Path sibling = file.resolveSibling(file.getFileName() + suffix);
+        return Files.isRegularFile(sibling) ? variant(sibling) : null;
+    }
+
+    private Variant variant(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            MappedByteBuffer mapped = null;
+            String etag;
+            if (length <= mmapMaxBytes) {
+                // The mapping outlives the channel
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+                mappedBytes += length;
+                etag = etag(mapped.duplicate());
+            } else {
+                etag = etag(file);
+            }
+            indexedBytes += length;
+            return new Variant(file, length, etag, mapped);
+        }
+    }
+
+    private void handle(Context ctx) throws IOException {
+        String requested = ctx.path().substring(Math.min(ctx.path().length(), path.equals("/") ? 1 : path.length()));
+        if (requested.startsWith("/")) {
+            requested = requested.substring(1);
+        }
+        Asset asset = lookup(requested);
+        if (asset == null && spa && accepts(ctx.header("Accept"), "text/html")) {
+            asset = assets.get("index.html");
+        }
+        if (asset == null) {
+            ctx.status(404).json(Map.of("error", true, "message", "Not found", "path", ctx.path()));
+            return;
+        }
+
+        String range = ctx.header("Range");
+        String acceptEncoding = ctx.header("Accept-Encoding");
+        // Ranges apply to the identity bytes
+        Variant variant = asset.identity;
+        String encoding = null;
+        if (range == null && asset.brotli != null && Compression.accepts(acceptEncoding, "br")) {
+            variant = asset.brotli;
+            encoding = "br";
+        } else if (range == null && asset.gzip != null && Compression.acceptsGzip(acceptEncoding)) {
+            variant = asset.gzip;
+            encoding = "gzip";
+        }
+
+        HttpServletResponse res = ctx.res();
+        res.setHeader("ETag", variant.etag);
+        res.setHeader("Last-Modified", HTTP_DATE.format(
+                ZonedDateTime.ofInstant(Instant.ofEpochSecond(asset.lastModified), ZoneOffset.UTC)));
+        res.setHeader("Cache-Control", asset.cacheControl);
+        res.setHeader("Accept-Ranges", "bytes");
+        if (asset.gzip != null || asset.brotli != null) {
+            res.setHeader("Vary", "Accept-Encoding");
+        }
+        if (notModified(ctx, asset, variant)) {
+            notModified.increment();
+            ctx.status(304);
+            return;
+        }
+
+        long start = 0;
+        long length = variant.length;
+        if (range != null && ifRangeMatches(ctx.header("If-Range"), variant)) {
+            long[] bounds = parseRange(range, variant.length);
+            if (bounds != null && bounds.length == 0) {
+                res.setHeader("Content-Range", "bytes */" + variant.length);
+                ctx.status(416);
+                return;
+            }
+            if (bounds != null) {
+                start = bounds[0];
+                length = bounds[1] - bounds[0] + 1;
+                res.setHeader("Content-Range", "bytes " + bounds[0] + "-" + bounds[1] + "/" + variant.length);
+                ctx.status(206);
+                partial.increment();
+            }
+        }
+
+        res.setContentType(asset.contentType);
+        if (encoding != null) {
+            res.setHeader("Content-Encoding", encoding);
+            precompressed.increment();
+        }
+        res.setContentLengthLong(length);
+        served.increment();
+        if (ctx.method() == io.javalin.http.HandlerType.HEAD) {
+            return;
+        }
+        write(res, variant, start, length);
+        bytesSent.add(length);
+    }
+
+    private Asset lookup(String requested) {
+        if (requested.isEmpty() || requested.endsWith("/")) {
+            return assets.get(requested + "index.html");
+        }
+        Asset asset = assets.get(requested);
+        return asset != null ? asset : assets.get(requested + "/index.html");
+    }
+
+    private static void write(HttpServletResponse res, Variant variant, long start, long length)
+            throws IOException {
+        ServletOutputStream out = res.getOutputStream();
+        if (variant.mapped != null) {
+            ByteBuffer slice = variant.mapped.duplicate();
+            slice.position((int) start).limit((int) (start + length));
+            if (out instanceof HttpOutput) {
+                // Jetty writes the mapped pages straight to the socket
+                ((HttpOutput) out).sendContent(slice.slice());
+            } else {
+                Channels.newChannel(out).write(slice);
+            }
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(variant.file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long end = start + length;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+        }
+    }
+
+    private static boolean notModified(Context ctx, Asset asset, Variant variant) {
+        String ifNoneMatch = ctx.header("If-None-Match");
+        if (ifNoneMatch != null) {
+            return ResponseCache.matches(ifNoneMatch, variant.etag);
+        }
+        String ifModifiedSince = ctx.header("If-Modified-Since");
+        if (ifModifiedSince != null) {
+            try {
+                return ZonedDateTime.parse(ifModifiedSince, HTTP_DATE).toEpochSecond() >= asset.lastModified;
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean ifRangeMatches(String ifRange, Variant variant) {
+        // If-Range with a stale validator means "send the whole thing"
+        return ifRange == null || ifRange.equals(variant.etag);
+    }
+
+    /**
+     * Parse a single "bytes=" range
+     *
+     * @return {first, last} inclusive; null to ignore the header (multiple or
+     *         malformed ranges); an empty array if unsatisfiable
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring(6).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return new long[0];
+                }
+                return new long[] { Math.max(0, length - suffix), length - 1 };
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            if (start >= length || end < start) {
+                return new long[0];
+            }
+            return new long[] { start, end };
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Files, mapped bytes and responses served from this mount
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("path", path);
+        stats.put("dir", root.toString());
+        stats.put("files", assets.size());
+        stats.put("bytes", indexedBytes);
+        stats.put("mappedBytes", mappedBytes);
+        stats.put("served", served.sum());
+        stats.put("notModified", notModified.sum());
+        stats.put("partial", partial.sum());
+        stats.put("precompressed", precompressed.sum());
+        stats.put("bytesSent", bytesSent.sum());
+        return stats;
+    }
+
+    private static String contentType(String name) {
+        int dot = name.lastIndexOf('.');
+        String type = dot >= 0 ? CONTENT_TYPES.get(name.substring(dot + 1).toLowerCase(Locale.ROOT)) : null;
+        return type != null ? type : "application/octet-stream";
+    }
+
+    private static boolean isHidden(String relative) {
+        return relative.startsWith(".") || relative.contains("/.");
+    }
+
+    private static boolean accepts(String accept, String type) {
+        return accept != null && (accept.contains(type) || accept.contains("*/*"));
+    }
+
+    private static String normalizeMountPath(String path) {
+        String normalized = path.startsWith("/") ? path : "/" + path;
+        while (normalized.length() > 1 && normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return normalized;
+    }
+
+    private static String etag(ByteBuffer content) {
+        MessageDigest digest = sha256();
+        digest.update(content);
+        return quote(digest.digest());
+    }
+
+    private static String etag(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return quote(digest.digest());
+    }
+
+    // Same format as ResponseCache ETags
+    private static String quote(byte[] digest) {
+        return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package dev.artha.http;
+
+/**
+ * Rejected upload: too large (413) or malformed (400)
+ */
+public class UploadException extends HttpException {
+    private static final long serialVersionUID = 1L;
+
+    public UploadException(int status, String message) {
+        super(status, message);
+    }
+}
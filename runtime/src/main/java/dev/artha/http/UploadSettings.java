@@ -0,0 +1,40 @@
+package dev.artha.http;
+
+import dev.artha.core.ConfigManager;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Upload limits from artha.json:
+ * "uploads": { "maxRequestBytes": 104857600, "maxPartBytes": 52428800,
+ * "memoryThreshold": 65536, "tempDir": "/tmp" }
+ */
+final class UploadSettings {
+    private static UploadSettings instance;
+
+    final long maxRequestBytes;
+    final long maxPartBytes;
+    final int memoryThreshold;
+    final Path tempDir;
+
+    private UploadSettings() {
+        ConfigManager config = ConfigManager.getInstance();
+        this.maxRequestBytes = longValue(config.get("uploads.maxRequestBytes"), 100L * 1024 * 1024);
+        this.maxPartBytes = longValue(config.get("uploads.maxPartBytes"), 50L * 1024 * 1024);
+        Integer threshold = config.getInt("uploads.memoryThreshold");
+        this.memoryThreshold = threshold != null ? Math.max(0, threshold) : 64 * 1024;
+        String dir = config.getString("uploads.tempDir");
+        this.tempDir = Paths.get(dir != null ? dir : System.getProperty("java.io.tmpdir"));
+    }
+
+    static synchronized UploadSettings getInstance() {
+        if (instance == null) {
+            instance = new UploadSettings();
+        }
+        return instance;
+    }
+
+    private static long longValue(Object value, long defaultValue) {
+        return value instanceof Number ? ((Number) value).longValue() : defaultValue;
+    }
+}
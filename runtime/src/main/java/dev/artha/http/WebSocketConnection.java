@@ -0,0 +1,67 @@
+package dev.artha.http;
+
+import io.javalin.websocket.WsContext;
+import java.io.IOException;
+import java.util.List;
+import org.eclipse.jetty.websocket.api.BatchMode;
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+
+/**
+ * WebSocket client: frames of a batch are buffered by Jetty (batch mode)
+ * and flushed together
+ */
+class WebSocketConnection extends PushConnection {
+    private final WsContext ws;
+
+    WebSocketConnection(WsContext ws, String path, int queueSize) {
+        super(path, queueSize);
+        this.ws = ws;
+        ws.session.getRemote().setBatchMode(BatchMode.ON);
+    }
+
+    String sessionId() {
+        return ws.sessionId();
+    }
+
+    @Override
+    public String header(String name) {
+        return ws.header(name);
+    }
+
+    @Override
+    public String query(String name) {
+        return ws.queryParam(name);
+    }
+
+    @Override
+    public String pathParam(String name) {
+        return ws.pathParamMap().get(name);
+    }
+
+    @Override
+    boolean isSse() {
+        return false;
+    }
+
+    @Override
+    void write(List<Broadcaster.Message> batch) throws IOException {
+        RemoteEndpoint remote = ws.session.getRemote();
+        for (Broadcaster.Message message : batch) {
+            if (message.isHeartbeat()) {
+                continue; // Jetty sends pings for WebSockets
+            }
+            remote.sendString(message.text());
+        }
+        remote.flush();
+    }
+
+    @Override
+    void closeTransport() {
+        ws.closeSession();
+    }
+
+    @Override
+    void abortTransport() {
+        ws.session.disconnect();
+    }
+}